@@ -0,0 +1,155 @@
+package com.zybooks.weightlogger.Utilities;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.os.Debug;
+import android.view.View;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.zybooks.weightlogger.Data.WeightDatabaseHelper;
+import com.zybooks.weightlogger.Data.WeightSeries;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that drawing a laid out weight chart allocates nothing per frame, both when the
+ * renderer draws the geometry directly and when WeightChartView replays its recorded layers.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ChartDrawAllocationTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 640;
+    private static final int ENTRY_COUNT = 2_000;
+    private static final int WARMUP_FRAMES = 10;
+    private static final int COUNTED_FRAMES = 200;
+
+    @Test
+    public void rendererFrames_allocateNothing() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ChartGeometry.Data data = ChartGeometry.Data.fromEntries(syntheticEntries());
+        ChartGeometry geometry = new ChartGeometry();
+        geometry.compute(data, null, null, WeightSeries.Resolution.RAW, data.firstDay, data.lastDay,
+                false, 170, DateCodec.INVALID, WIDTH, HEIGHT);
+        ChartRenderer renderer = new ChartRenderer(context);
+        Set<WeightChartView.Overlay> overlays = EnumSet.allOf(WeightChartView.Overlay.class);
+
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Picture picture = new Picture();
+        Canvas recording = picture.beginRecording(WIDTH, HEIGHT);
+        renderer.drawStatic(recording, geometry, true, WIDTH, HEIGHT);
+        renderer.drawOverlays(recording, geometry, overlays, WIDTH, HEIGHT);
+        picture.endRecording();
+
+        try {
+            Runnable frame = () -> {
+                renderer.drawStatic(canvas, geometry, true, WIDTH, HEIGHT);
+                renderer.drawOverlays(canvas, geometry, overlays, WIDTH, HEIGHT);
+                canvas.drawPicture(picture);
+            };
+            assertEquals(0, countAllocations(frame));
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    @Test
+    public void viewFrames_allocateNothing() throws InterruptedException {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        Context context = instrumentation.getTargetContext();
+        WeightChartView[] view = new WeightChartView[1];
+        instrumentation.runOnMainSync(() -> {
+            view[0] = new WeightChartView(context);
+            for (WeightChartView.Overlay overlay : WeightChartView.Overlay.values()) {
+                view[0].setOverlayVisible(overlay, true);
+            }
+            view[0].setData(syntheticEntries(), 170);
+            view[0].measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            view[0].layout(0, 0, WIDTH, HEIGHT);
+        });
+        awaitLayout(instrumentation);
+
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        int[] allocations = new int[1];
+        try {
+            instrumentation.runOnMainSync(() -> allocations[0] = countAllocations(() -> view[0].draw(canvas)));
+        } finally {
+            bitmap.recycle();
+        }
+        assertEquals(0, allocations[0]);
+    }
+
+    /**
+     * Draws a few warm-up frames, which may record layers or load classes, then counts the
+     * objects the calling thread allocates over the measured frames.
+     *
+     * The Debug allocation counters are deprecated, but the platform offers no other
+     * per-thread allocation count that an instrumented test can read.
+     *
+     * @param frame Draws one frame
+     * @return The number of objects allocated while drawing the measured frames
+     */
+    @SuppressWarnings("deprecation")
+    private static int countAllocations(Runnable frame) {
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            frame.run();
+        }
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        try {
+            for (int i = 0; i < COUNTED_FRAMES; i++) {
+                frame.run();
+            }
+        } finally {
+            Debug.stopAllocCounting();
+        }
+        return Debug.getThreadAllocCount();
+    }
+
+    /**
+     * Waits until the view's layouts on the compute executor have been swapped in.
+     * The executor runs one task at a time, so a marker task finishes after the layout;
+     * a few rounds cover the follow-up layout a stale one starts.
+     */
+    private static void awaitLayout(Instrumentation instrumentation) throws InterruptedException {
+        for (int round = 0; round < 3; round++) {
+            CountDownLatch computed = new CountDownLatch(1);
+            AppExecutors.compute().execute(computed::countDown);
+            assertTrue(computed.await(10, TimeUnit.SECONDS));
+            instrumentation.waitForIdleSync();
+        }
+    }
+
+    /**
+     * Builds daily entries, newest first, with a slow downward drift.
+     *
+     * @return The entries
+     */
+    private static List<WeightDatabaseHelper.WeightEntry> syntheticEntries() {
+        int lastDay = DateCodec.epochDay(2025, 6, 30);
+        List<WeightDatabaseHelper.WeightEntry> entries = new ArrayList<>(ENTRY_COUNT);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            double weight = 180 + i * 0.01 + Math.sin(i * 0.7) * 1.5;
+            entries.add(new WeightDatabaseHelper.WeightEntry(i + 1, DateCodec.formatIso(lastDay - i), weight));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,156 @@
+package com.zybooks.weightlogger.Data;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded least-recently-used cache of chart series blocks.
+ * Blocks are keyed by user, resolution and day range, and are dropped when a write
+ * touches a day inside their range. Each user has a generation that every invalidation
+ * bumps; a block loaded under an older generation is not stored, since a write may have
+ * landed after it was read.
+ */
+public class ChartRangeCache {
+    private final int maxBlocks;
+    private final LinkedHashMap<Key, WeightSeries> blocks;
+    private final Map<Integer, Long> generations = new HashMap<>();
+    private long hits;
+    private long misses;
+
+    /**
+     * Cache key identifying one block of a user's series.
+     */
+    private static class Key {
+        final int userId;
+        final WeightSeries.Resolution resolution;
+        final int fromDay;
+        final int toDay;
+
+        Key(int userId, WeightSeries.Resolution resolution, int fromDay, int toDay) {
+            this.userId = userId;
+            this.resolution = resolution;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return userId == other.userId && resolution == other.resolution
+                    && fromDay == other.fromDay && toDay == other.toDay;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = userId;
+            result = 31 * result + resolution.hashCode();
+            result = 31 * result + fromDay;
+            result = 31 * result + toDay;
+            return result;
+        }
+    }
+
+    /**
+     * Creates a new ChartRangeCache.
+     *
+     * @param maxBlocks The maximum number of blocks kept before the least recently used is evicted
+     */
+    public ChartRangeCache(int maxBlocks) {
+        this.maxBlocks = maxBlocks;
+        this.blocks = new LinkedHashMap<Key, WeightSeries>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, WeightSeries> eldest) {
+                return size() > ChartRangeCache.this.maxBlocks;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached block and records a hit or a miss.
+     *
+     * @param userId The ID of the user
+     * @param resolution The resolution of the block
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     * @return The cached block, or null if it is not cached
+     */
+    public synchronized WeightSeries get(int userId, WeightSeries.Resolution resolution, int fromDay, int toDay) {
+        WeightSeries block = blocks.get(new Key(userId, resolution, fromDay, toDay));
+        if (block != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return block;
+    }
+
+    /**
+     * Gets a user's generation; read it before loading a block to store.
+     *
+     * @param userId The ID of the user
+     * @return The number of invalidations seen for the user so far
+     */
+    public synchronized long getGeneration(int userId) {
+        return generations.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Stores a block in the cache unless the user's data was invalidated since it was read.
+     *
+     * @param userId The ID of the user
+     * @param resolution The resolution of the block
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     * @param block The series block to cache
+     * @param generation The user's generation read before the block was loaded
+     */
+    public synchronized void put(int userId, WeightSeries.Resolution resolution, int fromDay, int toDay,
+                                 WeightSeries block, long generation) {
+        if (generation == getGeneration(userId)) {
+            blocks.put(new Key(userId, resolution, fromDay, toDay), block);
+        }
+    }
+
+    /**
+     * Drops every block for a user whose range contains the given day.
+     *
+     * @param userId The ID of the user
+     * @param day The epoch day that was written
+     */
+    public synchronized void invalidate(int userId, int day) {
+        generations.merge(userId, 1L, Long::sum);
+        Iterator<Key> iterator = blocks.keySet().iterator();
+        while (iterator.hasNext()) {
+            Key key = iterator.next();
+            if (key.userId == userId && key.fromDay <= day && day <= key.toDay) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops every block for a user.
+     *
+     * @param userId The ID of the user
+     */
+    public synchronized void invalidateUser(int userId) {
+        generations.merge(userId, 1L, Long::sum);
+        blocks.keySet().removeIf(key -> key.userId == userId);
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     * @return The hit count
+     */
+    public synchronized long getHitCount() { return hits; }
+
+    /**
+     * Gets the number of lookups that had to go to the database.
+     * @return The miss count
+     */
+    public synchronized long getMissCount() { return misses; }
+}
@@ -10,6 +10,9 @@ import com.zybooks.weightlogger.Utilities.ErrorHandler;
  * Base database helper class that manages SQLite database creation and version management.
  * Serves as the parent class for database helpers in the application.
  * Creates and initializes the database tables needed for the application.
+ * Each helper keeps its database open for the life of the process, since reads on the main
+ * thread and writes on the disk executor share the same helper instances; closing after every
+ * operation would close the connection under a cursor another thread is still reading.
  */
 public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String COMPONENT_NAME = "DatabaseHelper";
@@ -24,7 +27,12 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * The current version of the database schema.
      * This value should be incremented when the database schema changes.
      */
-    protected static final int VERSION = 2;
+    protected static final int VERSION = 8;
+
+    /**
+     * SQL expression converting a stored yyyy-MM-dd date to an epoch day.
+     */
+    protected static final String EPOCH_DAY_SQL = "CAST(julianday(date) - 2440587.5 AS INTEGER)";
 
     /**
      * Creates a new instance of the DatabaseHelper.
@@ -34,6 +42,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public DatabaseHelper(Context context) {
         super(context, DATABASE_NAME, null, VERSION);
         this.context = context;
+        // Lets readers proceed while a write on another thread is in progress
+        setWriteAheadLoggingEnabled(true);
     }
 
     /**
@@ -47,6 +57,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         try {
             db.execSQL(UserDatabaseHelper.CREATE_USER_TABLE);
             db.execSQL(WeightDatabaseHelper.CREATE_WEIGHT_TABLE);
+            db.execSQL(StatisticsDatabaseHelper.CREATE_STATISTICS_TABLE);
+            db.execSQL(DayLogDatabaseHelper.CREATE_DAY_LOG_TABLE);
+            db.execSQL(ProfileSnapshotDatabaseHelper.CREATE_PROFILE_SNAPSHOT_TABLE);
             db.execSQL(UserDatabaseHelper.INSERT_DEFAULT_USER);
         } catch (SQLiteException e) {
             ErrorHandler.handleException(context, e, COMPONENT_NAME, "onCreate",
@@ -71,6 +84,43 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                         ErrorHandler.Severity.INFO);
             }
 
+            // v3 adds persisted statistics; rows are rebuilt from the entries on first access
+            if (oldVersion < 3) {
+                db.execSQL(StatisticsDatabaseHelper.CREATE_STATISTICS_TABLE);
+            }
+
+            // v4 adds the per-user logged-day bitsets, also rebuilt on first access
+            if (oldVersion < 4) {
+                db.execSQL(DayLogDatabaseHelper.CREATE_DAY_LOG_TABLE);
+            }
+
+            // v5 stores a smoothed trend with each entry, backfilled here from the raw weights
+            if (oldVersion < 5) {
+                db.execSQL(WeightDatabaseHelper.ADD_TREND_COLUMN);
+                WeightDatabaseHelper.recomputeAllTrends(db);
+            }
+
+            // v6 adds the persisted profile snapshots, computed on first access
+            if (oldVersion < 6) {
+                db.execSQL(ProfileSnapshotDatabaseHelper.CREATE_PROFILE_SNAPSHOT_TABLE);
+            }
+
+            // v7 stores the longest logging gap and this month's logged days with each snapshot;
+            // tables created above already have the columns
+            if (oldVersion == 6) {
+                for (String statement : ProfileSnapshotDatabaseHelper.ADD_CALENDAR_COLUMNS) {
+                    db.execSQL(statement);
+                }
+            }
+
+            // v8 zero-pads dates stored as typed, such as 2023-1-5, which DateCodec rejects;
+            // everything derived from the old dates is dropped and rebuilt on first access
+            if (oldVersion < 8 && WeightDatabaseHelper.normalizeDates(db)) {
+                db.execSQL(StatisticsDatabaseHelper.CLEAR_STATISTICS);
+                db.execSQL(DayLogDatabaseHelper.CLEAR_DAY_LOGS);
+                db.execSQL(ProfileSnapshotDatabaseHelper.CLEAR_SNAPSHOTS);
+            }
+
         } catch (SQLiteException e) {
             ErrorHandler.handleException(context, e, COMPONENT_NAME, "onUpgrade",
                     ErrorHandler.Severity.CRITICAL,
@@ -0,0 +1,368 @@
+package com.zybooks.weightlogger.Data;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compact set of epoch days on which a user logged at least one entry.
+ * One bit per day, packed into 64-bit words starting at a word-aligned base day, so streaks,
+ * gaps and coverage come from word-level bit operations instead of walking date strings.
+ * The storage grows in either direction as days are added.
+ */
+public class DayBitset {
+    private static final int WORD_BITS = 64;
+    private static final int HEADER_BYTES = Integer.BYTES;
+
+    private int baseDay;
+    private long[] words;
+
+    /**
+     * Creates an empty bitset.
+     */
+    public DayBitset() {
+        this.baseDay = 0;
+        this.words = new long[0];
+    }
+
+    /**
+     * Creates a copy of another bitset.
+     *
+     * @param other The bitset to copy
+     */
+    public DayBitset(DayBitset other) {
+        this.baseDay = other.baseDay;
+        this.words = other.words.clone();
+    }
+
+    private DayBitset(int baseDay, long[] words) {
+        this.baseDay = baseDay;
+        this.words = words;
+    }
+
+    /**
+     * Checks whether a day is marked as logged.
+     *
+     * @param day The epoch day
+     * @return true if the day has an entry
+     */
+    public boolean get(int day) {
+        int offset = day - baseDay;
+        if (offset < 0 || offset >= words.length * WORD_BITS) {
+            return false;
+        }
+        return (words[offset / WORD_BITS] & (1L << (offset % WORD_BITS))) != 0;
+    }
+
+    /**
+     * Marks a day as logged, growing the storage if needed.
+     *
+     * @param day The epoch day
+     */
+    public void set(int day) {
+        ensureCovers(day);
+        int offset = day - baseDay;
+        words[offset / WORD_BITS] |= 1L << (offset % WORD_BITS);
+    }
+
+    /**
+     * Marks a day as not logged.
+     *
+     * @param day The epoch day
+     */
+    public void clear(int day) {
+        int offset = day - baseDay;
+        if (offset < 0 || offset >= words.length * WORD_BITS) {
+            return;
+        }
+        words[offset / WORD_BITS] &= ~(1L << (offset % WORD_BITS));
+    }
+
+    /**
+     * Counts the logged days within a range using per-word population counts.
+     *
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     * @return The number of logged days in the range
+     */
+    public int count(int fromDay, int toDay) {
+        int from = Math.max(fromDay - baseDay, 0);
+        int to = Math.min(toDay - baseDay, words.length * WORD_BITS - 1);
+        if (from > to) {
+            return 0;
+        }
+
+        int firstWord = from / WORD_BITS;
+        int lastWord = to / WORD_BITS;
+        long firstMask = -1L << (from % WORD_BITS);
+        long lastMask = -1L >>> (WORD_BITS - 1 - to % WORD_BITS);
+        if (firstWord == lastWord) {
+            return Long.bitCount(words[firstWord] & firstMask & lastMask);
+        }
+
+        int count = Long.bitCount(words[firstWord] & firstMask);
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count + Long.bitCount(words[lastWord] & lastMask);
+    }
+
+    /**
+     * Gets the length of the run of consecutive logged days ending on a given day.
+     * Whole words of logged days are skipped at once.
+     *
+     * @param day The epoch day the run ends on
+     * @return The number of consecutive logged days ending on the day, or 0 if it is not logged
+     */
+    public int runEndingAt(int day) {
+        int offset = day - baseDay;
+        if (offset < 0 || offset >= words.length * WORD_BITS) {
+            return 0;
+        }
+
+        int wordIndex = offset / WORD_BITS;
+        int bit = offset % WORD_BITS;
+        // Shift so the bit for the day is the highest bit, then count the leading ones
+        long shifted = words[wordIndex] << (WORD_BITS - 1 - bit);
+        int run = Long.numberOfLeadingZeros(~shifted);
+        if (run <= bit) {
+            return run;
+        }
+
+        for (int i = wordIndex - 1; i >= 0; i--) {
+            if (words[i] == -1L) {
+                run += WORD_BITS;
+            } else {
+                return run + Long.numberOfLeadingZeros(~words[i]);
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Gets the current logging streak as of a day.
+     * A streak that ended yesterday still counts, so it is not lost before today's entry.
+     *
+     * @param today The current epoch day
+     * @return The number of consecutive logged days ending today or yesterday
+     */
+    public int currentStreak(int today) {
+        int run = runEndingAt(today);
+        return run > 0 ? run : runEndingAt(today - 1);
+    }
+
+    /**
+     * Gets the longest run of consecutive logged days.
+     *
+     * @return The length of the longest streak
+     */
+    public int longestStreak() {
+        int longest = 0;
+        int run = 0;
+        for (long word : words) {
+            if (word == -1L) {
+                run += WORD_BITS;
+                continue;
+            }
+            if (word == 0) {
+                longest = Math.max(longest, run);
+                run = 0;
+                continue;
+            }
+
+            // The low run continues the previous word's high run
+            run += Long.numberOfTrailingZeros(~word);
+            longest = Math.max(longest, run);
+
+            longest = Math.max(longest, longestRun(word));
+            run = Long.numberOfLeadingZeros(~word);
+        }
+        return Math.max(longest, run);
+    }
+
+    /**
+     * Gets the longest gap of unlogged days between the first and last logged day.
+     *
+     * @return The length of the longest gap, or 0 if there are fewer than two logged days
+     */
+    public int longestGap() {
+        int first = firstDay();
+        if (first == Integer.MIN_VALUE) {
+            return 0;
+        }
+
+        // Gaps are the runs of set bits in the complement, limited to the first and last logged day
+        int firstOffset = first - baseDay;
+        int lastOffset = lastDay() - baseDay;
+        int firstWord = firstOffset / WORD_BITS;
+        int lastWord = lastOffset / WORD_BITS;
+        int longest = 0;
+        int run = 0;
+        for (int i = firstWord; i <= lastWord; i++) {
+            long gaps = ~words[i];
+            if (i == firstWord) {
+                gaps &= -1L << (firstOffset % WORD_BITS);
+            }
+            if (i == lastWord) {
+                gaps &= -1L >>> (WORD_BITS - 1 - lastOffset % WORD_BITS);
+            }
+
+            if (gaps == -1L) {
+                run += WORD_BITS;
+                continue;
+            }
+            if (gaps == 0) {
+                longest = Math.max(longest, run);
+                run = 0;
+                continue;
+            }
+
+            // The low run continues the previous word's high run
+            run += Long.numberOfTrailingZeros(~gaps);
+            longest = Math.max(longest, run);
+            longest = Math.max(longest, longestRun(gaps));
+            run = Long.numberOfLeadingZeros(~gaps);
+        }
+        return Math.max(longest, run);
+    }
+
+    /**
+     * Gets the longest run of set bits within one word, jumping from run to run with
+     * trailing-zero counts so the cost depends on the number of runs, not their length.
+     *
+     * @param bits The word to scan
+     * @return The length of the longest run of set bits
+     */
+    private static int longestRun(long bits) {
+        int longest = 0;
+        while (bits != 0) {
+            bits >>>= Long.numberOfTrailingZeros(bits);
+            int length = Long.numberOfTrailingZeros(~bits);
+            longest = Math.max(longest, length);
+            bits = length == WORD_BITS ? 0 : bits >>> length;
+        }
+        return longest;
+    }
+
+    /**
+     * Gets the logged days within a range as a bit mask, bit i being fromDay + i.
+     * Used to draw a calendar heatmap for a month or a week.
+     *
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param length The number of days in the range, at most 64
+     * @return The mask of logged days
+     */
+    public long mask(int fromDay, int length) {
+        long mask = 0;
+        int from = fromDay - baseDay;
+        int limit = Math.min(length, WORD_BITS);
+        for (int i = 0; i < limit; ) {
+            int offset = from + i;
+            if (offset < 0) {
+                i = Math.min(limit, i - offset);
+                continue;
+            }
+            if (offset >= words.length * WORD_BITS) {
+                break;
+            }
+
+            // Copy as many bits as remain in this source word in one step
+            int bit = offset % WORD_BITS;
+            int take = Math.min(WORD_BITS - bit, limit - i);
+            long chunk = words[offset / WORD_BITS] >>> bit;
+            if (take < WORD_BITS) {
+                chunk &= (1L << take) - 1;
+            }
+            mask |= chunk << i;
+            i += take;
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the earliest logged day.
+     *
+     * @return The first logged epoch day, or Integer.MIN_VALUE if none are logged
+     */
+    public int firstDay() {
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != 0) {
+                return baseDay + i * WORD_BITS + Long.numberOfTrailingZeros(words[i]);
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Gets the latest logged day.
+     *
+     * @return The last logged epoch day, or Integer.MIN_VALUE if none are logged
+     */
+    public int lastDay() {
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i] != 0) {
+                return baseDay + i * WORD_BITS + WORD_BITS - 1 - Long.numberOfLeadingZeros(words[i]);
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * Serializes the bitset for storage as a BLOB: the base day followed by the words.
+     *
+     * @return The serialized bytes
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + words.length * Long.BYTES);
+        buffer.putInt(baseDay);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Restores a bitset from stored bytes.
+     *
+     * @param bytes The serialized bytes
+     * @return The restored bitset, or null if the bytes are malformed
+     */
+    public static DayBitset fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_BYTES
+                || (bytes.length - HEADER_BYTES) % Long.BYTES != 0) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int baseDay = buffer.getInt();
+        long[] words = new long[(bytes.length - HEADER_BYTES) / Long.BYTES];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.getLong();
+        }
+        return new DayBitset(baseDay, words);
+    }
+
+    /**
+     * Grows the storage so that it covers a day.
+     *
+     * @param day The epoch day to cover
+     */
+    private void ensureCovers(int day) {
+        if (words.length == 0) {
+            baseDay = Math.floorDiv(day, WORD_BITS) * WORD_BITS;
+            words = new long[1];
+            return;
+        }
+
+        if (day < baseDay) {
+            int newBase = Math.floorDiv(day, WORD_BITS) * WORD_BITS;
+            int shiftWords = (baseDay - newBase) / WORD_BITS;
+            long[] grown = new long[words.length + shiftWords];
+            System.arraycopy(words, 0, grown, shiftWords, words.length);
+            words = grown;
+            baseDay = newBase;
+        } else if (day - baseDay >= words.length * WORD_BITS) {
+            int needed = (day - baseDay) / WORD_BITS + 1;
+            words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+        }
+    }
+}
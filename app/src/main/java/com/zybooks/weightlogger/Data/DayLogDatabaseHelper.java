@@ -0,0 +1,150 @@
+package com.zybooks.weightlogger.Data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import com.zybooks.weightlogger.Utilities.ErrorHandler;
+
+/**
+ * Database helper class for persisting each user's logged-day bitset.
+ * Stores the bitset maintained by the StreakTracker as a BLOB, and can rebuild it
+ * from the distinct dates of the user's weight entries.
+ */
+public class DayLogDatabaseHelper extends DatabaseHelper {
+    private final Context context;
+    private static final String COMPONENT_NAME = "DayLogDatabaseHelper";
+
+    /**
+     * Creates a new DayLogDatabaseHelper instance.
+     *
+     * @param context The context used to access the database
+     */
+    public DayLogDatabaseHelper(Context context) {
+        super(context);
+        this.context = context;
+    }
+
+    /**
+     * SQL statement to create the day log table in the database.
+     * Holds one serialized bitset of logged days per user.
+     */
+    protected static final String CREATE_DAY_LOG_TABLE =
+            "CREATE TABLE IF NOT EXISTS user_day_log (" +
+                    "user_id INTEGER PRIMARY KEY, " +
+                    "days BLOB, " +
+                    "FOREIGN KEY (user_id) REFERENCES users(id))";
+
+    /**
+     * SQL statement dropping every user's stored bitset, which is rebuilt on first access.
+     */
+    protected static final String CLEAR_DAY_LOGS = "DELETE FROM user_day_log";
+
+    /**
+     * Loads a user's stored bitset.
+     *
+     * @param userId The ID of the user
+     * @return The stored bitset, or null if none has been saved or it could not be read
+     */
+    public DayBitset loadDays(int userId) {
+        Cursor cursor = null;
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            cursor = db.rawQuery("SELECT days FROM user_day_log WHERE user_id = ?",
+                    new String[]{String.valueOf(userId)});
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return DayBitset.fromBytes(cursor.getBlob(0));
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "loadDays",
+                    ErrorHandler.Severity.ERROR, null);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Saves a user's bitset, replacing any previous row.
+     *
+     * @param userId The ID of the user
+     * @param days The bitset to store
+     * @return true if the save was successful, false otherwise
+     */
+    public boolean saveDays(int userId, DayBitset days) {
+        try {
+            SQLiteDatabase db = this.getWritableDatabase();
+            ContentValues values = new ContentValues();
+            values.put("user_id", userId);
+            values.put("days", days.toBytes());
+            long result = db.insertWithOnConflict("user_day_log", null, values,
+                    SQLiteDatabase.CONFLICT_REPLACE);
+            return result != -1;
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "saveDays",
+                    ErrorHandler.Severity.ERROR, null);
+            return false;
+        }
+    }
+
+    /**
+     * Rebuilds a user's bitset from the distinct dates of their weight entries.
+     *
+     * @param userId The ID of the user
+     * @return The rebuilt bitset, or null if the query failed
+     */
+    public DayBitset computeDays(int userId) {
+        Cursor cursor = null;
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            cursor = db.rawQuery("SELECT DISTINCT " + EPOCH_DAY_SQL + " FROM weight_entries " +
+                    "WHERE user_id = ? AND date IS NOT NULL", new String[]{String.valueOf(userId)});
+            DayBitset days = new DayBitset();
+            while (cursor.moveToNext()) {
+                if (!cursor.isNull(0)) {
+                    days.set(cursor.getInt(0));
+                }
+            }
+            return days;
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "computeDays",
+                    ErrorHandler.Severity.ERROR, null);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Checks whether a user still has any entry on a date.
+     * Used after a delete or a date change to decide whether the day's bit can be cleared.
+     *
+     * @param userId The ID of the user
+     * @param date The date to check (yyyy-MM-dd)
+     * @return true if an entry exists on the date, or if the check failed
+     */
+    public boolean hasEntryOnDate(int userId, String date) {
+        Cursor cursor = null;
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            cursor = db.rawQuery("SELECT 1 FROM weight_entries WHERE user_id = ? AND date = ? LIMIT 1",
+                    new String[]{String.valueOf(userId), date});
+            return cursor.moveToFirst();
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "hasEntryOnDate",
+                    ErrorHandler.Severity.ERROR, null);
+            // Keeping the bit is the safe choice when the answer is unknown
+            return true;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+}
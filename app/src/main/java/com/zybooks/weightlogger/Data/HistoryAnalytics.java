@@ -0,0 +1,299 @@
+package com.zybooks.weightlogger.Data;
+
+import com.zybooks.weightlogger.Utilities.DateCodec;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Full-history analytics over a weight series: weekday patterns of day-to-day change,
+ * month-by-month averages, and a histogram of daily deltas.
+ * Each delta is the change from the previous point divided by the days between them, so
+ * a change spread over a week counts as seven small daily steps rather than one jump.
+ * Small series are scanned sequentially. Above a size threshold the series is split
+ * across a fork-join pool and the partial aggregates are merged, so very large histories
+ * scale with the available cores. Call from a background thread.
+ */
+public final class HistoryAnalytics {
+    /**
+     * Series at or below this many points are processed on the calling thread.
+     */
+    public static final int PARALLEL_THRESHOLD = 16_384;
+
+    /**
+     * Width of one histogram bin, in weight units.
+     */
+    public static final double DELTA_BIN_WIDTH = 0.5;
+
+    /**
+     * Number of histogram bins on each side of zero; the outermost bins also collect overflow.
+     */
+    public static final int DELTA_BINS_PER_SIDE = 10;
+
+    private static final int DAYS_PER_WEEK = 7;
+
+    private HistoryAnalytics() {
+        // Static helpers only
+    }
+
+    /**
+     * Computes the analytics for a series, in parallel when it is large.
+     *
+     * @param series The weight series, oldest first
+     * @return The merged analytics
+     */
+    public static Result compute(WeightSeries series) {
+        return compute(series, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the analytics for a series using a specific pool.
+     *
+     * @param series The weight series, oldest first
+     * @param pool The pool to split large series across
+     * @return The merged analytics
+     */
+    public static Result compute(WeightSeries series, ForkJoinPool pool) {
+        MonthRange months = new MonthRange(series);
+        if (series.size() <= PARALLEL_THRESHOLD) {
+            return new Result(accumulate(series, months, 0, series.size()), months);
+        }
+        return new Result(pool.invoke(new AnalyticsTask(series, months, 0, series.size())), months);
+    }
+
+    /**
+     * Computes the analytics for a series on the calling thread only.
+     * Useful as a baseline when measuring the parallel speed-up.
+     *
+     * @param series The weight series, oldest first
+     * @return The analytics
+     */
+    public static Result computeSequential(WeightSeries series) {
+        MonthRange months = new MonthRange(series);
+        return new Result(accumulate(series, months, 0, series.size()), months);
+    }
+
+    /**
+     * Scans a slice of the series into a partial aggregate.
+     * A delta at index i compares point i with point i - 1, so each slice reads one point
+     * before its start and neighbouring slices never need their boundaries merged.
+     * Points on the same day as the one before them add no delta.
+     *
+     * @param series The weight series
+     * @param months The month range of the whole series
+     * @param from The first index of the slice, inclusive
+     * @param to The last index of the slice, exclusive
+     * @return The partial aggregate for the slice
+     */
+    private static Partial accumulate(WeightSeries series, MonthRange months, int from, int to) {
+        Partial partial = new Partial(months.count);
+        if (from >= to) {
+            return partial;
+        }
+
+        // Month boundaries are found by date math only when the series crosses into a new month
+        int monthIndex = months.indexOf(series.getDay(from));
+        int monthEndDay = months.endDayOf(monthIndex);
+
+        for (int i = from; i < to; i++) {
+            int day = series.getDay(i);
+            float weight = series.getWeight(i);
+
+            while (day > monthEndDay) {
+                monthIndex++;
+                monthEndDay = months.endDayOf(monthIndex);
+            }
+            partial.monthSums[monthIndex] += weight;
+            partial.monthCounts[monthIndex]++;
+
+            int elapsedDays = i > 0 ? day - series.getDay(i - 1) : 0;
+            if (elapsedDays > 0) {
+                double delta = (weight - series.getWeight(i - 1)) / elapsedDays;
+                int weekday = Math.floorMod(day + 3, DAYS_PER_WEEK);
+                partial.weekdayDeltaSums[weekday] += delta;
+                partial.weekdayDeltaCounts[weekday]++;
+                partial.deltaHistogram[binOf(delta)]++;
+            }
+        }
+        return partial;
+    }
+
+    /**
+     * Gets the histogram bin a daily delta falls into.
+     *
+     * @param delta The change per day since the previous point
+     * @return The bin index, clamped to the outermost bins
+     */
+    private static int binOf(double delta) {
+        int bin = (int) Math.floor(delta / DELTA_BIN_WIDTH) + DELTA_BINS_PER_SIDE;
+        return Math.max(0, Math.min(2 * DELTA_BINS_PER_SIDE - 1, bin));
+    }
+
+    /**
+     * Fork-join task splitting a slice in half until it is small enough to scan directly.
+     */
+    private static class AnalyticsTask extends RecursiveTask<Partial> {
+        private final WeightSeries series;
+        private final MonthRange months;
+        private final int from;
+        private final int to;
+
+        AnalyticsTask(WeightSeries series, MonthRange months, int from, int to) {
+            this.series = series;
+            this.months = months;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return accumulate(series, months, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            AnalyticsTask left = new AnalyticsTask(series, months, from, middle);
+            left.fork();
+            Partial right = new AnalyticsTask(series, months, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * The calendar months spanned by a series, indexed from its first month.
+     */
+    private static class MonthRange {
+        final int firstYear;
+        final int firstMonth;
+        final int count;
+
+        MonthRange(WeightSeries series) {
+            if (series.isEmpty()) {
+                firstYear = 1970;
+                firstMonth = 1;
+                count = 0;
+                return;
+            }
+            firstYear = DateCodec.year(series.getFirstDay());
+            firstMonth = DateCodec.month(series.getFirstDay());
+            count = indexOf(series.getLastDay()) + 1;
+        }
+
+        int indexOf(int day) {
+            return (DateCodec.year(day) - firstYear) * 12 + DateCodec.month(day) - firstMonth;
+        }
+
+        int startOf(int index) {
+            int months = firstMonth - 1 + index;
+            return DateCodec.epochDay(firstYear + Math.floorDiv(months, 12), Math.floorMod(months, 12) + 1, 1);
+        }
+
+        int endDayOf(int index) {
+            return startOf(index + 1) - 1;
+        }
+    }
+
+    /**
+     * Mergeable partial aggregate for one slice of the series.
+     */
+    private static class Partial {
+        final double[] weekdayDeltaSums = new double[DAYS_PER_WEEK];
+        final int[] weekdayDeltaCounts = new int[DAYS_PER_WEEK];
+        final int[] deltaHistogram = new int[2 * DELTA_BINS_PER_SIDE];
+        final double[] monthSums;
+        final int[] monthCounts;
+
+        Partial(int months) {
+            monthSums = new double[months];
+            monthCounts = new int[months];
+        }
+
+        Partial merge(Partial other) {
+            for (int i = 0; i < DAYS_PER_WEEK; i++) {
+                weekdayDeltaSums[i] += other.weekdayDeltaSums[i];
+                weekdayDeltaCounts[i] += other.weekdayDeltaCounts[i];
+            }
+            for (int i = 0; i < deltaHistogram.length; i++) {
+                deltaHistogram[i] += other.deltaHistogram[i];
+            }
+            for (int i = 0; i < monthSums.length; i++) {
+                monthSums[i] += other.monthSums[i];
+                monthCounts[i] += other.monthCounts[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Merged analytics for a whole series.
+     */
+    public static class Result {
+        private final Partial totals;
+        private final MonthRange months;
+
+        private Result(Partial totals, MonthRange months) {
+            this.totals = totals;
+            this.months = months;
+        }
+
+        /**
+         * Gets the average daily change leading up to entries on a weekday.
+         *
+         * @param weekday The weekday, 0 for Monday through 6 for Sunday
+         * @return The mean change per day, or NaN if no entries fall on that weekday
+         */
+        public double getWeekdayMeanDelta(int weekday) {
+            int count = totals.weekdayDeltaCounts[weekday];
+            return count == 0 ? Double.NaN : totals.weekdayDeltaSums[weekday] / count;
+        }
+
+        /**
+         * Gets the number of calendar months the series spans.
+         * @return The number of months, including months without entries
+         */
+        public int getMonthCount() {
+            return totals.monthSums.length;
+        }
+
+        /**
+         * Gets the first day of a month.
+         *
+         * @param monthIndex The month, counted from the series' first month
+         * @return The epoch day the month starts on
+         */
+        public int getMonthStart(int monthIndex) {
+            return months.startOf(monthIndex);
+        }
+
+        /**
+         * Gets the average weight in a month.
+         *
+         * @param monthIndex The month, counted from the series' first month
+         * @return The mean weight, or NaN if the month has no entries
+         */
+        public double getMonthMean(int monthIndex) {
+            int count = totals.monthCounts[monthIndex];
+            return count == 0 ? Double.NaN : totals.monthSums[monthIndex] / count;
+        }
+
+        /**
+         * Gets the change in average weight from the previous month.
+         *
+         * @param monthIndex The month, counted from the series' first month
+         * @return The change in mean weight, or NaN if either month has no entries
+         */
+        public double getMonthOverMonthChange(int monthIndex) {
+            return monthIndex == 0 ? Double.NaN : getMonthMean(monthIndex) - getMonthMean(monthIndex - 1);
+        }
+
+        /**
+         * Gets the number of daily deltas in each histogram bin.
+         * Bin i covers [(i - DELTA_BINS_PER_SIDE) * DELTA_BIN_WIDTH, next bin), with the
+         * first and last bins also holding everything beyond them.
+         *
+         * @return A copy of the histogram counts
+         */
+        public int[] getDeltaHistogram() {
+            return totals.deltaHistogram.clone();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.zybooks.weightlogger.Data;
+
+import com.zybooks.weightlogger.Utilities.DateCodec;
+import com.zybooks.weightlogger.Utilities.RollingWindows;
+
+/**
+ * The values shown on a user's profile screen, computed together in the background and
+ * persisted so the screen can show them as soon as it opens.
+ * Each snapshot records the data version it was computed from, the day it was computed on
+ * and the goal weight it projected toward; it is stale once any of these move on.
+ */
+public class ProfileSnapshot {
+    /**
+     * The rolling-average window lengths shown on the profile, in days.
+     */
+    public static final int[] WINDOW_DAYS = {7, 30, 90};
+
+    /**
+     * How the trend relates to the goal weight.
+     */
+    public enum GoalProjection {
+        NONE,
+        REACHED,
+        NOT_TRENDING,
+        DATE;
+
+        /**
+         * Classifies a trend against a goal weight.
+         * The goal direction is taken from the starting weight, so a user already past
+         * their goal is reported as having reached it.
+         *
+         * @param trend The user's fitted trend, or null if there is not enough history
+         * @param goalWeight The user's goal weight
+         * @param startWeight The weight of the user's first entry
+         * @return The projection state
+         */
+        public static GoalProjection of(TrendEstimate trend, double goalWeight, double startWeight) {
+            if (trend == null || goalWeight <= 0) {
+                return NONE;
+            }
+
+            boolean isWeightLoss = startWeight > goalWeight;
+            double current = trend.getAnchorWeight();
+            if (isWeightLoss ? current <= goalWeight : current >= goalWeight) {
+                return REACHED;
+            }
+            return trend.projectGoalDay(goalWeight) == null ? NOT_TRENDING : DATE;
+        }
+    }
+
+    private final long version;
+    private final int computedDay;
+    private final double goalWeight;
+    private final int entryCount;
+    private final double firstWeight;
+    private final double lastWeight;
+    private final int daysTracked;
+    private final int currentStreak;
+    private final int longestStreak;
+    private final int monthLoggedDays;
+    private final int longestGap;
+    private final long monthLogMask;
+    private final double[] rollingMeans;
+    private final double[] rollingDeltas;
+    private final GoalProjection goalProjection;
+    private final int projectedGoalDay;
+
+    /**
+     * Creates a snapshot from computed or previously stored values.
+     *
+     * @param version The data version the snapshot was computed from
+     * @param computedDay The epoch day the snapshot was computed on
+     * @param goalWeight The goal weight the projection was made toward
+     * @param entryCount The number of entries
+     * @param firstWeight The weight of the earliest entry
+     * @param lastWeight The weight of the latest entry
+     * @param daysTracked The days between the earliest and latest entries
+     * @param currentStreak The logging streak ending on the computed day
+     * @param longestStreak The longest logging streak
+     * @param monthLoggedDays The days logged in the computed day's month so far
+     * @param longestGap The longest run of unlogged days between two logged ones
+     * @param monthLogMask The logged days of the computed day's month so far, bit i being day i + 1
+     * @param rollingMeans The mean weight of each window in WINDOW_DAYS, NaN if empty
+     * @param rollingDeltas The change of each window from the one before it, NaN if unknown
+     * @param goalProjection How the trend relates to the goal weight
+     * @param projectedGoalDay The epoch day the goal is projected for when the projection is DATE,
+     *                         or DateCodec.INVALID otherwise
+     */
+    public ProfileSnapshot(long version, int computedDay, double goalWeight,
+                           int entryCount, double firstWeight, double lastWeight, int daysTracked,
+                           int currentStreak, int longestStreak, int monthLoggedDays,
+                           int longestGap, long monthLogMask, double[] rollingMeans, double[] rollingDeltas,
+                           GoalProjection goalProjection, int projectedGoalDay) {
+        this.version = version;
+        this.computedDay = computedDay;
+        this.goalWeight = goalWeight;
+        this.entryCount = entryCount;
+        this.firstWeight = firstWeight;
+        this.lastWeight = lastWeight;
+        this.daysTracked = daysTracked;
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.monthLoggedDays = monthLoggedDays;
+        this.longestGap = longestGap;
+        this.monthLogMask = monthLogMask;
+        this.rollingMeans = rollingMeans;
+        this.rollingDeltas = rollingDeltas;
+        this.goalProjection = goalProjection;
+        this.projectedGoalDay = projectedGoalDay;
+    }
+
+    /**
+     * Computes a snapshot from a user's current aggregates.
+     *
+     * @param version The data version the inputs were read at
+     * @param today The current epoch day
+     * @param monthStartDay The epoch day the current month started on
+     * @param goalWeight The user's goal weight
+     * @param statistics The user's running statistics
+     * @param series The user's weight series, oldest first
+     * @param loggedDays The user's logged-day bitset
+     * @param trend The user's fitted trend, or null if there is not enough history
+     * @return The computed snapshot
+     */
+    public static ProfileSnapshot compute(long version, int today, int monthStartDay, double goalWeight,
+                                          WeightStatistics statistics, WeightSeries series,
+                                          DayBitset loggedDays, TrendEstimate trend) {
+        RollingWindows rollingWindows = new RollingWindows(series);
+        double[] rollingMeans = new double[WINDOW_DAYS.length];
+        double[] rollingDeltas = new double[WINDOW_DAYS.length];
+        for (int i = 0; i < WINDOW_DAYS.length; i++) {
+            rollingMeans[i] = rollingWindows.latestMean(WINDOW_DAYS[i]);
+            rollingDeltas[i] = rollingWindows.latestDelta(WINDOW_DAYS[i]);
+        }
+
+        GoalProjection goalProjection = GoalProjection.of(trend, goalWeight, statistics.getFirstWeight());
+        int projectedGoalDay = goalProjection == GoalProjection.DATE ? trend.projectGoalDay(goalWeight) : DateCodec.INVALID;
+
+        return new ProfileSnapshot(version, today, goalWeight,
+                statistics.getCount(), statistics.getFirstWeight(), statistics.getLastWeight(),
+                statistics.getDaysTracked(),
+                loggedDays.currentStreak(today), loggedDays.longestStreak(),
+                loggedDays.count(monthStartDay, today),
+                loggedDays.longestGap(), loggedDays.mask(monthStartDay, today - monthStartDay + 1),
+                rollingMeans, rollingDeltas, goalProjection, projectedGoalDay);
+    }
+
+    /**
+     * Checks whether the snapshot still describes the user's data.
+     *
+     * @param dataVersion The user's current data version
+     * @param today The current epoch day
+     * @param goalWeight The user's current goal weight
+     * @return true if nothing the snapshot depends on has changed
+     */
+    public boolean isCurrent(long dataVersion, int today, double goalWeight) {
+        return version == dataVersion && computedDay == today && this.goalWeight == goalWeight;
+    }
+
+    // Getters
+    public long getVersion() { return version; }
+    public int getComputedDay() { return computedDay; }
+    public double getGoalWeight() { return goalWeight; }
+    public int getEntryCount() { return entryCount; }
+    public double getFirstWeight() { return firstWeight; }
+    public double getLastWeight() { return lastWeight; }
+    public int getDaysTracked() { return daysTracked; }
+    public int getCurrentStreak() { return currentStreak; }
+    public int getLongestStreak() { return longestStreak; }
+    public int getMonthLoggedDays() { return monthLoggedDays; }
+    public int getLongestGap() { return longestGap; }
+    public long getMonthLogMask() { return monthLogMask; }
+    public GoalProjection getGoalProjection() { return goalProjection; }
+    public int getProjectedGoalDay() { return projectedGoalDay; }
+
+    /**
+     * Gets the mean weight of a rolling window.
+     *
+     * @param windowIndex The index of the window in WINDOW_DAYS
+     * @return The mean weight, or NaN if the window has no entries
+     */
+    public double getRollingMean(int windowIndex) { return rollingMeans[windowIndex]; }
+
+    /**
+     * Gets the change of a rolling window's mean from the window before it.
+     *
+     * @param windowIndex The index of the window in WINDOW_DAYS
+     * @return The change in mean weight, or NaN if either window has no entries
+     */
+    public double getRollingDelta(int windowIndex) { return rollingDeltas[windowIndex]; }
+}
@@ -0,0 +1,254 @@
+package com.zybooks.weightlogger.Data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import com.zybooks.weightlogger.Utilities.DateCodec;
+import com.zybooks.weightlogger.Utilities.ErrorHandler;
+
+/**
+ * Database helper class for persisting each user's profile snapshot and data version.
+ * The data version is bumped by every weight write; a stored snapshot is only reused
+ * while the version it was computed from matches.
+ */
+public class ProfileSnapshotDatabaseHelper extends DatabaseHelper {
+    private final Context context;
+    private static final String COMPONENT_NAME = "ProfileSnapshotDatabaseHelper";
+
+    /**
+     * Creates a new ProfileSnapshotDatabaseHelper instance.
+     *
+     * @param context The context used to access the database
+     */
+    public ProfileSnapshotDatabaseHelper(Context context) {
+        super(context);
+        this.context = context;
+    }
+
+    /**
+     * SQL statement to create the profile snapshot table in the database.
+     * Holds one row per user; the snapshot columns are null until one has been computed,
+     * and NaN rolling values are stored as null.
+     */
+    protected static final String CREATE_PROFILE_SNAPSHOT_TABLE =
+            "CREATE TABLE IF NOT EXISTS profile_snapshot (" +
+                    "user_id INTEGER PRIMARY KEY, " +
+                    "data_version INTEGER NOT NULL DEFAULT 0, " +
+                    "snapshot_version INTEGER, " +
+                    "computed_day INTEGER, " +
+                    "goal_weight REAL, " +
+                    "entry_count INTEGER, " +
+                    "first_weight REAL, " +
+                    "last_weight REAL, " +
+                    "days_tracked INTEGER, " +
+                    "current_streak INTEGER, " +
+                    "longest_streak INTEGER, " +
+                    "month_logged_days INTEGER, " +
+                    "avg_7 REAL, " +
+                    "delta_7 REAL, " +
+                    "avg_30 REAL, " +
+                    "delta_30 REAL, " +
+                    "avg_90 REAL, " +
+                    "delta_90 REAL, " +
+                    "goal_projection TEXT, " +
+                    "projected_goal_day INTEGER, " +
+                    "longest_gap INTEGER, " +
+                    "month_log_mask INTEGER, " +
+                    "FOREIGN KEY (user_id) REFERENCES users(id))";
+
+    /**
+     * SQL statement marking every stored snapshot stale, so each is recomputed on next open.
+     */
+    protected static final String CLEAR_SNAPSHOTS = "UPDATE profile_snapshot SET snapshot_version = NULL";
+
+    /**
+     * SQL statements adding the logged-day gap and calendar columns to a v6 snapshot table.
+     * Stored snapshots are cleared alongside, so none is read back without them.
+     */
+    protected static final String[] ADD_CALENDAR_COLUMNS = {
+            "ALTER TABLE profile_snapshot ADD COLUMN longest_gap INTEGER",
+            "ALTER TABLE profile_snapshot ADD COLUMN month_log_mask INTEGER",
+            CLEAR_SNAPSHOTS
+    };
+
+    // Column names for each window in ProfileSnapshot.WINDOW_DAYS
+    private static final String[] MEAN_COLUMNS = {"avg_7", "avg_30", "avg_90"};
+    private static final String[] DELTA_COLUMNS = {"delta_7", "delta_30", "delta_90"};
+
+    /**
+     * Gets a user's data version.
+     *
+     * @param userId The ID of the user
+     * @return The data version, 0 if the user has never written, or -1 if the query failed
+     */
+    public long getDataVersion(int userId) {
+        Cursor cursor = null;
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            cursor = db.rawQuery("SELECT data_version FROM profile_snapshot WHERE user_id = ?",
+                    new String[]{String.valueOf(userId)});
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "getDataVersion",
+                    ErrorHandler.Severity.ERROR, null);
+            return -1;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Bumps a user's data version after a write.
+     *
+     * @param userId The ID of the user
+     * @return The new data version, or -1 if the update failed
+     */
+    public long incrementDataVersion(int userId) {
+        Cursor cursor = null;
+        String[] args = {String.valueOf(userId)};
+        try {
+            SQLiteDatabase db = this.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                db.execSQL("INSERT OR IGNORE INTO profile_snapshot (user_id) VALUES (?)", args);
+                db.execSQL("UPDATE profile_snapshot SET data_version = data_version + 1 WHERE user_id = ?", args);
+                cursor = db.rawQuery("SELECT data_version FROM profile_snapshot WHERE user_id = ?", args);
+                long version = cursor.moveToFirst() ? cursor.getLong(0) : -1;
+                db.setTransactionSuccessful();
+                return version;
+            } finally {
+                db.endTransaction();
+            }
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "incrementDataVersion",
+                    ErrorHandler.Severity.ERROR, null);
+            return -1;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Loads a user's stored snapshot.
+     *
+     * @param userId The ID of the user
+     * @return The stored snapshot, or null if none has been computed or it could not be read
+     */
+    public ProfileSnapshot loadSnapshot(int userId) {
+        Cursor cursor = null;
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            cursor = db.rawQuery(
+                    "SELECT snapshot_version, computed_day, goal_weight, entry_count, first_weight, " +
+                            "last_weight, days_tracked, current_streak, longest_streak, month_logged_days, " +
+                            "avg_7, delta_7, avg_30, delta_30, avg_90, delta_90, " +
+                            "goal_projection, projected_goal_day, longest_gap, month_log_mask " +
+                            "FROM profile_snapshot WHERE user_id = ? AND snapshot_version IS NOT NULL",
+                    new String[]{String.valueOf(userId)});
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+
+            double[] rollingMeans = new double[ProfileSnapshot.WINDOW_DAYS.length];
+            double[] rollingDeltas = new double[ProfileSnapshot.WINDOW_DAYS.length];
+            for (int i = 0; i < rollingMeans.length; i++) {
+                rollingMeans[i] = getNullableDouble(cursor, 10 + 2 * i);
+                rollingDeltas[i] = getNullableDouble(cursor, 11 + 2 * i);
+            }
+
+            // Snapshots saved before DateCodec.INVALID was used stored 0 when there was no date
+            ProfileSnapshot.GoalProjection goalProjection = ProfileSnapshot.GoalProjection.valueOf(cursor.getString(16));
+            int projectedGoalDay = goalProjection == ProfileSnapshot.GoalProjection.DATE
+                    ? cursor.getInt(17) : DateCodec.INVALID;
+
+            return new ProfileSnapshot(cursor.getLong(0), cursor.getInt(1), cursor.getDouble(2),
+                    cursor.getInt(3), cursor.getDouble(4), cursor.getDouble(5), cursor.getInt(6),
+                    cursor.getInt(7), cursor.getInt(8), cursor.getInt(9),
+                    cursor.getInt(18), cursor.getLong(19), rollingMeans, rollingDeltas,
+                    goalProjection, projectedGoalDay);
+        } catch (SQLiteException | IllegalArgumentException | NullPointerException e) {
+            // An unreadable snapshot is simply recomputed
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "loadSnapshot",
+                    ErrorHandler.Severity.WARNING, null);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Saves a user's snapshot without touching their data version.
+     *
+     * @param userId The ID of the user
+     * @param snapshot The snapshot to store
+     * @return true if the save was successful, false otherwise
+     */
+    public boolean saveSnapshot(int userId, ProfileSnapshot snapshot) {
+        try {
+            SQLiteDatabase db = this.getWritableDatabase();
+            ContentValues values = new ContentValues();
+            values.put("snapshot_version", snapshot.getVersion());
+            values.put("computed_day", snapshot.getComputedDay());
+            values.put("goal_weight", snapshot.getGoalWeight());
+            values.put("entry_count", snapshot.getEntryCount());
+            values.put("first_weight", snapshot.getFirstWeight());
+            values.put("last_weight", snapshot.getLastWeight());
+            values.put("days_tracked", snapshot.getDaysTracked());
+            values.put("current_streak", snapshot.getCurrentStreak());
+            values.put("longest_streak", snapshot.getLongestStreak());
+            values.put("month_logged_days", snapshot.getMonthLoggedDays());
+            values.put("longest_gap", snapshot.getLongestGap());
+            values.put("month_log_mask", snapshot.getMonthLogMask());
+            for (int i = 0; i < MEAN_COLUMNS.length; i++) {
+                putNullableDouble(values, MEAN_COLUMNS[i], snapshot.getRollingMean(i));
+                putNullableDouble(values, DELTA_COLUMNS[i], snapshot.getRollingDelta(i));
+            }
+            values.put("goal_projection", snapshot.getGoalProjection().name());
+            values.put("projected_goal_day", snapshot.getProjectedGoalDay());
+
+            db.execSQL("INSERT OR IGNORE INTO profile_snapshot (user_id) VALUES (?)",
+                    new String[]{String.valueOf(userId)});
+            int rows = db.update("profile_snapshot", values, "user_id = ?",
+                    new String[]{String.valueOf(userId)});
+            return rows > 0;
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "saveSnapshot",
+                    ErrorHandler.Severity.ERROR, null);
+            return false;
+        }
+    }
+
+    /**
+     * Reads a REAL column, mapping null back to NaN.
+     *
+     * @param cursor The cursor positioned on the row
+     * @param column The column index
+     * @return The value, or NaN if the column is null
+     */
+    private static double getNullableDouble(Cursor cursor, int column) {
+        return cursor.isNull(column) ? Double.NaN : cursor.getDouble(column);
+    }
+
+    /**
+     * Writes a REAL column, storing NaN as null since SQLite has no NaN.
+     *
+     * @param values The values being written
+     * @param column The column name
+     * @param value The value to store
+     */
+    private static void putNullableDouble(ContentValues values, String column, double value) {
+        if (Double.isNaN(value)) {
+            values.putNull(column);
+        } else {
+            values.put(column, value);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.zybooks.weightlogger.Data;
+
+/**
+ * Segment tree over a weight series answering min, max, sum and count for any day range
+ * in O(log n). Built bottom-up in O(n) over flat arrays, so no node objects are allocated,
+ * and never changed afterwards, so it can be read from any thread.
+ */
+public class SeriesSegmentTree {
+    private final int[] days;
+    private final int size;
+    private final float[] min;
+    private final float[] max;
+    private final double[] sum;
+
+    /**
+     * Builds a tree over a series.
+     *
+     * @param series The weight series, oldest first
+     */
+    public SeriesSegmentTree(WeightSeries series) {
+        size = series.size();
+        days = new int[size];
+        min = new float[2 * size];
+        max = new float[2 * size];
+        sum = new double[2 * size];
+
+        for (int i = 0; i < size; i++) {
+            days[i] = series.getDay(i);
+            float weight = series.getWeight(i);
+            min[size + i] = weight;
+            max[size + i] = weight;
+            sum[size + i] = weight;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            pull(node);
+        }
+    }
+
+    /**
+     * Gets the number of points in the tree.
+     * @return The number of points
+     */
+    public int size() { return size; }
+
+    /**
+     * Gets the epoch day of the oldest point.
+     * @return The first epoch day, or 0 if the tree is empty
+     */
+    public int getFirstDay() { return size == 0 ? 0 : days[0]; }
+
+    /**
+     * Gets the epoch day of the newest point.
+     * @return The last epoch day, or 0 if the tree is empty
+     */
+    public int getLastDay() { return size == 0 ? 0 : days[size - 1]; }
+
+    /**
+     * Gets the number of points within a day range.
+     *
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     * @return The number of points in the range
+     */
+    public int count(int fromDay, int toDay) {
+        return Math.max(0, lowerBound(toDay + 1) - lowerBound(fromDay));
+    }
+
+    /**
+     * Gets the smallest weight within a day range.
+     *
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     * @return The minimum weight, or NaN if the range has no points
+     */
+    public float min(int fromDay, int toDay) {
+        int low = lowerBound(fromDay) + size;
+        int high = lowerBound(toDay + 1) + size;
+        if (low >= high) {
+            return Float.NaN;
+        }
+        float result = Float.POSITIVE_INFINITY;
+        for (; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) result = Math.min(result, min[low++]);
+            if ((high & 1) == 1) result = Math.min(result, min[--high]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the largest weight within a day range.
+     *
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     * @return The maximum weight, or NaN if the range has no points
+     */
+    public float max(int fromDay, int toDay) {
+        int low = lowerBound(fromDay) + size;
+        int high = lowerBound(toDay + 1) + size;
+        if (low >= high) {
+            return Float.NaN;
+        }
+        float result = Float.NEGATIVE_INFINITY;
+        for (; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) result = Math.max(result, max[low++]);
+            if ((high & 1) == 1) result = Math.max(result, max[--high]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the sum of weights within a day range.
+     *
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     * @return The sum of weights, or 0 if the range has no points
+     */
+    public double sum(int fromDay, int toDay) {
+        int low = lowerBound(fromDay) + size;
+        int high = lowerBound(toDay + 1) + size;
+        double result = 0;
+        for (; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) result += sum[low++];
+            if ((high & 1) == 1) result += sum[--high];
+        }
+        return result;
+    }
+
+    /**
+     * Gets the mean weight within a day range.
+     *
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     * @return The mean weight, or NaN if the range has no points
+     */
+    public double mean(int fromDay, int toDay) {
+        int count = count(fromDay, toDay);
+        return count == 0 ? Double.NaN : sum(fromDay, toDay) / count;
+    }
+
+    /**
+     * Recomputes an internal node from its two children.
+     *
+     * @param node The index of the node
+     */
+    private void pull(int node) {
+        int left = 2 * node;
+        int right = left + 1;
+        min[node] = Math.min(min[left], min[right]);
+        max[node] = Math.max(max[left], max[right]);
+        sum[node] = sum[left] + sum[right];
+    }
+
+    /**
+     * Finds the first point on or after a day.
+     *
+     * @param day The epoch day
+     * @return The index of the first point on or after the day, or size if none
+     */
+    private int lowerBound(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,178 @@
+package com.zybooks.weightlogger.Data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import com.zybooks.weightlogger.Utilities.ErrorHandler;
+
+/**
+ * Database helper class for persisting per-user statistics aggregates.
+ * Stores the running totals maintained by the StatisticsEngine so they survive restarts,
+ * and can rebuild them from the weight entries in a single aggregate query.
+ */
+public class StatisticsDatabaseHelper extends DatabaseHelper {
+    private final Context context;
+    private static final String COMPONENT_NAME = "StatisticsDatabaseHelper";
+
+    /**
+     * Creates a new StatisticsDatabaseHelper instance.
+     *
+     * @param context The context used to access the database
+     */
+    public StatisticsDatabaseHelper(Context context) {
+        super(context);
+        this.context = context;
+    }
+
+    /**
+     * SQL statement to create the user statistics table in the database.
+     * Holds one row of running aggregates per user.
+     */
+    protected static final String CREATE_STATISTICS_TABLE =
+            "CREATE TABLE IF NOT EXISTS user_statistics (" +
+                    "user_id INTEGER PRIMARY KEY, " +
+                    "entry_count INTEGER, " +
+                    "weight_sum REAL, " +
+                    "weight_min REAL, " +
+                    "weight_max REAL, " +
+                    "first_day INTEGER, " +
+                    "first_weight REAL, " +
+                    "last_day INTEGER, " +
+                    "last_weight REAL, " +
+                    "sum_x REAL, " +
+                    "sum_xx REAL, " +
+                    "sum_xy REAL, " +
+                    "sum_yy REAL, " +
+                    "FOREIGN KEY (user_id) REFERENCES users(id))";
+
+    /**
+     * SQL statement dropping every user's stored statistics, which are rebuilt on first access.
+     */
+    protected static final String CLEAR_STATISTICS = "DELETE FROM user_statistics";
+
+    /**
+     * Loads a user's stored statistics.
+     *
+     * @param userId The ID of the user
+     * @return The stored statistics, or null if none have been saved
+     */
+    public WeightStatistics loadStatistics(int userId) {
+        Cursor cursor = null;
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            cursor = db.rawQuery(
+                    "SELECT entry_count, weight_sum, weight_min, weight_max, first_day, first_weight, " +
+                            "last_day, last_weight, sum_x, sum_xx, sum_xy, sum_yy " +
+                            "FROM user_statistics WHERE user_id = ?",
+                    new String[]{String.valueOf(userId)});
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return new WeightStatistics(cursor.getInt(0), cursor.getDouble(1),
+                    cursor.getDouble(2), cursor.getDouble(3),
+                    cursor.getInt(4), cursor.getDouble(5),
+                    cursor.getInt(6), cursor.getDouble(7),
+                    cursor.getDouble(8), cursor.getDouble(9),
+                    cursor.getDouble(10), cursor.getDouble(11));
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "loadStatistics",
+                    ErrorHandler.Severity.ERROR, null);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Saves a user's statistics, replacing any previous row.
+     *
+     * @param userId The ID of the user
+     * @param statistics The statistics to store
+     * @return true if the save was successful, false otherwise
+     */
+    public boolean saveStatistics(int userId, WeightStatistics statistics) {
+        try {
+            SQLiteDatabase db = this.getWritableDatabase();
+            ContentValues values = new ContentValues();
+            values.put("user_id", userId);
+            values.put("entry_count", statistics.getCount());
+            values.put("weight_sum", statistics.getSum());
+            values.put("weight_min", statistics.getMin());
+            values.put("weight_max", statistics.getMax());
+            values.put("first_day", statistics.getFirstDay());
+            values.put("first_weight", statistics.getFirstWeight());
+            values.put("last_day", statistics.getLastDay());
+            values.put("last_weight", statistics.getLastWeight());
+            values.put("sum_x", statistics.getSumX());
+            values.put("sum_xx", statistics.getSumXX());
+            values.put("sum_xy", statistics.getSumXY());
+            values.put("sum_yy", statistics.getSumYY());
+            long result = db.insertWithOnConflict("user_statistics", null, values,
+                    SQLiteDatabase.CONFLICT_REPLACE);
+            return result != -1;
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "saveStatistics",
+                    ErrorHandler.Severity.ERROR, null);
+            return false;
+        }
+    }
+
+    /**
+     * Rebuilds a user's statistics from their weight entries.
+     * Used on first access, after a removal invalidates an extreme, and for verification.
+     *
+     * @param userId The ID of the user
+     * @return The recomputed statistics, or null if the query failed
+     */
+    public WeightStatistics computeStatistics(int userId) {
+        Cursor cursor = null;
+        String[] args = {String.valueOf(userId)};
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            cursor = db.rawQuery(
+                    "SELECT COUNT(*), TOTAL(weight), MIN(weight), MAX(weight), " +
+                            "TOTAL(d), TOTAL(d * d), TOTAL(d * weight), TOTAL(weight * weight) " +
+                            "FROM (SELECT weight, " + EPOCH_DAY_SQL + " AS d " +
+                            "FROM weight_entries WHERE user_id = ?)",
+                    args);
+            if (!cursor.moveToFirst() || cursor.getInt(0) == 0) {
+                return new WeightStatistics();
+            }
+            int count = cursor.getInt(0);
+            double sum = cursor.getDouble(1);
+            double min = cursor.getDouble(2);
+            double max = cursor.getDouble(3);
+            double sumX = cursor.getDouble(4);
+            double sumXX = cursor.getDouble(5);
+            double sumXY = cursor.getDouble(6);
+            double sumYY = cursor.getDouble(7);
+            cursor.close();
+
+            cursor = db.rawQuery("SELECT " + EPOCH_DAY_SQL + ", weight FROM weight_entries " +
+                    "WHERE user_id = ? ORDER BY date ASC, id ASC LIMIT 1", args);
+            int firstDay = cursor.moveToFirst() ? cursor.getInt(0) : 0;
+            double firstWeight = cursor.getCount() > 0 ? cursor.getDouble(1) : 0;
+            cursor.close();
+
+            cursor = db.rawQuery("SELECT " + EPOCH_DAY_SQL + ", weight FROM weight_entries " +
+                    "WHERE user_id = ? ORDER BY date DESC, id DESC LIMIT 1", args);
+            int lastDay = cursor.moveToFirst() ? cursor.getInt(0) : 0;
+            double lastWeight = cursor.getCount() > 0 ? cursor.getDouble(1) : 0;
+
+            return new WeightStatistics(count, sum, min, max, firstDay, firstWeight,
+                    lastDay, lastWeight, sumX, sumXX, sumXY, sumYY);
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "computeStatistics",
+                    ErrorHandler.Severity.ERROR, null);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+}
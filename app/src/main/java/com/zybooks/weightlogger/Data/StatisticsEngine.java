@@ -0,0 +1,206 @@
+package com.zybooks.weightlogger.Data;
+
+import android.content.Context;
+
+import com.zybooks.weightlogger.Utilities.ErrorHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maintains each user's running statistics as entries are added, edited and deleted.
+ * Aggregates live in memory, are persisted after every change, and are only rebuilt
+ * from the weight entries when a removal invalidates them or verification finds drift.
+ */
+public class StatisticsEngine {
+    private static final String COMPONENT_NAME = "StatisticsEngine";
+    private static final Object lock = new Object();
+    private static final Map<Integer, WeightStatistics> statisticsCache = new HashMap<>();
+
+    private final StatisticsDatabaseHelper statisticsDatabaseHelper;
+
+    /**
+     * Creates a new StatisticsEngine instance.
+     *
+     * @param context The context used to initialize the database helper
+     */
+    public StatisticsEngine(Context context) {
+        this.statisticsDatabaseHelper = new StatisticsDatabaseHelper(context);
+    }
+
+    /**
+     * Gets a user's current statistics.
+     * Loads the persisted aggregates on first access and repairs them if they are stale.
+     *
+     * @param userId The ID of the user
+     * @return A copy of the user's statistics
+     */
+    public WeightStatistics getStatistics(int userId) {
+        synchronized (lock) {
+            return new WeightStatistics(load(userId));
+        }
+    }
+
+    /**
+     * Applies a newly added entry to a user's statistics.
+     * Called after the entry has been written.
+     *
+     * @param userId The ID of the user
+     * @param day The epoch day of the entry, or null if its date could not be parsed
+     * @param weight The weight of the entry
+     */
+    public void onEntryAdded(int userId, Integer day, double weight) {
+        synchronized (lock) {
+            WeightStatistics statistics = loadStored(userId);
+            if (statistics == null || statistics.needsRepair() || day == null) {
+                // The rebuild reads the entries after the write, so it already includes this one
+                rebuild(userId);
+                return;
+            }
+            statistics.add(day, weight);
+            statisticsDatabaseHelper.saveStatistics(userId, statistics);
+        }
+    }
+
+    /**
+     * Removes a deleted entry from a user's statistics.
+     * Called after the entry has been deleted.
+     *
+     * @param userId The ID of the user
+     * @param day The epoch day of the entry, or null if its date could not be parsed
+     * @param weight The weight of the entry
+     */
+    public void onEntryRemoved(int userId, Integer day, double weight) {
+        synchronized (lock) {
+            WeightStatistics statistics = loadStored(userId);
+            if (statistics == null || statistics.needsRepair() || day == null) {
+                rebuild(userId);
+                return;
+            }
+            statistics.remove(day, weight);
+            if (statistics.needsRepair()) {
+                // The removed entry was an extreme or an endpoint, so rebuild while the change is fresh
+                rebuild(userId);
+            } else {
+                statisticsDatabaseHelper.saveStatistics(userId, statistics);
+            }
+        }
+    }
+
+    /**
+     * Replaces an edited entry's previous values with its new ones.
+     * Called after the entry has been updated.
+     *
+     * @param userId The ID of the user
+     * @param oldDay The entry's previous epoch day, or null if it could not be parsed
+     * @param oldWeight The entry's previous weight
+     * @param newDay The entry's new epoch day, or null if it could not be parsed
+     * @param newWeight The entry's new weight
+     */
+    public void onEntryUpdated(int userId, Integer oldDay, double oldWeight, Integer newDay, double newWeight) {
+        synchronized (lock) {
+            WeightStatistics statistics = loadStored(userId);
+            if (statistics == null || statistics.needsRepair() || oldDay == null || newDay == null) {
+                rebuild(userId);
+                return;
+            }
+            statistics.remove(oldDay, oldWeight);
+            statistics.add(newDay, newWeight);
+            if (statistics.needsRepair()) {
+                rebuild(userId);
+            } else {
+                statisticsDatabaseHelper.saveStatistics(userId, statistics);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds a user's statistics from their entries.
+     * Used when a write happened without knowing the values it replaced.
+     *
+     * @param userId The ID of the user
+     */
+    public void invalidate(int userId) {
+        synchronized (lock) {
+            rebuild(userId);
+        }
+    }
+
+    /**
+     * Recomputes a user's statistics from scratch and compares them to the running aggregates.
+     * Any drift is logged and the recomputed values replace the running ones.
+     *
+     * @param userId The ID of the user
+     * @return true if the running aggregates matched the recomputed ones
+     */
+    public boolean verify(int userId) {
+        synchronized (lock) {
+            WeightStatistics running = load(userId);
+            WeightStatistics recomputed = statisticsDatabaseHelper.computeStatistics(userId);
+            if (recomputed == null) {
+                return false;
+            }
+            if (running.matches(recomputed)) {
+                return true;
+            }
+
+            ErrorHandler.logError(COMPONENT_NAME, "Statistics drift repaired for user " + userId,
+                    ErrorHandler.Severity.WARNING);
+            statisticsCache.put(userId, recomputed);
+            statisticsDatabaseHelper.saveStatistics(userId, recomputed);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the live statistics object for a user, loading or rebuilding it as needed.
+     * Must be called while holding the lock.
+     *
+     * @param userId The ID of the user
+     * @return The user's statistics
+     */
+    private WeightStatistics load(int userId) {
+        WeightStatistics statistics = loadStored(userId);
+        if (statistics == null || statistics.needsRepair()) {
+            statistics = rebuild(userId);
+        }
+        return statistics;
+    }
+
+    /**
+     * Gets the in-memory or persisted statistics for a user without rebuilding them.
+     * Must be called while holding the lock.
+     *
+     * @param userId The ID of the user
+     * @return The stored statistics, or null if none exist yet
+     */
+    private WeightStatistics loadStored(int userId) {
+        WeightStatistics statistics = statisticsCache.get(userId);
+        if (statistics == null) {
+            statistics = statisticsDatabaseHelper.loadStatistics(userId);
+            if (statistics != null) {
+                statisticsCache.put(userId, statistics);
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Recomputes a user's statistics from their entries and persists the result.
+     * Must be called while holding the lock.
+     *
+     * @param userId The ID of the user
+     * @return The rebuilt statistics, flagged for another repair if the query failed
+     */
+    private WeightStatistics rebuild(int userId) {
+        WeightStatistics statistics = statisticsDatabaseHelper.computeStatistics(userId);
+        if (statistics == null) {
+            statistics = new WeightStatistics();
+            statistics.markNeedsRepair();
+        } else {
+            statisticsDatabaseHelper.saveStatistics(userId, statistics);
+        }
+        statisticsCache.put(userId, statistics);
+        return statistics;
+    }
+}
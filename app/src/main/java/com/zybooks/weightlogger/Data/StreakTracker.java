@@ -0,0 +1,169 @@
+package com.zybooks.weightlogger.Data;
+
+import android.content.Context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maintains each user's bitset of logged days as entries are added, edited and deleted.
+ * Bitsets live in memory, are persisted after every change, and are rebuilt from the
+ * weight entries when none has been stored yet.
+ */
+public class StreakTracker {
+    private static final Object lock = new Object();
+    private static final Map<Integer, DayBitset> daysCache = new HashMap<>();
+
+    private final DayLogDatabaseHelper dayLogDatabaseHelper;
+
+    /**
+     * Creates a new StreakTracker instance.
+     *
+     * @param context The context used to initialize the database helper
+     */
+    public StreakTracker(Context context) {
+        this.dayLogDatabaseHelper = new DayLogDatabaseHelper(context);
+    }
+
+    /**
+     * Gets a user's logged days.
+     *
+     * @param userId The ID of the user
+     * @return A copy of the user's logged-day bitset
+     */
+    public DayBitset getLoggedDays(int userId) {
+        synchronized (lock) {
+            return new DayBitset(load(userId));
+        }
+    }
+
+    /**
+     * Marks the day of a newly added entry as logged.
+     * Called after the entry has been written.
+     *
+     * @param userId The ID of the user
+     * @param day The epoch day of the entry, or null if its date could not be parsed
+     */
+    public void onEntryAdded(int userId, Integer day) {
+        synchronized (lock) {
+            DayBitset days = loadStored(userId);
+            if (days == null || day == null) {
+                // The rebuild reads the entries after the write, so it already includes this one
+                rebuild(userId);
+                return;
+            }
+            days.set(day);
+            dayLogDatabaseHelper.saveDays(userId, days);
+        }
+    }
+
+    /**
+     * Clears the day of a deleted entry unless another entry remains on it.
+     * Called after the entry has been deleted.
+     *
+     * @param userId The ID of the user
+     * @param day The epoch day of the entry, or null if its date could not be parsed
+     * @param date The stored date of the entry
+     */
+    public void onEntryRemoved(int userId, Integer day, String date) {
+        synchronized (lock) {
+            DayBitset days = loadStored(userId);
+            if (days == null || day == null) {
+                rebuild(userId);
+                return;
+            }
+            if (!dayLogDatabaseHelper.hasEntryOnDate(userId, date)) {
+                days.clear(day);
+                dayLogDatabaseHelper.saveDays(userId, days);
+            }
+        }
+    }
+
+    /**
+     * Moves an edited entry's day if its date changed.
+     * Called after the entry has been updated.
+     *
+     * @param userId The ID of the user
+     * @param oldDay The entry's previous epoch day, or null if it could not be parsed
+     * @param oldDate The entry's previous stored date
+     * @param newDay The entry's new epoch day, or null if it could not be parsed
+     */
+    public void onEntryUpdated(int userId, Integer oldDay, String oldDate, Integer newDay) {
+        synchronized (lock) {
+            DayBitset days = loadStored(userId);
+            if (days == null || oldDay == null || newDay == null) {
+                rebuild(userId);
+                return;
+            }
+            if (oldDay.equals(newDay)) {
+                return;
+            }
+            if (!dayLogDatabaseHelper.hasEntryOnDate(userId, oldDate)) {
+                days.clear(oldDay);
+            }
+            days.set(newDay);
+            dayLogDatabaseHelper.saveDays(userId, days);
+        }
+    }
+
+    /**
+     * Rebuilds a user's logged days from their entries.
+     * Used when a write happened without knowing the values it replaced.
+     *
+     * @param userId The ID of the user
+     */
+    public void invalidate(int userId) {
+        synchronized (lock) {
+            rebuild(userId);
+        }
+    }
+
+    /**
+     * Gets the live bitset for a user, loading or rebuilding it as needed.
+     * Must be called while holding the lock.
+     *
+     * @param userId The ID of the user
+     * @return The user's bitset
+     */
+    private DayBitset load(int userId) {
+        DayBitset days = loadStored(userId);
+        return days != null ? days : rebuild(userId);
+    }
+
+    /**
+     * Gets the in-memory or persisted bitset for a user without rebuilding it.
+     * Must be called while holding the lock.
+     *
+     * @param userId The ID of the user
+     * @return The stored bitset, or null if none exists yet
+     */
+    private DayBitset loadStored(int userId) {
+        DayBitset days = daysCache.get(userId);
+        if (days == null) {
+            days = dayLogDatabaseHelper.loadDays(userId);
+            if (days != null) {
+                daysCache.put(userId, days);
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Recomputes a user's bitset from their entries and persists the result.
+     * A failed query leaves nothing cached so the next access tries again.
+     * Must be called while holding the lock.
+     *
+     * @param userId The ID of the user
+     * @return The rebuilt bitset, or an empty one if the query failed
+     */
+    private DayBitset rebuild(int userId) {
+        DayBitset days = dayLogDatabaseHelper.computeDays(userId);
+        if (days == null) {
+            daysCache.remove(userId);
+            return new DayBitset();
+        }
+        dayLogDatabaseHelper.saveDays(userId, days);
+        daysCache.put(userId, days);
+        return days;
+    }
+}
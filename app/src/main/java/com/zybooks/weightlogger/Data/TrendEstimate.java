@@ -0,0 +1,79 @@
+package com.zybooks.weightlogger.Data;
+
+/**
+ * A fitted weight trend line, anchored at the user's latest entry.
+ * Produced by the TrendEstimator and used to project when a goal weight will be reached.
+ */
+public class TrendEstimate {
+    /**
+     * Projections further out than this are treated as not reaching the goal.
+     */
+    public static final int MAX_PROJECTION_DAYS = 3650;
+
+    /**
+     * The fitting method used to produce an estimate.
+     */
+    public enum Method {
+        LEAST_SQUARES,
+        THEIL_SEN
+    }
+
+    private final Method method;
+    private final double slopePerDay;
+    private final int anchorDay;
+    private final double anchorWeight;
+
+    /**
+     * Creates a new TrendEstimate instance.
+     *
+     * @param method The fitting method used
+     * @param slopePerDay The fitted change in weight per day
+     * @param anchorDay The epoch day the line is anchored at
+     * @param anchorWeight The fitted weight on the anchor day
+     */
+    public TrendEstimate(Method method, double slopePerDay, int anchorDay, double anchorWeight) {
+        this.method = method;
+        this.slopePerDay = slopePerDay;
+        this.anchorDay = anchorDay;
+        this.anchorWeight = anchorWeight;
+    }
+
+    // Getters
+    public Method getMethod() { return method; }
+    public double getSlopePerDay() { return slopePerDay; }
+    public int getAnchorDay() { return anchorDay; }
+    public double getAnchorWeight() { return anchorWeight; }
+
+    /**
+     * Gets the fitted weight on a given day.
+     *
+     * @param day The epoch day
+     * @return The weight predicted by the trend line
+     */
+    public double weightOn(int day) {
+        return anchorWeight + slopePerDay * (day - anchorDay);
+    }
+
+    /**
+     * Projects the day the trend line reaches a goal weight.
+     *
+     * @param goalWeight The goal weight
+     * @return The projected epoch day, the anchor day if the goal is already reached,
+     *         or null if the trend is flat, heading away from the goal, or too far out
+     */
+    public Integer projectGoalDay(double goalWeight) {
+        double remaining = goalWeight - anchorWeight;
+        if (remaining == 0) {
+            return anchorDay;
+        }
+        if (slopePerDay == 0 || Double.isNaN(slopePerDay) || Math.signum(remaining) != Math.signum(slopePerDay)) {
+            return null;
+        }
+
+        double days = Math.ceil(remaining / slopePerDay);
+        if (days > MAX_PROJECTION_DAYS) {
+            return null;
+        }
+        return anchorDay + (int) days;
+    }
+}
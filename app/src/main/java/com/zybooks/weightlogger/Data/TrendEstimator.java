@@ -0,0 +1,96 @@
+package com.zybooks.weightlogger.Data;
+
+import java.util.Arrays;
+
+/**
+ * Fits weight trend lines for goal projections.
+ * The least-squares fit reads the regression sums the StatisticsEngine keeps up to date,
+ * so it costs O(1) regardless of history length. The Theil-Sen fit takes the median of
+ * pairwise slopes over a bounded window of recent points, which keeps it robust to
+ * outliers at a fixed cost.
+ */
+public final class TrendEstimator {
+    /**
+     * Number of most recent points the Theil-Sen fit considers.
+     */
+    public static final int ROBUST_WINDOW_POINTS = 60;
+
+    private TrendEstimator() {
+        // Static helpers only
+    }
+
+    /**
+     * Fits an ordinary least-squares line from running regression sums.
+     *
+     * @param statistics The user's running statistics
+     * @return The fitted trend, or null if fewer than two distinct days have been logged
+     */
+    public static TrendEstimate leastSquares(WeightStatistics statistics) {
+        double slope = statistics.getSlopePerDay();
+        if (Double.isNaN(slope)) {
+            return null;
+        }
+
+        int count = statistics.getCount();
+        double meanX = statistics.getSumX() / count;
+        double meanY = statistics.getSum() / count;
+        int anchorDay = statistics.getLastDay();
+        return new TrendEstimate(TrendEstimate.Method.LEAST_SQUARES, slope, anchorDay,
+                meanY + slope * (anchorDay - meanX));
+    }
+
+    /**
+     * Fits a Theil-Sen line over the most recent points of a series.
+     * The slope is the median of all pairwise slopes between points on different days,
+     * and the line is anchored at the median residual.
+     *
+     * @param series The weight series, oldest first
+     * @param maxPoints The number of most recent points to fit
+     * @return The fitted trend, or null if the window spans fewer than two distinct days
+     */
+    public static TrendEstimate theilSen(WeightSeries series, int maxPoints) {
+        int end = series.size();
+        int start = Math.max(0, end - maxPoints);
+        int points = end - start;
+        if (points < 2) {
+            return null;
+        }
+
+        double[] slopes = new double[points * (points - 1) / 2];
+        int slopeCount = 0;
+        for (int i = start; i < end; i++) {
+            int dayI = series.getDay(i);
+            float weightI = series.getWeight(i);
+            for (int j = i + 1; j < end; j++) {
+                int dayJ = series.getDay(j);
+                if (dayJ != dayI) {
+                    slopes[slopeCount++] = (series.getWeight(j) - weightI) / (double) (dayJ - dayI);
+                }
+            }
+        }
+        if (slopeCount == 0) {
+            return null;
+        }
+        double slope = median(slopes, slopeCount);
+
+        int anchorDay = series.getLastDay();
+        double[] residuals = new double[points];
+        for (int i = 0; i < points; i++) {
+            residuals[i] = series.getWeight(start + i) - slope * (series.getDay(start + i) - anchorDay);
+        }
+        return new TrendEstimate(TrendEstimate.Method.THEIL_SEN, slope, anchorDay, median(residuals, points));
+    }
+
+    /**
+     * Gets the median of the first values of an array, reordering them in place.
+     *
+     * @param values The array holding the values
+     * @param length The number of values to consider
+     * @return The median value
+     */
+    private static double median(double[] values, int length) {
+        Arrays.sort(values, 0, length);
+        int middle = length / 2;
+        return length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+}
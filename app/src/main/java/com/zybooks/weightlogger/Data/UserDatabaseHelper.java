@@ -45,6 +45,57 @@ public class UserDatabaseHelper extends DatabaseHelper {
     protected static final String INSERT_DEFAULT_USER =
             "INSERT INTO users (username, password, goal_weight) VALUES ('DefaultUser', '', 0)";
 
+    /**
+     * Inner class representing a user's profile row.
+     * Holds the non-credential columns that screens read repeatedly.
+     */
+    public static class UserProfile {
+        private final int id;
+        private final String username;
+        private final double goalWeight;
+
+        /**
+         * Creates a new UserProfile instance.
+         *
+         * @param id The unique identifier of the user
+         * @param username The user's username
+         * @param goalWeight The user's goal weight, or 0 if not set
+         */
+        public UserProfile(int id, String username, double goalWeight) {
+            this.id = id;
+            this.username = username;
+            this.goalWeight = goalWeight;
+        }
+
+        /**
+         * Gets the user ID.
+         * @return The unique ID of this user
+         */
+        public int getId() { return id; }
+
+        /**
+         * Gets the username.
+         * @return The user's username
+         */
+        public String getUsername() { return username; }
+
+        /**
+         * Gets the goal weight.
+         * @return The user's goal weight, or 0 if not set
+         */
+        public double getGoalWeight() { return goalWeight; }
+
+        /**
+         * Creates a copy of this profile with a different goal weight.
+         *
+         * @param newGoalWeight The goal weight for the copy
+         * @return A new UserProfile with the updated goal weight
+         */
+        public UserProfile withGoalWeight(double newGoalWeight) {
+            return new UserProfile(id, username, newGoalWeight);
+        }
+    }
+
     /**
      * Inserts a new user with hashed password into the database.
      * Checks if the username already exists to prevent duplicates.
@@ -59,9 +110,8 @@ public class UserDatabaseHelper extends DatabaseHelper {
             return false;
         }
 
-        SQLiteDatabase db = null;
         try {
-            db = this.getWritableDatabase();
+            SQLiteDatabase db = this.getWritableDatabase();
             ContentValues values = new ContentValues();
             values.put("username", username);
 
@@ -82,10 +132,6 @@ public class UserDatabaseHelper extends DatabaseHelper {
                     ErrorHandler.Severity.ERROR,
                     "Failed to create account");
             return false;
-        } finally {
-            if (db != null && db.isOpen()) {
-                db.close();
-            }
         }
     }
 
@@ -96,10 +142,9 @@ public class UserDatabaseHelper extends DatabaseHelper {
      * @return true if the username exists, false otherwise
      */
     public boolean userExists(String username) {
-        SQLiteDatabase db = null;
         Cursor cursor = null;
         try {
-            db = this.getReadableDatabase();
+            SQLiteDatabase db = this.getReadableDatabase();
             cursor = db.rawQuery("SELECT * FROM users WHERE username = ?", new String[]{username});
             return cursor.getCount() > 0;
         } catch (SQLiteException e) {
@@ -110,9 +155,6 @@ public class UserDatabaseHelper extends DatabaseHelper {
             if (cursor != null) {
                 cursor.close();
             }
-            if (db != null && db.isOpen()) {
-                db.close();
-            }
         }
     }
 
@@ -123,10 +165,9 @@ public class UserDatabaseHelper extends DatabaseHelper {
      * @return The user's ID, or -1 if not found
      */
     public int getUserId(String username) {
-        SQLiteDatabase db = null;
         Cursor cursor = null;
         try {
-            db = this.getReadableDatabase();
+            SQLiteDatabase db = this.getReadableDatabase();
             cursor = db.rawQuery("SELECT id FROM users WHERE username = ?", new String[]{username});
             return cursor.moveToFirst() ? cursor.getInt(0) : -1;
         } catch (SQLiteException e) {
@@ -137,9 +178,6 @@ public class UserDatabaseHelper extends DatabaseHelper {
             if (cursor != null) {
                 cursor.close();
             }
-            if (db != null && db.isOpen()) {
-                db.close();
-            }
         }
     }
 
@@ -153,10 +191,9 @@ public class UserDatabaseHelper extends DatabaseHelper {
      * @return true if credentials are valid, false otherwise
      */
     public boolean validateUser(String username, String password) {
-        SQLiteDatabase db = null;
         Cursor cursor = null;
         try {
-            db = this.getReadableDatabase();
+            SQLiteDatabase db = this.getReadableDatabase();
             cursor = db.rawQuery("SELECT password FROM users WHERE username = ?", new String[]{username});
 
             // Check if user exists first (most common case)
@@ -190,7 +227,32 @@ public class UserDatabaseHelper extends DatabaseHelper {
             return false;
         } finally {
             if (cursor != null) cursor.close();
-            if (db != null && db.isOpen()) db.close();
+        }
+    }
+
+    /**
+     * Gets a user's profile row from the database.
+     *
+     * @param userId The ID of the user
+     * @return The user's profile, or null if the user was not found
+     */
+    public UserProfile getUserProfile(int userId) {
+        Cursor cursor = null;
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            cursor = db.rawQuery("SELECT id, username, goal_weight FROM users WHERE id = ?",
+                    new String[]{String.valueOf(userId)});
+            return cursor.moveToFirst()
+                    ? new UserProfile(cursor.getInt(0), cursor.getString(1), cursor.getDouble(2))
+                    : null;
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "getUserProfile",
+                    ErrorHandler.Severity.ERROR, null);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
         }
     }
 
@@ -201,10 +263,9 @@ public class UserDatabaseHelper extends DatabaseHelper {
      * @return The user's goal weight, or 0 if not set or user not found
      */
     public double getGoalWeight(int userId) {
-        SQLiteDatabase db = null;
         Cursor cursor = null;
         try {
-            db = this.getReadableDatabase();
+            SQLiteDatabase db = this.getReadableDatabase();
             cursor = db.rawQuery("SELECT goal_weight FROM users WHERE id = ?", new String[]{String.valueOf(userId)});
             return cursor.moveToFirst() ? cursor.getDouble(0) : 0;
         } catch (SQLiteException e) {
@@ -215,9 +276,6 @@ public class UserDatabaseHelper extends DatabaseHelper {
             if (cursor != null) {
                 cursor.close();
             }
-            if (db != null && db.isOpen()) {
-                db.close();
-            }
         }
     }
 
@@ -229,9 +287,8 @@ public class UserDatabaseHelper extends DatabaseHelper {
      * @return true if update was successful, false otherwise
      */
     public boolean updateGoalWeight(int userId, double goalWeight) {
-        SQLiteDatabase db = null;
         try {
-            db = this.getWritableDatabase();
+            SQLiteDatabase db = this.getWritableDatabase();
             ContentValues values = new ContentValues();
             values.put("goal_weight", goalWeight);
             int rowsUpdated = db.update("users", values, "id = ?", new String[]{String.valueOf(userId)});
@@ -240,10 +297,6 @@ public class UserDatabaseHelper extends DatabaseHelper {
             ErrorHandler.handleException(context, e, COMPONENT_NAME, "updateGoalWeight",
                     ErrorHandler.Severity.ERROR, "Failed to update goal weight");
             return false;
-        } finally {
-            if (db != null && db.isOpen()) {
-                db.close();
-            }
         }
     }
 
@@ -255,9 +308,8 @@ public class UserDatabaseHelper extends DatabaseHelper {
      * @return true if update was successful, false otherwise
      */
     public boolean updatePassword(String username, String newPassword) {
-        SQLiteDatabase db = null;
         try {
-            db = this.getWritableDatabase();
+            SQLiteDatabase db = this.getWritableDatabase();
             ContentValues values = new ContentValues();
 
             // Hash the new password
@@ -276,10 +328,6 @@ public class UserDatabaseHelper extends DatabaseHelper {
             ErrorHandler.handleException(context, e, COMPONENT_NAME, "updatePassword",
                     ErrorHandler.Severity.ERROR, "Failed to update password");
             return false;
-        } finally {
-            if (db != null && db.isOpen()) {
-                db.close();
-            }
         }
     }
 }
\ No newline at end of file
@@ -2,12 +2,20 @@ package com.zybooks.weightlogger.Data;
 
 import android.content.Context;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Repository class for user data operations following the MVVM architecture pattern.
  * Acts as a single source of truth for user data and abstracts the data sources.
  * Handles database interactions related to user accounts and profiles.
+ * Profile rows and user IDs are cached process-wide and kept current on writes,
+ * so repeated goal lookups from different screens do not touch the database.
  */
 public class UserRepository {
+    private static final Map<String, Integer> userIdCache = new ConcurrentHashMap<>();
+    private static final Map<Integer, UserDatabaseHelper.UserProfile> profileCache = new ConcurrentHashMap<>();
+
     private final UserDatabaseHelper userDatabaseHelper;
 
     /**
@@ -26,28 +34,65 @@ public class UserRepository {
      * @return The user's ID, or -1 if not found
      */
     public int getUserId(String username) {
-        return userDatabaseHelper.getUserId(username);
+        Integer cachedId = userIdCache.get(username);
+        if (cachedId != null) {
+            return cachedId;
+        }
+
+        int userId = userDatabaseHelper.getUserId(username);
+        if (userId != -1) {
+            userIdCache.put(username, userId);
+        }
+        return userId;
+    }
+
+    /**
+     * Gets a user's profile row, loading it from the database on first access.
+     *
+     * @param userId The ID of the user
+     * @return The user's profile, or null if the user was not found
+     */
+    public UserDatabaseHelper.UserProfile getUserProfile(int userId) {
+        UserDatabaseHelper.UserProfile profile = profileCache.get(userId);
+        if (profile != null) {
+            return profile;
+        }
+
+        profile = userDatabaseHelper.getUserProfile(userId);
+        if (profile != null) {
+            profileCache.put(userId, profile);
+        }
+        return profile;
     }
 
     /**
-     * Gets a user's goal weight from the database.
+     * Gets a user's goal weight from the cached profile row.
      *
      * @param userId The ID of the user
      * @return The user's goal weight, or 0 if not set or user not found
      */
     public double getGoalWeight(int userId) {
-        return userDatabaseHelper.getGoalWeight(userId);
+        UserDatabaseHelper.UserProfile profile = getUserProfile(userId);
+        return profile != null ? profile.getGoalWeight() : 0;
     }
 
     /**
      * Updates a user's goal weight in the database.
+     * The cached profile is updated in place so later reads see the new goal immediately.
      *
      * @param userId The ID of the user
      * @param goalWeight The new goal weight to set
      * @return true if update was successful, false otherwise
      */
     public boolean updateGoalWeight(int userId, double goalWeight) {
-        return userDatabaseHelper.updateGoalWeight(userId, goalWeight);
+        boolean success = userDatabaseHelper.updateGoalWeight(userId, goalWeight);
+        if (success) {
+            UserDatabaseHelper.UserProfile profile = profileCache.get(userId);
+            if (profile != null) {
+                profileCache.put(userId, profile.withGoalWeight(goalWeight));
+            }
+        }
+        return success;
     }
 
     /**
@@ -5,19 +5,34 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
+import com.zybooks.weightlogger.Utilities.DateCodec;
 import com.zybooks.weightlogger.Utilities.ErrorHandler;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Database helper class for managing weight entry data operations.
  * Handles storing, retrieving, updating, and deleting weight records.
  * Extends the base DatabaseHelper with weight-specific functionality.
+ * Each row also stores a smoothed trend weight, an exponentially weighted moving average
+ * in the style of The Hacker's Diet, which writes keep current by recomputing only the
+ * rows from the written date onward.
  */
 public class WeightDatabaseHelper extends DatabaseHelper {
     private final Context context;
     private static final String COMPONENT_NAME = "WeightDatabaseHelper";
 
+    /**
+     * Fraction of each day's deviation from the trend that is folded into the trend.
+     */
+    public static final double TREND_SMOOTHING = 0.1;
+
+    // Stored trends closer than this to the recomputed value are considered unchanged
+    private static final double TREND_TOLERANCE = 1e-9;
+
     /**
      * Creates a new WeightDatabaseHelper instance.
      *
@@ -30,7 +45,7 @@ public class WeightDatabaseHelper extends DatabaseHelper {
 
     /**
      * SQL statement to create the weight entries table in the database.
-     * Defines columns for ID, user ID, date, and weight with a foreign key relationship to users.
+     * Defines columns for ID, user ID, date, weight, and smoothed trend with a foreign key relationship to users.
      */
     protected static final String CREATE_WEIGHT_TABLE =
             "CREATE TABLE weight_entries (" +
@@ -38,8 +53,14 @@ public class WeightDatabaseHelper extends DatabaseHelper {
                     "user_id INTEGER, " +
                     "date TEXT, " +
                     "weight REAL, " +
+                    "trend REAL, " +
                     "FOREIGN KEY (user_id) REFERENCES users(id))";
 
+    /**
+     * SQL statement adding the trend column to tables created before it existed.
+     */
+    protected static final String ADD_TREND_COLUMN = "ALTER TABLE weight_entries ADD COLUMN trend REAL";
+
     /**
      * Inner class representing a weight entry record.
      * Encapsulates the data and provides accessor methods.
@@ -47,7 +68,10 @@ public class WeightDatabaseHelper extends DatabaseHelper {
     public static class WeightEntry {
         private final int id;
         private final String date;
+        private final int epochDay;
         private final double weight;
+        private final double trend;
+        private final boolean pending;
 
         /**
          * Creates a new WeightEntry instance.
@@ -57,9 +81,38 @@ public class WeightDatabaseHelper extends DatabaseHelper {
          * @param weight The recorded weight value
          */
         public WeightEntry(int id, String date, double weight) {
+            this(id, date, weight, false);
+        }
+
+        /**
+         * Creates a new WeightEntry instance that may not be persisted yet.
+         *
+         * @param id The unique identifier of the entry, or a temporary ID while pending
+         * @param date The date of the weight measurement
+         * @param weight The recorded weight value
+         * @param pending true if the entry is shown before its database write has finished
+         */
+        public WeightEntry(int id, String date, double weight, boolean pending) {
+            this(id, date, weight, Double.NaN, pending);
+        }
+
+        /**
+         * Creates a new WeightEntry instance with its smoothed trend weight.
+         *
+         * @param id The unique identifier of the entry, or a temporary ID while pending
+         * @param date The date of the weight measurement
+         * @param weight The recorded weight value
+         * @param trend The smoothed trend weight, or NaN if it is not known yet
+         * @param pending true if the entry is shown before its database write has finished
+         */
+        public WeightEntry(int id, String date, double weight, double trend, boolean pending) {
             this.id = id;
             this.date = date;
+            // Parsed once here so sorting and charting compare ints
+            this.epochDay = DateCodec.parseEpochDay(date);
             this.weight = weight;
+            this.trend = trend;
+            this.pending = pending;
         }
 
         /**
@@ -74,11 +127,35 @@ public class WeightDatabaseHelper extends DatabaseHelper {
          */
         public String getDate() { return date; }
 
+        /**
+         * Gets the entry date as an epoch day.
+         * @return The epoch day, or DateCodec.INVALID if the date is malformed
+         */
+        public int getEpochDay() { return epochDay; }
+
         /**
          * Gets the weight value.
          * @return The recorded weight value
          */
         public double getWeight() { return weight; }
+
+        /**
+         * Gets the smoothed trend weight.
+         * @return The trend weight, or NaN if it is not known yet
+         */
+        public double getTrend() { return trend; }
+
+        /**
+         * Checks whether the entry has a stored trend weight.
+         * @return true if the trend is known
+         */
+        public boolean hasTrend() { return !Double.isNaN(trend); }
+
+        /**
+         * Checks whether the entry is still waiting for its database write.
+         * @return true if the entry has not been persisted yet
+         */
+        public boolean isPending() { return pending; }
     }
 
     /**
@@ -87,26 +164,30 @@ public class WeightDatabaseHelper extends DatabaseHelper {
      * @param userId The ID of the user this entry belongs to
      * @param date The date of the weight measurement
      * @param weight The recorded weight value
-     * @return true if insertion was successful, false otherwise
+     * @return The ID of the new entry, or -1 if insertion failed
      */
-    public boolean addWeightEntry(int userId, String date, double weight) {
-        SQLiteDatabase db = null;
+    public long addWeightEntry(int userId, String date, double weight) {
         try {
-            db = this.getWritableDatabase();
-            ContentValues values = new ContentValues();
-            values.put("user_id", userId);
-            values.put("date", date);
-            values.put("weight", weight);
-            long result = db.insert("weight_entries", null, values);
-            return result != -1;
+            SQLiteDatabase db = this.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                ContentValues values = new ContentValues();
+                values.put("user_id", userId);
+                values.put("date", date);
+                values.put("weight", weight);
+                long entryId = db.insert("weight_entries", null, values);
+                if (entryId != -1) {
+                    recomputeTrends(db, userId, date, entryId, date, entryId);
+                    db.setTransactionSuccessful();
+                }
+                return entryId;
+            } finally {
+                db.endTransaction();
+            }
         } catch (SQLiteException e) {
             ErrorHandler.handleException(context, e, COMPONENT_NAME, "addWeightEntry",
                     ErrorHandler.Severity.ERROR, "Failed to add weight entry");
-            return false;
-        } finally {
-            if (db != null && db.isOpen()) {
-                db.close();
-            }
+            return -1;
         }
     }
 
@@ -119,22 +200,31 @@ public class WeightDatabaseHelper extends DatabaseHelper {
      * @return true if update was successful, false otherwise
      */
     public boolean updateWeightEntry(int entryId, String date, double weight) {
-        SQLiteDatabase db = null;
         try {
-            db = this.getWritableDatabase();
-            ContentValues values = new ContentValues();
-            values.put("date", date);
-            values.put("weight", weight);
-            int rowsAffected = db.update("weight_entries", values, "id = ?", new String[]{String.valueOf(entryId)});
-            return rowsAffected > 0;
+            SQLiteDatabase db = this.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                EntryLocation previous = locateEntry(db, entryId);
+                ContentValues values = new ContentValues();
+                values.put("date", date);
+                values.put("weight", weight);
+                int rowsAffected = db.update("weight_entries", values, "id = ?", new String[]{String.valueOf(entryId)});
+                if (rowsAffected > 0 && previous != null) {
+                    // Recompute from whichever of the old and new positions comes first to the later one
+                    String oldDate = previous.date == null ? "" : previous.date;
+                    boolean movedLater = date.compareTo(oldDate) > 0;
+                    recomputeTrends(db, previous.userId, movedLater ? oldDate : date, entryId,
+                            movedLater ? date : oldDate, entryId);
+                }
+                db.setTransactionSuccessful();
+                return rowsAffected > 0;
+            } finally {
+                db.endTransaction();
+            }
         } catch (SQLiteException e) {
             ErrorHandler.handleException(context, e, COMPONENT_NAME, "updateWeightEntry",
                     ErrorHandler.Severity.ERROR, "Failed to update weight entry");
             return false;
-        } finally {
-            if (db != null && db.isOpen()) {
-                db.close();
-            }
         }
     }
 
@@ -145,18 +235,47 @@ public class WeightDatabaseHelper extends DatabaseHelper {
      * @return true if deletion was successful, false otherwise
      */
     public boolean deleteWeightEntry(int entryId) {
-        SQLiteDatabase db = null;
         try {
-            db = this.getWritableDatabase();
-            int rowsAffected = db.delete("weight_entries", "id = ?", new String[]{String.valueOf(entryId)});
-            return rowsAffected > 0;
+            SQLiteDatabase db = this.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                EntryLocation previous = locateEntry(db, entryId);
+                int rowsAffected = db.delete("weight_entries", "id = ?", new String[]{String.valueOf(entryId)});
+                if (rowsAffected > 0 && previous != null && previous.date != null) {
+                    recomputeTrends(db, previous.userId, previous.date, entryId, previous.date, entryId);
+                }
+                db.setTransactionSuccessful();
+                return rowsAffected > 0;
+            } finally {
+                db.endTransaction();
+            }
         } catch (SQLiteException e) {
             ErrorHandler.handleException(context, e, COMPONENT_NAME, "deleteWeightEntry",
                     ErrorHandler.Severity.ERROR, "Failed to delete weight entry");
             return false;
+        }
+    }
+
+    /**
+     * Gets a single weight entry by its ID.
+     *
+     * @param entryId The ID of the entry
+     * @return The entry, or null if it does not exist
+     */
+    public WeightEntry getWeightEntry(int entryId) {
+        Cursor cursor = null;
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            cursor = db.rawQuery("SELECT id, date, weight, trend FROM weight_entries WHERE id = ?",
+                    new String[]{String.valueOf(entryId)});
+            return cursor.moveToFirst() ? readEntry(cursor) : null;
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "getWeightEntry",
+                    ErrorHandler.Severity.ERROR, null);
+            return null;
         } finally {
-            if (db != null && db.isOpen()) {
-                db.close();
+            if (cursor != null) {
+                cursor.close();
             }
         }
     }
@@ -170,12 +289,11 @@ public class WeightDatabaseHelper extends DatabaseHelper {
      */
     public List<WeightEntry> getWeightEntries(int userId) {
         List<WeightEntry> entries = new ArrayList<>();
-        SQLiteDatabase db = null;
         Cursor tableCheck = null;
         Cursor cursor = null;
 
         try {
-            db = this.getReadableDatabase();
+            SQLiteDatabase db = this.getReadableDatabase();
 
             // Check if the weight_entries table exists
             tableCheck = db.rawQuery(
@@ -193,12 +311,12 @@ public class WeightDatabaseHelper extends DatabaseHelper {
             }
 
             cursor = db.rawQuery(
-                    "SELECT id, date, weight FROM weight_entries WHERE user_id = ? ORDER BY date DESC",
+                    "SELECT id, date, weight, trend FROM weight_entries WHERE user_id = ? ORDER BY date DESC, id DESC",
                     new String[]{String.valueOf(userId)}
             );
 
             while (cursor.moveToNext()) {
-                entries.add(new WeightEntry(cursor.getInt(0), cursor.getString(1), cursor.getDouble(2)));
+                entries.add(readEntry(cursor));
             }
 
             return entries;
@@ -213,9 +331,244 @@ public class WeightDatabaseHelper extends DatabaseHelper {
             if (cursor != null) {
                 cursor.close();
             }
-            if (db != null && db.isOpen()) {
-                db.close();
+        }
+    }
+
+    /**
+     * Gets a user's weights between two dates as a primitive series, oldest first.
+     * Rows with an unparseable date are skipped.
+     *
+     * @param userId The ID of the user
+     * @param fromDate The first date of the range (yyyy-MM-dd), inclusive
+     * @param toDate The last date of the range (yyyy-MM-dd), inclusive
+     * @return The series of entries in the range
+     */
+    public WeightSeries getWeightSeries(int userId, String fromDate, String toDate) {
+        Cursor cursor = null;
+        try {
+            SQLiteDatabase db = this.getReadableDatabase();
+            cursor = db.rawQuery(
+                    "SELECT date, weight FROM weight_entries WHERE user_id = ? AND date BETWEEN ? AND ? ORDER BY date ASC, id ASC",
+                    new String[]{String.valueOf(userId), fromDate, toDate}
+            );
+
+            int capacity = cursor.getCount();
+            int[] days = new int[capacity];
+            float[] weights = new float[capacity];
+            int size = 0;
+            while (cursor.moveToNext()) {
+                int day = DateCodec.parseEpochDay(cursor.getString(0));
+                if (day == DateCodec.INVALID) {
+                    continue;
+                }
+                days[size] = day;
+                weights[size] = (float) cursor.getDouble(1);
+                size++;
+            }
+
+            if (size < capacity) {
+                days = Arrays.copyOf(days, size);
+                weights = Arrays.copyOf(weights, size);
+            }
+            return new WeightSeries(days, weights, size);
+        } catch (SQLiteException e) {
+            ErrorHandler.handleException(context, e, COMPONENT_NAME, "getWeightSeries",
+                    ErrorHandler.Severity.ERROR, null);
+            return WeightSeries.EMPTY;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Recomputes the stored trend for every row of every user.
+     * Used when the trend column is first added to an existing database.
+     *
+     * @param db The database to update, inside the caller's transaction or upgrade
+     */
+    protected static void recomputeAllTrends(SQLiteDatabase db) {
+        Cursor cursor = db.rawQuery("SELECT DISTINCT user_id FROM weight_entries", null);
+        try {
+            while (cursor.moveToNext()) {
+                recomputeTrends(db, cursor.getInt(0), "", 0, "", 0);
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Rewrites dates stored without zero padding, such as 2023-1-5, as yyyy-MM-dd.
+     * The date parser used before DateCodec accepted them and they were stored as typed, but
+     * they sort wrongly as text and DateCodec rejects them. Trends are recomputed from scratch
+     * for every user with a rewritten row, since the rows may have changed order.
+     * Dates that still do not parse are left as they are.
+     *
+     * @param db The database to update, inside the caller's upgrade
+     * @return true if any row was rewritten
+     */
+    protected static boolean normalizeDates(SQLiteDatabase db) {
+        Set<Integer> users = new HashSet<>();
+        Cursor cursor = db.rawQuery("SELECT id, user_id, date FROM weight_entries WHERE date IS NOT NULL", null);
+        try {
+            ContentValues values = new ContentValues();
+            while (cursor.moveToNext()) {
+                String date = cursor.getString(2);
+                if (DateCodec.isValid(date)) {
+                    continue;
+                }
+                int day = parseUnpaddedDate(date);
+                if (day == DateCodec.INVALID) {
+                    continue;
+                }
+                values.put("date", DateCodec.formatIso(day));
+                db.update("weight_entries", values, "id = ?", new String[]{String.valueOf(cursor.getLong(0))});
+                users.add(cursor.getInt(1));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        for (int userId : users) {
+            // With every trend cleared the walk cannot stop early on a value from the old order
+            db.execSQL("UPDATE weight_entries SET trend = NULL WHERE user_id = ?", new Object[]{userId});
+            recomputeTrends(db, userId, "", 0, "", 0);
+        }
+        return !users.isEmpty();
+    }
+
+    /**
+     * Parses a year-month-day date whose month and day may lack their leading zero.
+     *
+     * @param text The stored date
+     * @return The epoch day, or DateCodec.INVALID if the text is not such a date
+     */
+    private static int parseUnpaddedDate(String text) {
+        String[] parts = text.trim().split("-");
+        if (parts.length != 3) {
+            return DateCodec.INVALID;
+        }
+        try {
+            int year = Integer.parseInt(parts[0]);
+            int month = Integer.parseInt(parts[1]);
+            int day = Integer.parseInt(parts[2]);
+            if (year < 0 || year > 9999 || month < 1 || month > 12
+                    || day < 1 || day > DateCodec.lengthOfMonth(year, month)) {
+                return DateCodec.INVALID;
             }
+            return DateCodec.epochDay(year, month, day);
+        } catch (NumberFormatException e) {
+            return DateCodec.INVALID;
+        }
+    }
+
+    /**
+     * Recomputes the stored trend for a user's rows from a position onward.
+     * Rows are ordered by date and then ID. The trend only depends on the row before, so once
+     * the walk is past every changed row and a recomputed value matches the stored one, every
+     * later row is already correct and the walk stops early. An entry appended at the end of
+     * the history therefore touches a single row.
+     *
+     * @param db The database to update
+     * @param userId The ID of the user
+     * @param fromDate The date of the first row that may have changed (yyyy-MM-dd)
+     * @param fromId The ID of the first row that may have changed on that date
+     * @param untilDate The date of the last changed position (yyyy-MM-dd)
+     * @param untilId The ID of the last changed position on that date
+     */
+    private static void recomputeTrends(SQLiteDatabase db, int userId, String fromDate, long fromId,
+                                        String untilDate, long untilId) {
+        String user = String.valueOf(userId);
+        String date = fromDate;
+        String id = String.valueOf(fromId);
+        double trend = Double.NaN;
+        Cursor cursor = db.rawQuery("SELECT trend, weight FROM weight_entries WHERE user_id = ? " +
+                "AND (date < ? OR (date = ? AND id < ?)) ORDER BY date DESC, id DESC LIMIT 1",
+                new String[]{user, date, date, id});
+        try {
+            if (cursor.moveToFirst()) {
+                trend = cursor.isNull(0) ? cursor.getDouble(1) : cursor.getDouble(0);
+            }
+        } finally {
+            cursor.close();
+        }
+
+        cursor = db.rawQuery("SELECT id, date, weight, trend FROM weight_entries WHERE user_id = ? " +
+                "AND (date > ? OR (date = ? AND id >= ?)) ORDER BY date ASC, id ASC",
+                new String[]{user, date, date, id});
+        try {
+            ContentValues values = new ContentValues();
+            while (cursor.moveToNext()) {
+                double weight = cursor.getDouble(2);
+                trend = Double.isNaN(trend) ? weight : trend + TREND_SMOOTHING * (weight - trend);
+                boolean pastChanges = compareKeys(cursor.getString(1), cursor.getLong(0), untilDate, untilId) > 0;
+                if (pastChanges && !cursor.isNull(3) && Math.abs(cursor.getDouble(3) - trend) <= TREND_TOLERANCE) {
+                    break;
+                }
+                values.put("trend", trend);
+                db.update("weight_entries", values, "id = ?", new String[]{String.valueOf(cursor.getLong(0))});
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Compares two row positions in (date, id) order.
+     *
+     * @param date The first row's date
+     * @param id The first row's ID
+     * @param otherDate The second row's date
+     * @param otherId The second row's ID
+     * @return A negative number, zero, or a positive number as the first row comes before,
+     *         at, or after the second
+     */
+    private static int compareKeys(String date, long id, String otherDate, long otherId) {
+        // ISO dates compare correctly as strings
+        int byDate = date.compareTo(otherDate);
+        return byDate != 0 ? byDate : Long.compare(id, otherId);
+    }
+
+    /**
+     * Reads the owner and date of an entry before it is changed.
+     *
+     * @param db The database to read from
+     * @param entryId The ID of the entry
+     * @return The entry's owner and date, or null if it does not exist
+     */
+    private static EntryLocation locateEntry(SQLiteDatabase db, int entryId) {
+        Cursor cursor = db.rawQuery("SELECT user_id, date FROM weight_entries WHERE id = ?",
+                new String[]{String.valueOf(entryId)});
+        try {
+            return cursor.moveToFirst() ? new EntryLocation(cursor.getInt(0), cursor.getString(1)) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Reads a weight entry from a cursor positioned on an (id, date, weight, trend) row.
+     *
+     * @param cursor The cursor to read from
+     * @return The weight entry
+     */
+    private static WeightEntry readEntry(Cursor cursor) {
+        double trend = cursor.isNull(3) ? Double.NaN : cursor.getDouble(3);
+        return new WeightEntry(cursor.getInt(0), cursor.getString(1), cursor.getDouble(2), trend, false);
+    }
+
+    /**
+     * Owner and date of an entry, read before a write moves or removes it.
+     */
+    private static class EntryLocation {
+        final int userId;
+        final String date;
+
+        EntryLocation(int userId, String date) {
+            this.userId = userId;
+            this.date = date;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.zybooks.weightlogger.Data;
+
+/**
+ * A user's distribution of daily weight changes and of the weights themselves.
+ * A change between entries days apart is divided by the days between them, so it is
+ * counted at its per-day rate; entries on the same day as the one before add no change.
+ * Built in a single pass over the primitive series, and extended in O(1) when an entry is
+ * appended after the newest one, so only back-dated writes, edits and deletes rebuild it.
+ */
+public class WeightDistributions {
+    /**
+     * Default width of a weight-change bin, in lbs per day.
+     */
+    public static final double DEFAULT_CHANGE_BIN_WIDTH = 0.5;
+
+    /**
+     * Default width of a weight bin, in lbs.
+     */
+    public static final double DEFAULT_WEIGHT_BIN_WIDTH = 2.0;
+
+    // Daily changes beyond these are clamped into the outermost bins
+    private static final double MAX_CHANGE = 5.0;
+
+    // Matches the weight range accepted by the InputValidator
+    private static final double MIN_WEIGHT = 0.0;
+    private static final double MAX_WEIGHT = 1000.0;
+
+    private final WeightHistogram changeHistogram;
+    private final WeightHistogram weightHistogram;
+    private int lastDay;
+    private double lastWeight;
+    private boolean empty = true;
+
+    /**
+     * Creates empty distributions.
+     *
+     * @param changeBinWidth The width of each weight-change bin
+     * @param weightBinWidth The width of each weight bin
+     */
+    public WeightDistributions(double changeBinWidth, double weightBinWidth) {
+        this.changeHistogram = new WeightHistogram(changeBinWidth, -MAX_CHANGE, MAX_CHANGE);
+        this.weightHistogram = new WeightHistogram(weightBinWidth, MIN_WEIGHT, MAX_WEIGHT);
+    }
+
+    /**
+     * Creates a copy of other distributions.
+     *
+     * @param other The distributions to copy
+     */
+    public WeightDistributions(WeightDistributions other) {
+        synchronized (other) {
+            this.changeHistogram = new WeightHistogram(other.changeHistogram);
+            this.weightHistogram = new WeightHistogram(other.weightHistogram);
+            this.lastDay = other.lastDay;
+            this.lastWeight = other.lastWeight;
+            this.empty = other.empty;
+        }
+    }
+
+    /**
+     * Builds distributions over a whole series in one pass.
+     *
+     * @param series The weight series, oldest first
+     * @param changeBinWidth The width of each weight-change bin
+     * @param weightBinWidth The width of each weight bin
+     * @return The distributions
+     */
+    public static WeightDistributions build(WeightSeries series, double changeBinWidth, double weightBinWidth) {
+        WeightDistributions distributions = new WeightDistributions(changeBinWidth, weightBinWidth);
+        for (int i = 0; i < series.size(); i++) {
+            distributions.append(series.getDay(i), series.getWeight(i));
+        }
+        return distributions;
+    }
+
+    /**
+     * Counts an entry dated on or after the newest one counted so far.
+     *
+     * @param day The epoch day of the entry
+     * @param weight The weight of the entry
+     * @return true if the entry was counted, false if it is older than the newest entry
+     *         and the distributions must be rebuilt instead
+     */
+    public synchronized boolean append(int day, double weight) {
+        if (!empty && day < lastDay) {
+            return false;
+        }
+        if (!empty && day > lastDay) {
+            changeHistogram.add((weight - lastWeight) / (day - lastDay));
+        }
+        weightHistogram.add(weight);
+        lastDay = day;
+        lastWeight = weight;
+        empty = false;
+        return true;
+    }
+
+    /**
+     * Gets the histogram of daily changes between consecutive entries.
+     * @return The weight-change histogram
+     */
+    public WeightHistogram getChangeHistogram() { return changeHistogram; }
+
+    /**
+     * Gets the histogram of recorded weights.
+     * @return The weight histogram
+     */
+    public WeightHistogram getWeightHistogram() { return weightHistogram; }
+}
@@ -0,0 +1,117 @@
+package com.zybooks.weightlogger.Data;
+
+/**
+ * Fixed-bin histogram over a value range, counted in a primitive int array.
+ * Values outside the range are clamped into the first or last bin, so adding a value is
+ * O(1) and never allocates.
+ */
+public class WeightHistogram {
+    private final double binWidth;
+    private final double minValue;
+    private final int[] counts;
+    private int total;
+
+    /**
+     * Creates an empty histogram.
+     *
+     * @param binWidth The width of each bin
+     * @param minValue The lower edge of the first bin
+     * @param maxValue The upper edge of the last bin
+     */
+    public WeightHistogram(double binWidth, double minValue, double maxValue) {
+        this.binWidth = binWidth;
+        this.minValue = minValue;
+        this.counts = new int[Math.max(1, (int) Math.ceil((maxValue - minValue) / binWidth))];
+    }
+
+    /**
+     * Creates a copy of another histogram.
+     *
+     * @param other The histogram to copy
+     */
+    public WeightHistogram(WeightHistogram other) {
+        this.binWidth = other.binWidth;
+        this.minValue = other.minValue;
+        this.counts = other.counts.clone();
+        this.total = other.total;
+    }
+
+    /**
+     * Counts a value in its bin.
+     *
+     * @param value The value to count
+     */
+    public void add(double value) {
+        int bin = (int) Math.floor((value - minValue) / binWidth);
+        counts[Math.max(0, Math.min(counts.length - 1, bin))]++;
+        total++;
+    }
+
+    /**
+     * Gets the number of bins.
+     * @return The bin count
+     */
+    public int getBinCount() { return counts.length; }
+
+    /**
+     * Gets the width of each bin.
+     * @return The bin width
+     */
+    public double getBinWidth() { return binWidth; }
+
+    /**
+     * Gets the number of values in a bin.
+     *
+     * @param bin The bin index
+     * @return The count for the bin
+     */
+    public int getCount(int bin) { return counts[bin]; }
+
+    /**
+     * Gets the lower edge of a bin.
+     *
+     * @param bin The bin index
+     * @return The smallest value the bin covers
+     */
+    public double getBinStart(int bin) { return minValue + bin * binWidth; }
+
+    /**
+     * Gets the number of values counted.
+     * @return The total count
+     */
+    public int getTotal() { return total; }
+
+    /**
+     * Gets the largest count of any bin.
+     * @return The maximum bin count
+     */
+    public int getMaxCount() {
+        int max = 0;
+        for (int count : counts) {
+            if (count > max) max = count;
+        }
+        return max;
+    }
+
+    /**
+     * Gets the first bin holding any values.
+     * @return The index of the first non-empty bin, or -1 if the histogram is empty
+     */
+    public int getFirstNonEmptyBin() {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the last bin holding any values.
+     * @return The index of the last non-empty bin, or -1 if the histogram is empty
+     */
+    public int getLastNonEmptyBin() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) return i;
+        }
+        return -1;
+    }
+}
@@ -2,15 +2,51 @@ package com.zybooks.weightlogger.Data;
 
 import android.content.Context;
 
+import com.zybooks.weightlogger.Utilities.AppExecutors;
+import com.zybooks.weightlogger.Utilities.DateCodec;
+
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Repository class for weight data operations following the MVVM architecture pattern.
  * Acts as a single source of truth for weight data and abstracts the data sources.
  * Handles database interactions related to weight entries.
+ * Each user's entry list is cached process-wide and dropped whenever that user's data changes.
+ * Reads stamp what they load with the user's cache generation, and a load that a write
+ * overtook is returned but not cached, so a slow read can never put stale data back.
+ * Chart range queries go through a bounded cache that writes invalidate by the days they touch,
+ * and every write is applied to the user's running statistics and logged-day bitset.
+ * Robust trend fits are cached per user alongside the series they were fitted to.
+ * Weight and weight-change histograms are extended in place when a new entry is the
+ * user's latest.
+ * Every write bumps the user's data version and queues a background refresh of their
+ * persisted profile snapshot, which is only recomputed while it is behind that version.
  */
 public class WeightRepository {
+    private static final int CHART_CACHE_BLOCKS = 32;
+
+    private static final String FIRST_DATE = "0000-01-01";
+    private static final String LAST_DATE = "9999-12-31";
+
+    private static final Map<Integer, List<WeightDatabaseHelper.WeightEntry>> entriesCache = new ConcurrentHashMap<>();
+    private static final Map<Integer, WeightSeries> seriesCache = new ConcurrentHashMap<>();
+    private static final Map<Integer, TrendEstimate> trendCache = new ConcurrentHashMap<>();
+    private static final Map<Integer, WeightDistributions> distributionsCache = new ConcurrentHashMap<>();
+    private static final Map<Integer, HistoryAnalytics.Result> analyticsCache = new ConcurrentHashMap<>();
+    private static final Map<Integer, ProfileSnapshot> profileSnapshotCache = new ConcurrentHashMap<>();
+    private static final Map<Integer, Long> dataVersionCache = new ConcurrentHashMap<>();
+    // Bumped on every write before the user's caches are dropped
+    private static final Map<Integer, Long> cacheGenerations = new ConcurrentHashMap<>();
+    private static final ChartRangeCache chartRangeCache = new ChartRangeCache(CHART_CACHE_BLOCKS);
+
     private final WeightDatabaseHelper weightDatabaseHelper;
+    private final StatisticsEngine statisticsEngine;
+    private final StreakTracker streakTracker;
+    private final ProfileSnapshotDatabaseHelper profileSnapshotDatabaseHelper;
+    private final UserRepository userRepository;
 
     /**
      * Creates a new WeightRepository instance.
@@ -19,16 +55,76 @@ public class WeightRepository {
      */
     public WeightRepository(Context context) {
         this.weightDatabaseHelper = new WeightDatabaseHelper(context);
+        this.statisticsEngine = new StatisticsEngine(context);
+        this.streakTracker = new StreakTracker(context);
+        this.profileSnapshotDatabaseHelper = new ProfileSnapshotDatabaseHelper(context);
+        this.userRepository = new UserRepository(context);
     }
 
     /**
      * Gets all weight entries for a user, ordered by date (most recent first).
+     * The returned list is shared with the cache and must not be modified.
      *
      * @param userId The ID of the user
      * @return A list of WeightEntry objects containing the user's weight history
      */
     public List<WeightDatabaseHelper.WeightEntry> getWeightEntries(int userId) {
-        return weightDatabaseHelper.getWeightEntries(userId);
+        List<WeightDatabaseHelper.WeightEntry> cached = entriesCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = getCacheGeneration(userId);
+        List<WeightDatabaseHelper.WeightEntry> entries =
+                Collections.unmodifiableList(weightDatabaseHelper.getWeightEntries(userId));
+        return cacheIfCurrent(entriesCache, userId, generation, entries);
+    }
+
+    /**
+     * Gets a user's full history as a primitive series, oldest first.
+     * The series is cached and dropped whenever the user's data changes.
+     *
+     * @param userId The ID of the user
+     * @return The user's weight series
+     */
+    public WeightSeries getWeightSeries(int userId) {
+        WeightSeries cached = seriesCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = getCacheGeneration(userId);
+        WeightSeries series = weightDatabaseHelper.getWeightSeries(userId, FIRST_DATE, LAST_DATE);
+        return cacheIfCurrent(seriesCache, userId, generation, series);
+    }
+
+    /**
+     * Gets the distributions of a user's weights and of their daily changes.
+     * The cached distributions are extended in place when an entry is added after the latest one,
+     * so callers get a copy they may keep.
+     *
+     * @param userId The ID of the user
+     * @return A copy of the user's distributions
+     */
+    public WeightDistributions getDistributions(int userId) {
+        WeightDistributions cached = distributionsCache.get(userId);
+        if (cached == null) {
+            long generation = getCacheGeneration(userId);
+            cached = cacheIfCurrent(distributionsCache, userId, generation, WeightDistributions.build(
+                    getWeightSeries(userId),
+                    WeightDistributions.DEFAULT_CHANGE_BIN_WIDTH, WeightDistributions.DEFAULT_WEIGHT_BIN_WIDTH));
+        }
+        return new WeightDistributions(cached);
+    }
+
+    /**
+     * Loads a user's entries into the cache ahead of the first screen that needs them.
+     *
+     * @param userId The ID of the user
+     * @return The user's weight entries, most recent first
+     */
+    public List<WeightDatabaseHelper.WeightEntry> prefetchWeightEntries(int userId) {
+        return getWeightEntries(userId);
     }
 
     /**
@@ -37,31 +133,351 @@ public class WeightRepository {
      * @param userId The ID of the user this entry belongs to
      * @param date The date of the weight measurement
      * @param weight The recorded weight value
-     * @return true if insertion was successful, false otherwise
+     * @return The ID of the new entry, or -1 if insertion failed
      */
-    public boolean addWeightEntry(int userId, String date, double weight) {
-        return weightDatabaseHelper.addWeightEntry(userId, date, weight);
+    public long addWeightEntry(int userId, String date, double weight) {
+        long entryId = weightDatabaseHelper.addWeightEntry(userId, date, weight);
+        if (entryId != -1) {
+            // An entry after the latest one only adds a bin count, so keep the distributions
+            WeightDistributions distributions = distributionsCache.get(userId);
+            invalidate(userId, date, null);
+            Integer day = toEpochDay(date);
+            if (distributions != null && day != null && distributions.append(day, weight)) {
+                distributionsCache.put(userId, distributions);
+            }
+            statisticsEngine.onEntryAdded(userId, toEpochDay(date), weight);
+            streakTracker.onEntryAdded(userId, toEpochDay(date));
+            onDataChanged(userId);
+        }
+        return entryId;
     }
 
     /**
      * Updates an existing weight entry in the database.
      *
+     * @param userId The ID of the user the entry belongs to
      * @param entryId The ID of the entry to update
      * @param date The new date value
      * @param weight The new weight value
      * @return true if update was successful, false otherwise
      */
-    public boolean updateWeightEntry(int entryId, String date, double weight) {
-        return weightDatabaseHelper.updateWeightEntry(entryId, date, weight);
+    public boolean updateWeightEntry(int userId, int entryId, String date, double weight) {
+        WeightDatabaseHelper.WeightEntry previous = weightDatabaseHelper.getWeightEntry(entryId);
+        boolean success = weightDatabaseHelper.updateWeightEntry(entryId, date, weight);
+        if (success) {
+            if (previous == null) {
+                // Without the previous values the old position could have been anywhere in the history
+                invalidate(userId, null, null);
+                statisticsEngine.invalidate(userId);
+                streakTracker.invalidate(userId);
+            } else {
+                invalidate(userId, date, previous.getDate());
+                statisticsEngine.onEntryUpdated(userId, toEpochDay(previous.getDate()), previous.getWeight(),
+                        toEpochDay(date), weight);
+                streakTracker.onEntryUpdated(userId, toEpochDay(previous.getDate()), previous.getDate(),
+                        toEpochDay(date));
+            }
+            onDataChanged(userId);
+        }
+        return success;
     }
 
     /**
      * Deletes a weight entry from the database.
      *
+     * @param userId The ID of the user the entry belongs to
      * @param entryId The ID of the entry to delete
      * @return true if deletion was successful, false otherwise
      */
-    public boolean deleteWeightEntry(int entryId) {
-        return weightDatabaseHelper.deleteWeightEntry(entryId);
+    public boolean deleteWeightEntry(int userId, int entryId) {
+        WeightDatabaseHelper.WeightEntry previous = weightDatabaseHelper.getWeightEntry(entryId);
+        boolean success = weightDatabaseHelper.deleteWeightEntry(entryId);
+        if (success) {
+            if (previous == null) {
+                invalidate(userId, null, null);
+                statisticsEngine.invalidate(userId);
+                streakTracker.invalidate(userId);
+            } else {
+                invalidate(userId, previous.getDate(), null);
+                statisticsEngine.onEntryRemoved(userId, toEpochDay(previous.getDate()), previous.getWeight());
+                streakTracker.onEntryRemoved(userId, toEpochDay(previous.getDate()), previous.getDate());
+            }
+            onDataChanged(userId);
+        }
+        return success;
+    }
+
+    /**
+     * Gets a user's running statistics, maintained incrementally on every write.
+     *
+     * @param userId The ID of the user
+     * @return A snapshot of the user's statistics
+     */
+    public WeightStatistics getStatistics(int userId) {
+        return statisticsEngine.getStatistics(userId);
+    }
+
+    /**
+     * Gets a user's profile snapshot if one is already in memory, without touching the database.
+     * The snapshot may be stale; use it to fill the profile screen while a current one loads.
+     *
+     * @param userId The ID of the user
+     * @return The in-memory snapshot, or null if none has been loaded yet
+     */
+    public ProfileSnapshot peekProfileSnapshot(int userId) {
+        return profileSnapshotCache.get(userId);
+    }
+
+    /**
+     * Gets a current profile snapshot for a user.
+     * The persisted snapshot is reused while its data version, day and goal weight still match;
+     * otherwise it is recomputed from the running aggregates and persisted.
+     * Call from a background thread.
+     *
+     * @param userId The ID of the user
+     * @param goalWeight The user's goal weight
+     * @return The user's current profile snapshot
+     */
+    public ProfileSnapshot getProfileSnapshot(int userId, double goalWeight) {
+        int today = DateCodec.today();
+        long version = getDataVersion(userId);
+
+        ProfileSnapshot snapshot = profileSnapshotCache.get(userId);
+        if (snapshot == null) {
+            snapshot = profileSnapshotDatabaseHelper.loadSnapshot(userId);
+        }
+        if (snapshot == null || version == -1 || !snapshot.isCurrent(version, today, goalWeight)) {
+            snapshot = ProfileSnapshot.compute(version, today, DateCodec.monthStart(today),
+                    goalWeight, getStatistics(userId), getWeightSeries(userId), getLoggedDays(userId),
+                    getTrend(userId));
+            if (version != -1) {
+                profileSnapshotDatabaseHelper.saveSnapshot(userId, snapshot);
+            }
+        }
+        profileSnapshotCache.put(userId, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Gets the days on which a user logged at least one entry, maintained on every write.
+     *
+     * @param userId The ID of the user
+     * @return A snapshot of the user's logged-day bitset
+     */
+    public DayBitset getLoggedDays(int userId) {
+        return streakTracker.getLoggedDays(userId);
+    }
+
+    /**
+     * Recomputes a user's statistics from their entries and repairs any drift.
+     * Runs a full aggregate query, so call it from a background thread.
+     *
+     * @param userId The ID of the user
+     * @return true if the running statistics were already correct
+     */
+    public boolean verifyStatistics(int userId) {
+        return statisticsEngine.verify(userId);
+    }
+
+    /**
+     * Gets a user's weight trend for goal projections.
+     * Prefers the robust Theil-Sen fit over recent entries and falls back to the
+     * least-squares fit over the whole history when the recent window is too short.
+     *
+     * @param userId The ID of the user
+     * @return The fitted trend, or null if the history is too short to fit
+     */
+    public TrendEstimate getTrend(int userId) {
+        TrendEstimate cached = trendCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = getCacheGeneration(userId);
+        TrendEstimate trend = TrendEstimator.theilSen(getWeightSeries(userId), TrendEstimator.ROBUST_WINDOW_POINTS);
+        if (trend == null) {
+            trend = getLeastSquaresTrend(userId);
+        }
+        if (trend != null) {
+            cacheIfCurrent(trendCache, userId, generation, trend);
+        }
+        return trend;
+    }
+
+    /**
+     * Gets full-history analytics for a user: weekday patterns, monthly averages and
+     * the distribution of daily changes. Large histories are split across cores.
+     * Scans the whole series on a cache miss, so call it from a background thread.
+     *
+     * @param userId The ID of the user
+     * @return The user's history analytics
+     */
+    public HistoryAnalytics.Result getHistoryAnalytics(int userId) {
+        HistoryAnalytics.Result cached = analyticsCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = getCacheGeneration(userId);
+        return cacheIfCurrent(analyticsCache, userId, generation, HistoryAnalytics.compute(getWeightSeries(userId)));
+    }
+
+    /**
+     * Gets the least-squares trend over a user's whole history.
+     * Reads the running regression sums, so it does not touch the entries.
+     *
+     * @param userId The ID of the user
+     * @return The fitted trend, or null if the history is too short to fit
+     */
+    public TrendEstimate getLeastSquaresTrend(int userId) {
+        return TrendEstimator.leastSquares(getStatistics(userId));
+    }
+
+    /**
+     * Gets a user's series for a day range at the given resolution.
+     * Blocks are served from the range cache when the same range was requested before.
+     *
+     * @param userId The ID of the user
+     * @param resolution The resolution to return the series at
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     * @return The series for the range, oldest first
+     */
+    public WeightSeries getChartSeries(int userId, WeightSeries.Resolution resolution, int fromDay, int toDay) {
+        WeightSeries cached = chartRangeCache.get(userId, resolution, fromDay, toDay);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = chartRangeCache.getGeneration(userId);
+        WeightSeries series = weightDatabaseHelper.getWeightSeries(userId,
+                DateCodec.formatIso(fromDay), DateCodec.formatIso(toDay))
+                .downsample(resolution);
+        chartRangeCache.put(userId, resolution, fromDay, toDay, series, generation);
+        return series;
+    }
+
+    /**
+     * Gets the number of chart range lookups served from the cache.
+     * @return The cache hit count
+     */
+    public static long getChartCacheHitCount() {
+        return chartRangeCache.getHitCount();
+    }
+
+    /**
+     * Gets the number of chart range lookups that read from the database.
+     * @return The cache miss count
+     */
+    public static long getChartCacheMissCount() {
+        return chartRangeCache.getMissCount();
+    }
+
+    /**
+     * Gets a user's data version, reading it from the database on first access.
+     *
+     * @param userId The ID of the user
+     * @return The data version, or -1 if it could not be read
+     */
+    private long getDataVersion(int userId) {
+        Long cached = dataVersionCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = profileSnapshotDatabaseHelper.getDataVersion(userId);
+        if (version != -1) {
+            dataVersionCache.put(userId, version);
+        }
+        return version;
+    }
+
+    /**
+     * Gets a user's cache generation; read it before loading anything that will be cached.
+     *
+     * @param userId The ID of the user
+     * @return The number of writes seen for the user so far
+     */
+    private static long getCacheGeneration(int userId) {
+        return cacheGenerations.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Caches a loaded value unless a write landed after its load started.
+     * The value is put first and the generation checked afterwards, so a write that bumps
+     * the generation between the check and the put still finds the value and drops it.
+     *
+     * @param cache The cache to store the value in
+     * @param userId The ID of the user
+     * @param generation The user's cache generation read before the load
+     * @param value The loaded value
+     * @return The value, cached or not
+     */
+    private static <T> T cacheIfCurrent(Map<Integer, T> cache, int userId, long generation, T value) {
+        cache.put(userId, value);
+        if (getCacheGeneration(userId) != generation) {
+            // Only removes this value, not a fresher one a later read put meanwhile
+            cache.remove(userId, value);
+        }
+        return value;
+    }
+
+    /**
+     * Bumps a user's data version after a write and queues a background snapshot refresh.
+     * The refresh runs after the current disk task, so a burst of writes is folded into
+     * the first refresh and the rest find the snapshot already current.
+     *
+     * @param userId The ID of the user whose data changed
+     */
+    private void onDataChanged(int userId) {
+        // A failed bump is cached as -1 so snapshots are recomputed rather than trusted
+        dataVersionCache.put(userId, profileSnapshotDatabaseHelper.incrementDataVersion(userId));
+        AppExecutors.diskIO().execute(() -> getProfileSnapshot(userId, userRepository.getGoalWeight(userId)));
+    }
+
+    /**
+     * Drops cached data for a user after a write.
+     * Chart blocks are only dropped when their range covers one of the written dates;
+     * a null date means the affected day is unknown and all of the user's blocks are dropped.
+     *
+     * @param userId The ID of the user whose data changed
+     * @param date The date that was written
+     * @param previousDate The date the entry had before the write, if it moved or was removed
+     */
+    private void invalidate(int userId, String date, String previousDate) {
+        // Bumped before anything is dropped, so reads already in flight do not cache what they load
+        cacheGenerations.merge(userId, 1L, Long::sum);
+        entriesCache.remove(userId);
+        seriesCache.remove(userId);
+        trendCache.remove(userId);
+        distributionsCache.remove(userId);
+        analyticsCache.remove(userId);
+
+        Integer day = toEpochDay(date);
+        if (day == null) {
+            chartRangeCache.invalidateUser(userId);
+            return;
+        }
+        chartRangeCache.invalidate(userId, day);
+
+        if (previousDate != null && !previousDate.equals(date)) {
+            Integer previousDay = toEpochDay(previousDate);
+            if (previousDay == null) {
+                chartRangeCache.invalidateUser(userId);
+            } else {
+                chartRangeCache.invalidate(userId, previousDay);
+            }
+        }
+    }
+
+    /**
+     * Converts a stored date to an epoch day.
+     *
+     * @param date The date (yyyy-MM-dd), or null
+     * @return The epoch day, or null if the date is missing or malformed
+     */
+    private static Integer toEpochDay(String date) {
+        int day = DateCodec.parseEpochDay(date);
+        return day == DateCodec.INVALID ? null : day;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,145 @@
+package com.zybooks.weightlogger.Data;
+
+/**
+ * Immutable primitive view of a user's weight history, ordered from oldest to newest.
+ * Days are stored as epoch days so range math and charting never touch date strings.
+ */
+public class WeightSeries {
+
+    /**
+     * Level of detail a series is stored or displayed at.
+     */
+    public enum Resolution {
+        /** Every stored entry. */
+        RAW,
+        /** One averaged point per calendar day. */
+        DAILY,
+        /** One averaged point per week, starting on Sunday. */
+        WEEKLY
+    }
+
+    // Epoch day 0, 1970-01-01, was a Thursday; shifting days by this much puts Sundays on multiples of 7
+    private static final int WEEK_START_SHIFT = 4;
+
+    private static final int[] NO_DAYS = new int[0];
+    private static final float[] NO_WEIGHTS = new float[0];
+
+    /**
+     * A series with no points.
+     */
+    public static final WeightSeries EMPTY = new WeightSeries(NO_DAYS, NO_WEIGHTS, 0);
+
+    private final int[] days;
+    private final float[] weights;
+    private final int size;
+
+    /**
+     * Creates a new WeightSeries over the given arrays.
+     * The arrays are owned by the series afterwards and must not be modified by the caller.
+     *
+     * @param days Epoch days in ascending order
+     * @param weights Weight values matching each day
+     * @param size The number of valid points at the front of the arrays
+     */
+    public WeightSeries(int[] days, float[] weights, int size) {
+        this.days = days;
+        this.weights = weights;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of points.
+     * @return The number of points in the series
+     */
+    public int size() { return size; }
+
+    /**
+     * Checks whether the series has no points.
+     * @return true if the series is empty
+     */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Gets the epoch day of a point.
+     *
+     * @param index The index of the point
+     * @return The epoch day
+     */
+    public int getDay(int index) { return days[index]; }
+
+    /**
+     * Gets the weight of a point.
+     *
+     * @param index The index of the point
+     * @return The weight value
+     */
+    public float getWeight(int index) { return weights[index]; }
+
+    /**
+     * Gets the epoch day of the oldest point.
+     * @return The first epoch day, or 0 if the series is empty
+     */
+    public int getFirstDay() { return size == 0 ? 0 : days[0]; }
+
+    /**
+     * Gets the epoch day of the newest point.
+     * @return The last epoch day, or 0 if the series is empty
+     */
+    public int getLastDay() { return size == 0 ? 0 : days[size - 1]; }
+
+    /**
+     * Finds the first point on or after a day using binary search.
+     *
+     * @param day The epoch day to search for
+     * @return The index of the first point with a day no earlier than {@code day}, or size if none
+     */
+    public int lowerBound(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Reduces the series to the given resolution by averaging the points in each bucket.
+     * Each bucketed point is dated on its bucket's first day, a Sunday for weekly buckets.
+     *
+     * @param resolution The target resolution
+     * @return This series for RAW, otherwise a new bucketed series
+     */
+    public WeightSeries downsample(Resolution resolution) {
+        if (resolution == Resolution.RAW || size == 0) {
+            return this;
+        }
+
+        int bucketDays = resolution == Resolution.WEEKLY ? 7 : 1;
+        int shift = resolution == Resolution.WEEKLY ? WEEK_START_SHIFT : 0;
+        int[] bucketedDays = new int[size];
+        float[] bucketedWeights = new float[size];
+        int count = 0;
+
+        int i = 0;
+        while (i < size) {
+            int bucket = Math.floorDiv(days[i] + shift, bucketDays);
+            double sum = 0;
+            int bucketSize = 0;
+            while (i < size && Math.floorDiv(days[i] + shift, bucketDays) == bucket) {
+                sum += weights[i];
+                bucketSize++;
+                i++;
+            }
+            bucketedDays[count] = bucket * bucketDays - shift;
+            bucketedWeights[count] = (float) (sum / bucketSize);
+            count++;
+        }
+
+        return new WeightSeries(bucketedDays, bucketedWeights, count);
+    }
+}
@@ -0,0 +1,234 @@
+package com.zybooks.weightlogger.Data;
+
+/**
+ * Running aggregates over one user's weight entries.
+ * Adds are applied in O(1). Removals are O(1) unless they take away the current
+ * minimum, maximum, first or last entry, in which case the aggregates are flagged
+ * for repair from the database.
+ * Regression sums use the epoch day as x and the weight as y.
+ */
+public class WeightStatistics {
+    private int count;
+    private double sum;
+    private double min;
+    private double max;
+    private int firstDay;
+    private double firstWeight;
+    private int lastDay;
+    private double lastWeight;
+    private double sumX;
+    private double sumXX;
+    private double sumXY;
+    private double sumYY;
+    private boolean needsRepair;
+
+    /**
+     * Creates empty statistics.
+     */
+    public WeightStatistics() {
+    }
+
+    /**
+     * Creates statistics from previously stored aggregates.
+     *
+     * @param count The number of entries
+     * @param sum The sum of weights
+     * @param min The smallest weight
+     * @param max The largest weight
+     * @param firstDay The epoch day of the earliest entry
+     * @param firstWeight The weight of the earliest entry
+     * @param lastDay The epoch day of the latest entry
+     * @param lastWeight The weight of the latest entry
+     * @param sumX The sum of epoch days
+     * @param sumXX The sum of squared epoch days
+     * @param sumXY The sum of epoch day times weight
+     * @param sumYY The sum of squared weights
+     */
+    public WeightStatistics(int count, double sum, double min, double max,
+                            int firstDay, double firstWeight, int lastDay, double lastWeight,
+                            double sumX, double sumXX, double sumXY, double sumYY) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.firstDay = firstDay;
+        this.firstWeight = firstWeight;
+        this.lastDay = lastDay;
+        this.lastWeight = lastWeight;
+        this.sumX = sumX;
+        this.sumXX = sumXX;
+        this.sumXY = sumXY;
+        this.sumYY = sumYY;
+    }
+
+    /**
+     * Creates a copy of another statistics object.
+     *
+     * @param other The statistics to copy
+     */
+    public WeightStatistics(WeightStatistics other) {
+        this(other.count, other.sum, other.min, other.max, other.firstDay, other.firstWeight,
+                other.lastDay, other.lastWeight, other.sumX, other.sumXX, other.sumXY, other.sumYY);
+        this.needsRepair = other.needsRepair;
+    }
+
+    /**
+     * Applies a newly added entry.
+     * An entry on the same day as the current last entry becomes the new last entry,
+     * matching the insertion order used when aggregates are rebuilt.
+     *
+     * @param day The epoch day of the entry
+     * @param weight The weight of the entry
+     */
+    public void add(int day, double weight) {
+        if (count == 0) {
+            min = weight;
+            max = weight;
+            firstDay = day;
+            firstWeight = weight;
+            lastDay = day;
+            lastWeight = weight;
+        } else {
+            if (weight < min) min = weight;
+            if (weight > max) max = weight;
+            if (day < firstDay) {
+                firstDay = day;
+                firstWeight = weight;
+            }
+            if (day >= lastDay) {
+                lastDay = day;
+                lastWeight = weight;
+            }
+        }
+
+        count++;
+        sum += weight;
+        sumX += day;
+        sumXX += (double) day * day;
+        sumXY += day * weight;
+        sumYY += weight * weight;
+    }
+
+    /**
+     * Removes an entry that was previously added.
+     * Flags the aggregates for repair when the entry may have been an extreme or an endpoint.
+     *
+     * @param day The epoch day of the entry
+     * @param weight The weight of the entry
+     */
+    public void remove(int day, double weight) {
+        count--;
+        sum -= weight;
+        sumX -= day;
+        sumXX -= (double) day * day;
+        sumXY -= day * weight;
+        sumYY -= weight * weight;
+
+        if (count <= 0) {
+            clear();
+            return;
+        }
+
+        if (weight <= min || weight >= max || day <= firstDay || day >= lastDay) {
+            needsRepair = true;
+        }
+    }
+
+    /**
+     * Resets the statistics to the empty state.
+     */
+    public void clear() {
+        count = 0;
+        sum = 0;
+        min = 0;
+        max = 0;
+        firstDay = 0;
+        firstWeight = 0;
+        lastDay = 0;
+        lastWeight = 0;
+        sumX = 0;
+        sumXX = 0;
+        sumXY = 0;
+        sumYY = 0;
+        needsRepair = false;
+    }
+
+    /**
+     * Marks the aggregates as untrustworthy so they are rebuilt from the database.
+     */
+    public void markNeedsRepair() {
+        needsRepair = true;
+    }
+
+    /**
+     * Checks whether the aggregates must be rebuilt before use.
+     * @return true if a removal invalidated an extreme or endpoint
+     */
+    public boolean needsRepair() { return needsRepair; }
+
+    // Aggregate getters
+    public int getCount() { return count; }
+    public double getSum() { return sum; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public int getFirstDay() { return firstDay; }
+    public double getFirstWeight() { return firstWeight; }
+    public int getLastDay() { return lastDay; }
+    public double getLastWeight() { return lastWeight; }
+    public double getSumX() { return sumX; }
+    public double getSumXX() { return sumXX; }
+    public double getSumXY() { return sumXY; }
+    public double getSumYY() { return sumYY; }
+
+    /**
+     * Gets the mean weight.
+     * @return The mean weight, or 0 if there are no entries
+     */
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Gets the number of days between the first and last entry.
+     * @return The tracked span in days
+     */
+    public int getDaysTracked() {
+        return count == 0 ? 0 : lastDay - firstDay;
+    }
+
+    /**
+     * Gets the least-squares slope of weight over time.
+     * @return The slope in weight units per day, or NaN if it is undefined
+     */
+    public double getSlopePerDay() {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double meanX = sumX / count;
+        double sxx = sumXX - sumX * meanX;
+        if (sxx <= 0) {
+            return Double.NaN;
+        }
+        double sxy = sumXY - sumX * (sum / count);
+        return sxy / sxx;
+    }
+
+    /**
+     * Checks whether two statistics hold the same aggregates within a small tolerance.
+     *
+     * @param other The statistics to compare with
+     * @return true if the aggregates agree
+     */
+    public boolean matches(WeightStatistics other) {
+        return count == other.count
+                && firstDay == other.firstDay && lastDay == other.lastDay
+                && close(sum, other.sum) && close(min, other.min) && close(max, other.max)
+                && close(firstWeight, other.firstWeight) && close(lastWeight, other.lastWeight)
+                && close(sumX, other.sumX) && close(sumXX, other.sumXX)
+                && close(sumXY, other.sumXY) && close(sumYY, other.sumYY);
+    }
+
+    private static boolean close(double a, double b) {
+        return Math.abs(a - b) <= 1e-6 * Math.max(1, Math.max(Math.abs(a), Math.abs(b)));
+    }
+}
@@ -21,6 +21,8 @@ import androidx.lifecycle.ViewModelProvider;
 import com.google.android.material.textfield.TextInputLayout;
 import com.zybooks.weightlogger.MainActivity;
 import com.zybooks.weightlogger.R;
+import com.zybooks.weightlogger.Utilities.CalendarHeatmapView;
+import com.zybooks.weightlogger.Utilities.HistogramView;
 import com.zybooks.weightlogger.Utilities.ValidationUIHelper;
 import com.zybooks.weightlogger.ViewModels.ProfileViewModel;
 
@@ -37,6 +39,18 @@ public class ProfileFragment extends Fragment {
     private TextView weightLostTextView;
     private TextView daysTrackingTextView;
     private TextView weeklyAvgTextView;
+    private TextView rollingAvg7TextView;
+    private TextView rollingAvg30TextView;
+    private TextView rollingAvg90TextView;
+    private TextView projectedGoalTextView;
+    private TextView currentStreakTextView;
+    private TextView monthCoverageTextView;
+    private TextView longestGapTextView;
+    private TextView monthlyAverageTextView;
+    private TextView weekdayPatternTextView;
+    private CalendarHeatmapView monthCalendarView;
+    private HistogramView weightChangeHistogramView;
+    private HistogramView weightRangeHistogramView;
     private ProfileViewModel viewModel;
 
     @Override
@@ -56,6 +70,18 @@ public class ProfileFragment extends Fragment {
         weightLostTextView = view.findViewById(R.id.weightLostTextView);
         daysTrackingTextView = view.findViewById(R.id.daysTrackingTextView);
         weeklyAvgTextView = view.findViewById(R.id.weeklyAvgTextView);
+        rollingAvg7TextView = view.findViewById(R.id.rollingAvg7TextView);
+        rollingAvg30TextView = view.findViewById(R.id.rollingAvg30TextView);
+        rollingAvg90TextView = view.findViewById(R.id.rollingAvg90TextView);
+        projectedGoalTextView = view.findViewById(R.id.projectedGoalTextView);
+        currentStreakTextView = view.findViewById(R.id.currentStreakTextView);
+        monthCoverageTextView = view.findViewById(R.id.monthCoverageTextView);
+        longestGapTextView = view.findViewById(R.id.longestGapTextView);
+        monthlyAverageTextView = view.findViewById(R.id.monthlyAverageTextView);
+        weekdayPatternTextView = view.findViewById(R.id.weekdayPatternTextView);
+        monthCalendarView = view.findViewById(R.id.monthCalendarView);
+        weightChangeHistogramView = view.findViewById(R.id.weightChangeHistogramView);
+        weightRangeHistogramView = view.findViewById(R.id.weightRangeHistogramView);
 
         Button editGoalButton = view.findViewById(R.id.editGoalButton);
         Button logoutButton = view.findViewById(R.id.logoutButton);
@@ -152,6 +178,80 @@ public class ProfileFragment extends Fragment {
                 weeklyAvgTextView.setText(value);
             }
         });
+
+        viewModel.getRollingAvg7TextLiveData().observe(getViewLifecycleOwner(), value -> {
+            if (rollingAvg7TextView != null) {
+                rollingAvg7TextView.setText(value);
+            }
+        });
+
+        viewModel.getRollingAvg30TextLiveData().observe(getViewLifecycleOwner(), value -> {
+            if (rollingAvg30TextView != null) {
+                rollingAvg30TextView.setText(value);
+            }
+        });
+
+        viewModel.getRollingAvg90TextLiveData().observe(getViewLifecycleOwner(), value -> {
+            if (rollingAvg90TextView != null) {
+                rollingAvg90TextView.setText(value);
+            }
+        });
+
+        viewModel.getProjectedGoalTextLiveData().observe(getViewLifecycleOwner(), value -> {
+            if (projectedGoalTextView != null) {
+                projectedGoalTextView.setText(value);
+            }
+        });
+
+        viewModel.getDistributionsLiveData().observe(getViewLifecycleOwner(), distributions -> {
+            if (weightChangeHistogramView != null) {
+                weightChangeHistogramView.setHistogram(distributions.getChangeHistogram(), "lbs/day");
+            }
+            if (weightRangeHistogramView != null) {
+                weightRangeHistogramView.setHistogram(distributions.getWeightHistogram(), "lbs");
+            }
+        });
+
+        viewModel.getCurrentStreakLiveData().observe(getViewLifecycleOwner(), value -> {
+            if (currentStreakTextView != null) {
+                currentStreakTextView.setText(value);
+            }
+        });
+
+        viewModel.getMonthCoverageLiveData().observe(getViewLifecycleOwner(), value -> {
+            if (monthCoverageTextView != null) {
+                monthCoverageTextView.setText(value);
+            }
+        });
+
+        viewModel.getLongestGapLiveData().observe(getViewLifecycleOwner(), value -> {
+            if (longestGapTextView != null) {
+                longestGapTextView.setText(value);
+            }
+        });
+
+        viewModel.getMonthlyAverageTextLiveData().observe(getViewLifecycleOwner(), value -> {
+            if (monthlyAverageTextView != null) {
+                monthlyAverageTextView.setText(value);
+            }
+        });
+
+        viewModel.getWeekdayPatternTextLiveData().observe(getViewLifecycleOwner(), value -> {
+            if (weekdayPatternTextView != null) {
+                weekdayPatternTextView.setText(value);
+            }
+        });
+
+        viewModel.getMonthCalendarLiveData().observe(getViewLifecycleOwner(), snapshot -> {
+            if (monthCalendarView == null) {
+                return;
+            }
+            if (snapshot != null) {
+                monthCalendarView.setMonth(snapshot.getComputedDay(), snapshot.getMonthLogMask());
+            } else {
+                monthCalendarView.clear();
+            }
+        });
     }
 
     /**
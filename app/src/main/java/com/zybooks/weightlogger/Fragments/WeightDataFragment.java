@@ -1,5 +1,7 @@
 package com.zybooks.weightlogger.Fragments;
 
+import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
 import android.text.Editable;
 import android.text.TextWatcher;
@@ -15,36 +17,46 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.core.content.ContextCompat;
+import androidx.core.content.FileProvider;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.android.material.chip.Chip;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.google.android.material.textfield.TextInputLayout;
-import com.zybooks.weightlogger.Data.UserRepository;
-import com.zybooks.weightlogger.Data.UserSessionManager;
 import com.zybooks.weightlogger.MainActivity;
 import com.zybooks.weightlogger.R;
+import com.zybooks.weightlogger.Utilities.ChartExporter;
+import com.zybooks.weightlogger.Utilities.DateCodec;
 import com.zybooks.weightlogger.Utilities.WeightAdapter;
 import com.zybooks.weightlogger.Utilities.WeightChartView;
 import com.zybooks.weightlogger.ViewModels.MainViewModel;
 import com.zybooks.weightlogger.ViewModels.WeightDataViewModel;
 import com.zybooks.weightlogger.Data.WeightDatabaseHelper;
+import com.zybooks.weightlogger.Data.WeightSeries;
 
-import java.text.SimpleDateFormat;
+import java.io.File;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Fragment for managing weight data entries with enhanced validation.
  * Handles adding, editing, and deleting weight records with validation.
  */
 public class WeightDataFragment extends Fragment {
+    // Exported charts are laid out like a 1000x600 view and rendered at twice that size
+    private static final int CHART_EXPORT_WIDTH = 1000;
+    private static final int CHART_EXPORT_HEIGHT = 600;
+    private static final float CHART_EXPORT_SCALE = 2f;
+    // Must match the provider authority in AndroidManifest.xml
+    private static final String FILE_PROVIDER_SUFFIX = ".fileprovider";
 
     private RecyclerView weightRecyclerView;
     private EditText dateEditText, weightEditText;
@@ -53,6 +65,7 @@ public class WeightDataFragment extends Fragment {
     private TextView goalWeightValue;
     private LinearProgressIndicator progressIndicator;
     private TextView progressText;
+    private TextView projectedGoalText;
     private Button addWeightButton;
     private WeightDataViewModel viewModel;
     private WeightAdapter adapter;
@@ -82,14 +95,14 @@ public class WeightDataFragment extends Fragment {
         goalWeightValue = view.findViewById(R.id.goalWeightValue);
         progressIndicator = view.findViewById(R.id.progressIndicator);
         progressText = view.findViewById(R.id.progressText);
+        projectedGoalText = view.findViewById(R.id.projectedGoalText);
         ExtendedFloatingActionButton chartFab = view.findViewById(R.id.chartFab);
 
         // Set up chart button click listener
         chartFab.setOnClickListener(v -> showWeightChart());
 
         // Set current date as default
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        dateEditText.setText(dateFormat.format(new Date()));
+        dateEditText.setText(DateCodec.formatIso(DateCodec.today()));
 
         // Set up validation
         setupValidation();
@@ -223,6 +236,48 @@ public class WeightDataFragment extends Fragment {
             // NEW: Update progress card whenever entries change
             updateProgressCard();
         });
+
+        // Ask for confirmation before saving a weight far from recent entries
+        viewModel.getOutlierWarningLiveData().observe(getViewLifecycleOwner(), warning -> {
+            if (warning != null) {
+                viewModel.clearOutlierWarning();
+                showOutlierDialog(warning);
+            }
+        });
+
+        // Observe the projected goal date from the weight trend
+        viewModel.getGoalProjectionLiveData().observe(getViewLifecycleOwner(), projection ->
+                projectedGoalText.setText(getString(R.string.projected_goal, projection)));
+    }
+
+    /**
+     * Shows a confirmation dialog for a weight that looks like a typo.
+     * Confirming saves the value unchanged; fixing puts it back in front of the user.
+     *
+     * @param warning The held-back entry
+     */
+    private void showOutlierDialog(WeightDataViewModel.OutlierWarning warning) {
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle(R.string.outlier_title)
+                .setMessage(getString(R.string.outlier_message, warning.getWeight(), warning.getRecentMedian()))
+                .setPositiveButton(R.string.save_anyway, (dialog, which) -> {
+                    if (warning.getEntryId() == null) {
+                        viewModel.addWeightEntry(warning.getDate(), warning.getWeight(), true);
+                    } else {
+                        viewModel.updateWeightEntry(warning.getEntryId(), warning.getDate(),
+                                warning.getWeight(), true);
+                    }
+                })
+                .setNegativeButton(R.string.fix_it, (dialog, which) -> {
+                    if (warning.getEntryId() == null) {
+                        weightEditText.setText(warning.getWeight());
+                        weightEditText.requestFocus();
+                    } else {
+                        showEditDialog(new WeightDatabaseHelper.WeightEntry(warning.getEntryId(),
+                                warning.getDate(), Double.parseDouble(warning.getWeight())));
+                    }
+                })
+                .show();
     }
 
     /**
@@ -244,19 +299,8 @@ public class WeightDataFragment extends Fragment {
      */
 
     private void updateProgressCard() {
-        // Get user ID
-        UserSessionManager sessionManager = new UserSessionManager(requireContext());
-        UserRepository userRepository = new UserRepository(requireContext());
-        int userId = getUserId(sessionManager, userRepository);
-
-        if (userId == -1) {
-            // Handle case where user is not found
-            resetProgressCard();
-            return;
-        }
-
-        // Get goal weight
-        double goalWeight = userRepository.getGoalWeight(userId);
+        // Get goal weight from the cached profile
+        double goalWeight = viewModel.getGoalWeight();
         if (goalWeight <= 0) {
             // Handle case where goal weight is not set
             resetProgressCard();
@@ -395,32 +439,94 @@ public class WeightDataFragment extends Fragment {
         WeightChartView chartView = dialogView.findViewById(R.id.weightChartView);
 
         // Get goal weight
-        UserSessionManager sessionManager = new UserSessionManager(requireContext());
-        UserRepository userRepository = new UserRepository(requireContext());
-        int userId = getUserId(sessionManager, userRepository);
-        double goalWeight = userRepository.getGoalWeight(userId);
+        double goalWeight = viewModel.getGoalWeight();
 
         // Set the data
         chartView.setData(entries, goalWeight);
 
+        // The trajectory ends on the projected goal day, so it is only offered when there is one
+        Integer goalDay = viewModel.getProjectedGoalDayLiveData().getValue();
+        chartView.setGoalDay(goalDay != null ? goalDay : DateCodec.INVALID);
+        bindOverlayChip(dialogView.findViewById(R.id.chipShortAverage), chartView, WeightChartView.Overlay.SHORT_AVERAGE);
+        bindOverlayChip(dialogView.findViewById(R.id.chipLongAverage), chartView, WeightChartView.Overlay.LONG_AVERAGE);
+        Chip trajectoryChip = dialogView.findViewById(R.id.chipTrajectory);
+        trajectoryChip.setEnabled(goalDay != null && goalDay != DateCodec.INVALID);
+        bindOverlayChip(trajectoryChip, chartView, WeightChartView.Overlay.TRAJECTORY);
+
+        // Wide zoom levels load bucketed series for the visible range
+        chartView.setRangeLoader(new WeightChartView.RangeLoader() {
+            @Override
+            public void loadRange(WeightSeries.Resolution resolution, int fromDay, int toDay,
+                                  Consumer<WeightSeries> onLoaded) {
+                viewModel.loadChartRange(resolution, fromDay, toDay, onLoaded);
+            }
+
+            @Override
+            public void prefetchRange(WeightSeries.Resolution resolution, int fromDay, int toDay) {
+                viewModel.prefetchChartRange(resolution, fromDay, toDay);
+            }
+        });
+
         // Create and show dialog
         new MaterialAlertDialogBuilder(requireContext())
                 .setTitle("Weight Progress Chart")
                 .setView(dialogView)
                 .setPositiveButton("Close", null)
+                .setNeutralButton("Share", (dialog, which) -> showChartShareOptions(chartView.getVisibleOverlays()))
                 .show();
     }
 
     /**
-     * Helper method to get user ID.
+     * Asks for an image format, then exports the chart in the background and opens the share sheet.
+     *
+     * @param overlays The overlays shown on the chart, included in the export
      */
-    private int getUserId(UserSessionManager sessionManager, UserRepository userRepository) {
-        if (sessionManager.isLoggedIn()) {
-            String username = sessionManager.getUsername();
-            return userRepository.getUserId(username);
-        } else {
-            return userRepository.getUserId("DefaultUser");
+    private void showChartShareOptions(Set<WeightChartView.Overlay> overlays) {
+        ChartExporter.Format[] formats = ChartExporter.Format.values();
+        String[] labels = new String[formats.length];
+        for (int i = 0; i < formats.length; i++) {
+            labels[i] = formats[i].name() + " image";
+        }
+        new MaterialAlertDialogBuilder(requireContext())
+                .setTitle("Share Chart")
+                .setItems(labels, (dialog, which) -> {
+                    ChartExporter.Format format = formats[which];
+                    viewModel.exportChart(format, overlays, CHART_EXPORT_WIDTH, CHART_EXPORT_HEIGHT,
+                            CHART_EXPORT_SCALE, file -> shareChartFile(file, format));
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    /**
+     * Opens the share sheet for an exported chart.
+     *
+     * @param file The exported file, or null if the export failed
+     * @param format The format the file was written in
+     */
+    private void shareChartFile(File file, ChartExporter.Format format) {
+        if (file == null || !isAdded()) {
+            return;
         }
+        Uri uri = FileProvider.getUriForFile(requireContext(),
+                requireContext().getPackageName() + FILE_PROVIDER_SUFFIX, file);
+        Intent shareIntent = new Intent(Intent.ACTION_SEND)
+                .setType(format.getMimeType())
+                .putExtra(Intent.EXTRA_STREAM, uri)
+                .addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        startActivity(Intent.createChooser(shareIntent, "Share chart"));
+    }
+
+    /**
+     * Toggles a chart overlay from a filter chip.
+     *
+     * @param chip The chip controlling the overlay
+     * @param chartView The chart to toggle the overlay on
+     * @param overlay The overlay the chip controls
+     */
+    private void bindOverlayChip(Chip chip, WeightChartView chartView, WeightChartView.Overlay overlay) {
+        chip.setChecked(chartView.isOverlayVisible(overlay));
+        chip.setOnCheckedChangeListener((button, isChecked) -> chartView.setOverlayVisible(overlay, isChecked));
     }
 
     @Override
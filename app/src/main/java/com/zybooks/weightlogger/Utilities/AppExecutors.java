@@ -0,0 +1,61 @@
+package com.zybooks.weightlogger.Utilities;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared executors for work that must stay off the main thread.
+ * Database work runs on a single background thread so writes are applied in submission order.
+ */
+public class AppExecutors {
+    private static final ExecutorService diskIO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "weight-logger-disk-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService compute = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "weight-logger-compute");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+
+    private AppExecutors() {
+    }
+
+    /**
+     * Gets the executor used for database reads and writes.
+     *
+     * @return The single-threaded disk IO executor
+     */
+    public static Executor diskIO() {
+        return diskIO;
+    }
+
+    /**
+     * Gets the executor used for CPU-bound work such as chart layout, kept apart from
+     * disk IO so it never waits behind database reads or writes.
+     *
+     * @return The single-threaded compute executor
+     */
+    public static Executor compute() {
+        return compute;
+    }
+
+    /**
+     * Posts a task to run on the main thread.
+     *
+     * @param task The task to run
+     */
+    public static void runOnMainThread(Runnable task) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            task.run();
+        } else {
+            mainThreadHandler.post(task);
+        }
+    }
+}
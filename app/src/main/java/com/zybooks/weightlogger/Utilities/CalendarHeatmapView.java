@@ -0,0 +1,146 @@
+package com.zybooks.weightlogger.Utilities;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.zybooks.weightlogger.R;
+
+/**
+ * Calendar of the current month with each day shaded by whether a weight was logged on it.
+ * Reads the logged days from a bit mask, bit i being day i + 1 of the month, so showing a
+ * month needs no entries. Cell rectangles are built when the month or size changes, so
+ * drawing a frame only walks the precomputed cells.
+ */
+public class CalendarHeatmapView extends View {
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int MAX_WEEKS = 6;
+
+    private int firstWeekday;
+    private int monthLength;
+    private int daysSoFar;
+    private long loggedMask;
+
+    private final Paint loggedPaint = new Paint();
+    private final Paint missedPaint = new Paint();
+    private final Paint upcomingPaint = new Paint();
+
+    private RectF[] cellsCache = new RectF[0];
+    private final float cellGap = 6f;
+    private final float cornerRadius = 6f;
+
+    public CalendarHeatmapView(Context context) {
+        super(context);
+        init();
+    }
+
+    public CalendarHeatmapView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public CalendarHeatmapView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+        // Logged day paint
+        loggedPaint.setColor(ContextCompat.getColor(getContext(), R.color.teal_500));
+        loggedPaint.setStyle(Paint.Style.FILL);
+        loggedPaint.setAntiAlias(true);
+
+        // Missed day paint
+        missedPaint.setColor(ContextCompat.getColor(getContext(), R.color.grey_300));
+        missedPaint.setStyle(Paint.Style.FILL);
+        missedPaint.setAntiAlias(true);
+
+        // Paint for the rest of the month
+        upcomingPaint.setColor(ContextCompat.getColor(getContext(), R.color.grey_300));
+        upcomingPaint.setStyle(Paint.Style.STROKE);
+        upcomingPaint.setStrokeWidth(2f);
+        upcomingPaint.setAntiAlias(true);
+    }
+
+    /**
+     * Sets the month to draw.
+     *
+     * @param today The current epoch day, which picks the month and ends the logged days
+     * @param loggedMask The logged days of the month so far, bit i being day i + 1
+     */
+    public void setMonth(int today, long loggedMask) {
+        int monthStart = DateCodec.monthStart(today);
+        // Epoch day 0, 1970-01-01, was a Thursday; weeks start on Sunday
+        this.firstWeekday = Math.floorMod(monthStart + 4, DAYS_PER_WEEK);
+        this.monthLength = DateCodec.lengthOfMonth(DateCodec.year(today), DateCodec.month(today));
+        this.daysSoFar = today - monthStart + 1;
+        this.loggedMask = loggedMask;
+
+        calculateCells();
+        invalidate();
+    }
+
+    /**
+     * Clears the calendar, as when the user has no entries.
+     */
+    public void clear() {
+        monthLength = 0;
+        calculateCells();
+        invalidate();
+    }
+
+    private void calculateCells() {
+        int width = getWidth() - getPaddingLeft() - getPaddingRight();
+        int height = getHeight() - getPaddingTop() - getPaddingBottom();
+
+        // Handle the case when there is no month or the view size isn't set yet
+        if (monthLength == 0 || width <= 0 || height <= 0) {
+            cellsCache = new RectF[0];
+            return;
+        }
+
+        // Square cells as large as both dimensions allow, centered horizontally
+        float cellSize = Math.min((float) width / DAYS_PER_WEEK, (float) height / MAX_WEEKS);
+        float left = getPaddingLeft() + (width - cellSize * DAYS_PER_WEEK) / 2;
+        float top = getPaddingTop();
+
+        cellsCache = new RectF[monthLength];
+        for (int i = 0; i < monthLength; i++) {
+            int slot = firstWeekday + i;
+            float x = left + (slot % DAYS_PER_WEEK) * cellSize;
+            float y = top + (slot / DAYS_PER_WEEK) * cellSize;
+            cellsCache[i] = new RectF(x + cellGap / 2, y + cellGap / 2,
+                    x + cellSize - cellGap / 2, y + cellSize - cellGap / 2);
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int old_width, int old_height) {
+        super.onSizeChanged(w, h, old_width, old_height);
+        calculateCells();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+
+        for (int i = 0; i < cellsCache.length; i++) {
+            Paint paint;
+            if (i >= daysSoFar) {
+                paint = upcomingPaint;
+            } else if ((loggedMask & (1L << i)) != 0) {
+                paint = loggedPaint;
+            } else {
+                paint = missedPaint;
+            }
+            canvas.drawRoundRect(cellsCache[i], cornerRadius, cornerRadius, paint);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.zybooks.weightlogger.Utilities;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+import com.zybooks.weightlogger.Data.WeightDatabaseHelper;
+import com.zybooks.weightlogger.Data.WeightSeries;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Exports the weight chart to an image file that can be shared.
+ * The chart is laid out and drawn off-screen on the compute executor with the same geometry
+ * and renderer as WeightChartView, so no view or dialog is needed and the UI never waits.
+ * Files are written to the app cache, which res/xml/file_paths.xml exposes to the share sheet.
+ */
+public final class ChartExporter {
+    private static final String COMPONENT_NAME = "ChartExporter";
+
+    /**
+     * Directory under the cache directory that exported charts are written to.
+     */
+    public static final String EXPORT_DIRECTORY = "charts";
+    private static final String FILE_NAME = "weight-chart";
+
+    /**
+     * Image formats a chart can be exported to.
+     */
+    public enum Format {
+        PNG("png", "image/png"),
+        SVG("svg", "image/svg+xml");
+
+        private final String extension;
+        private final String mimeType;
+
+        Format(String extension, String mimeType) {
+            this.extension = extension;
+            this.mimeType = mimeType;
+        }
+
+        public String getExtension() { return extension; }
+        public String getMimeType() { return mimeType; }
+    }
+
+    private ChartExporter() {
+        // Static helpers only
+    }
+
+    /**
+     * Renders the whole history to a file in the background and delivers it on the main thread.
+     * The chart is laid out at width by height, like a view of that size, and the output is
+     * scaled up from there so text and strokes keep their proportions at any resolution.
+     *
+     * @param context Any context; the application context is kept
+     * @param entries The weight entries to chart, newest first; must not be modified afterwards
+     * @param goalWeight The goal weight, or 0 if none is set
+     * @param goalDay The projected goal day the trajectory ends on, or DateCodec.INVALID
+     * @param overlays The overlays to include
+     * @param format The image format
+     * @param width The layout width
+     * @param height The layout height
+     * @param scale The output pixels per layout unit
+     * @param onExported Receives the written file, or null if the export failed
+     */
+    public static void export(Context context, List<WeightDatabaseHelper.WeightEntry> entries,
+                              double goalWeight, int goalDay,
+                              Set<WeightChartView.Overlay> overlays, Format format, int width, int height,
+                              float scale, Consumer<File> onExported) {
+        final Context appContext = context.getApplicationContext();
+        final Set<WeightChartView.Overlay> exportOverlays = overlays.isEmpty()
+                ? EnumSet.noneOf(WeightChartView.Overlay.class) : EnumSet.copyOf(overlays);
+        AppExecutors.compute().execute(() -> {
+            File exported = null;
+            File partial = null;
+            try {
+                ChartGeometry.Data data = ChartGeometry.Data.fromEntries(entries);
+                ChartGeometry geometry = new ChartGeometry();
+                geometry.compute(data, null, null, WeightSeries.Resolution.RAW, data.firstDay, data.lastDay,
+                        false, goalWeight, goalDay, width, height);
+                ChartRenderer renderer = new ChartRenderer(appContext);
+
+                File directory = new File(appContext.getCacheDir(), EXPORT_DIRECTORY);
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("Could not create " + directory);
+                }
+                // Written beside the target and renamed, so a share still reading the last export never sees a partial file
+                File target = new File(directory, FILE_NAME + "." + format.getExtension());
+                partial = new File(directory, target.getName() + ".tmp");
+                if (format == Format.PNG) {
+                    writePng(partial, geometry, renderer, exportOverlays, width, height, scale);
+                } else {
+                    writeSvg(partial, geometry, renderer, exportOverlays, width, height, scale);
+                }
+                if (!partial.renameTo(target)) {
+                    throw new IOException("Could not replace " + target);
+                }
+                exported = target;
+            } catch (IOException | RuntimeException e) {
+                // Runtime failures such as a bitmap too large to allocate must still reach the callback
+                ErrorHandler.handleException(appContext, e, COMPONENT_NAME, "export",
+                        ErrorHandler.Severity.ERROR, "Could not export the chart");
+            } finally {
+                // Already renamed away on success; a failed write must not leave a half file behind
+                if (partial != null && partial.exists() && !partial.delete()) {
+                    ErrorHandler.logError(COMPONENT_NAME, "Could not delete " + partial,
+                            ErrorHandler.Severity.WARNING);
+                }
+            }
+
+            final File result = exported;
+            AppExecutors.runOnMainThread(() -> onExported.accept(result));
+        });
+    }
+
+    /**
+     * Draws the chart into an off-screen bitmap and streams it to a file as PNG.
+     *
+     * @param file The file to write
+     * @param geometry The laid out chart
+     * @param renderer The renderer to draw with
+     * @param overlays The overlays to include
+     * @param width The layout width
+     * @param height The layout height
+     * @param scale The output pixels per layout unit
+     * @throws IOException If the image cannot be encoded or written
+     */
+    private static void writePng(File file, ChartGeometry geometry, ChartRenderer renderer,
+                                 Set<WeightChartView.Overlay> overlays, int width, int height, float scale)
+            throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(Math.round(width * scale), Math.round(height * scale),
+                Bitmap.Config.ARGB_8888);
+        try {
+            // Shared images have no card behind them, so the background is filled in
+            Canvas canvas = new Canvas(bitmap);
+            canvas.drawColor(Color.WHITE);
+            canvas.scale(scale, scale);
+            renderer.drawStatic(canvas, geometry, true, width, height);
+            renderer.drawOverlays(canvas, geometry, overlays, width, height);
+
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                if (!bitmap.compress(Bitmap.CompressFormat.PNG, 100, out)) {
+                    throw new IOException("PNG encoding failed");
+                }
+            }
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    /**
+     * Streams the chart to a file as SVG.
+     *
+     * @param file The file to write
+     * @param geometry The laid out chart
+     * @param renderer The renderer whose paints give the styling
+     * @param overlays The overlays to include
+     * @param width The layout width
+     * @param height The layout height
+     * @param scale The output pixels per layout unit
+     * @throws IOException If the file cannot be written
+     */
+    private static void writeSvg(File file, ChartGeometry geometry, ChartRenderer renderer,
+                                 Set<WeightChartView.Overlay> overlays, int width, int height, float scale)
+            throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            ChartSvgWriter.write(out, geometry, renderer, overlays, width, height, scale);
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package com.zybooks.weightlogger.Utilities;
+
+import androidx.annotation.Nullable;
+
+import com.zybooks.weightlogger.Data.SeriesSegmentTree;
+import com.zybooks.weightlogger.Data.WeightDatabaseHelper;
+import com.zybooks.weightlogger.Data.WeightSeries;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Screen geometry and label strings for one layout of the weight chart.
+ * WeightChartView owns two of these: one is drawn on the main thread while the other is
+ * filled on the compute executor, and the two are swapped when a layout finishes.
+ * Buffers are reused between layouts and only grow.
+ */
+final class ChartGeometry {
+    static final int PADDING_LEFT = 80;
+    static final int PADDING_RIGHT = 40;
+    static final int PADDING_TOP = 40;
+    static final int PADDING_BOTTOM = 80;
+    static final int Y_LABEL_COUNT = 5;
+
+    // Smallest window that can be shown, in days
+    static final float MIN_VISIBLE_DAYS = 7f;
+    // Date labels are placed at whole-day steps giving about this many across the window
+    private static final int X_LABEL_COUNT = 5;
+    // Markers and value labels are only drawn when the drawn points are at least this far apart
+    private static final int MIN_MARKER_SPACING = 40;
+
+    /**
+     * Immutable raw chart data, oldest first, shared by layouts until the entries change.
+     */
+    static final class Data {
+        final int[] days;
+        final float[] weights;
+        // NaN where an entry has no stored trend yet
+        final float[] trends;
+        // Trailing moving averages for the overlays, computed once per data change
+        final float[] shortAverages;
+        final float[] longAverages;
+        final int count;
+        final float minWeight;
+        final float maxWeight;
+        // Answers the weight range of a zoomed window without scanning its points
+        final SeriesSegmentTree rangeIndex;
+        // Bounds the window is kept within, at least MIN_VISIBLE_DAYS apart
+        final float firstDay;
+        final float lastDay;
+
+        private Data(int[] days, float[] weights, float[] trends, int count, float minWeight, float maxWeight) {
+            this.days = days;
+            this.weights = weights;
+            this.trends = trends;
+            this.count = count;
+            this.minWeight = minWeight;
+            this.maxWeight = maxWeight;
+            WeightSeries series = new WeightSeries(days, weights, count);
+            this.rangeIndex = new SeriesSegmentTree(series);
+            RollingWindows rollingWindows = new RollingWindows(series);
+            this.shortAverages = rollingWindows.movingAverage(ChartOverlays.SHORT_WINDOW_DAYS);
+            this.longAverages = rollingWindows.movingAverage(ChartOverlays.LONG_WINDOW_DAYS);
+
+            float first = count > 0 ? days[0] : 0;
+            float last = count > 0 ? days[count - 1] : 0;
+            float shortfall = MIN_VISIBLE_DAYS - (last - first);
+            if (shortfall > 0) {
+                first -= shortfall / 2f;
+                last += shortfall / 2f;
+            }
+            this.firstDay = first;
+            this.lastDay = last;
+        }
+
+        /**
+         * Copies entries into primitive arrays, finding the weight range in the same pass.
+         * The entries are expected newest first, as the repository returns them, and are
+         * reversed in a single pass using their pre-parsed epoch days. Entries whose date does
+         * not parse cannot be placed on the date axis and are skipped.
+         *
+         * @param entries The weight entries, newest first; not modified while this runs
+         * @return The chart data
+         */
+        static Data fromEntries(List<WeightDatabaseHelper.WeightEntry> entries) {
+            int size = entries.size();
+            int[] days = new int[size];
+            float[] weights = new float[size];
+            float[] trends = new float[size];
+
+            int count = 0;
+            boolean ordered = true;
+            float scanMin = Float.MAX_VALUE;
+            float scanMax = -Float.MAX_VALUE;
+            for (int i = size - 1; i >= 0; i--) {
+                WeightDatabaseHelper.WeightEntry entry = entries.get(i);
+                if (entry.getEpochDay() == DateCodec.INVALID) {
+                    continue;
+                }
+                days[count] = entry.getEpochDay();
+                weights[count] = (float) entry.getWeight();
+                trends[count] = (float) entry.getTrend();
+                if (count > 0 && days[count] < days[count - 1]) ordered = false;
+                if (weights[count] < scanMin) scanMin = weights[count];
+                if (weights[count] > scanMax) scanMax = weights[count];
+                count++;
+            }
+            if (!ordered) {
+                // Only reached if a caller passes unordered entries; nearly sorted input stays close to O(n)
+                sortByDay(days, weights, trends, count);
+            }
+            return new Data(days, weights, trends, count, scanMin, scanMax);
+        }
+
+        /**
+         * Stable insertion sort of the arrays by day.
+         */
+        private static void sortByDay(int[] days, float[] weights, float[] trends, int count) {
+            for (int i = 1; i < count; i++) {
+                int day = days[i];
+                float weight = weights[i];
+                float trend = trends[i];
+                int j = i - 1;
+                while (j >= 0 && days[j] > day) {
+                    days[j + 1] = days[j];
+                    weights[j + 1] = weights[j];
+                    trends[j + 1] = trends[j];
+                    j--;
+                }
+                days[j + 1] = day;
+                weights[j + 1] = weight;
+                trends[j + 1] = trend;
+            }
+        }
+    }
+
+    // Inputs this layout was computed from
+    @Nullable
+    Data data;
+    float viewFromDay;
+    float viewToDay;
+
+    // Points in the visible window, from the raw entries or a bucketed series
+    WeightSeries.Resolution displayResolution = WeightSeries.Resolution.RAW;
+    // Raw index of the first display point when they are raw
+    int displayFrom = 0;
+    int displayCount = 0;
+    int[] displayDays = new int[0];
+    float[] displayWeights = new float[0];
+    float[] pointX = new float[0];
+    float[] pointY = new float[0];
+    // Indices of the points actually drawn, downsampled to about one per horizontal pixel
+    int[] drawnIndices = new int[0];
+    int drawnCount = 0;
+    float minWeight = 0;
+    float maxWeight = 0;
+
+    // Draw buffers and label strings, so drawing allocates nothing
+    float[] lineSegments = new float[0];
+    int lineSegmentCount = 0;
+    float[] trendSegments = new float[0];
+    int trendSegmentCount = 0;
+    float[] shortAverageSegments = new float[0];
+    int shortAverageSegmentCount = 0;
+    float[] longAverageSegments = new float[0];
+    int longAverageSegmentCount = 0;
+    // Straight line from the first entry to the goal weight on the projected goal day
+    final float[] trajectory = new float[4];
+    boolean hasTrajectory = false;
+    float[] markerPoints = new float[0];
+    String[] valueLabels = new String[0];
+    int markerCount = 0;
+    final float[] gridLines = new float[(Y_LABEL_COUNT + 1) * 4];
+    final String[] yLabels = new String[Y_LABEL_COUNT + 1];
+    private float labeledMinWeight = Float.NaN;
+    private float labeledMaxWeight = Float.NaN;
+    final float[] dateLabelX = new float[X_LABEL_COUNT + 2];
+    final String[] dateLabels = new String[X_LABEL_COUNT + 2];
+    int dateLabelCount = 0;
+    double goalWeight = 0;
+    String goalLabel = "";
+    float goalY = 0;
+
+    // Moving averages sampled at the bucketed series, or null when the raw entries are drawn
+    @Nullable
+    ChartOverlays overlays;
+
+    /**
+     * Lays out the chart for a window. Safe to call off the main thread as long as nothing
+     * else touches this instance meanwhile.
+     *
+     * @param data The raw chart data
+     * @param series A bucketed series covering the window, or null to draw the raw entries
+     * @param seriesOverlays Cached averages for the series, or null to sample them here
+     * @param seriesResolution The resolution of the bucketed series
+     * @param fromDay The first day of the window
+     * @param toDay The last day of the window
+     * @param zoomed false to show the whole history regardless of the window
+     * @param goalWeight The goal weight, or 0 if none is set
+     * @param goalDay The day the goal weight is projected to be reached, or DateCodec.INVALID
+     * @param width The view width
+     * @param height The view height
+     */
+    void compute(Data data, @Nullable WeightSeries series, @Nullable ChartOverlays seriesOverlays,
+                 WeightSeries.Resolution seriesResolution, float fromDay, float toDay, boolean zoomed,
+                 double goalWeight, int goalDay, int width, int height) {
+        this.data = data;
+        this.overlays = null;
+        if (series != null) {
+            this.overlays = seriesOverlays != null && seriesOverlays.matches(data, series)
+                    ? seriesOverlays : ChartOverlays.sample(data, series, seriesResolution);
+        }
+        if (goalWeight != this.goalWeight || goalLabel.isEmpty()) {
+            this.goalWeight = goalWeight;
+            this.goalLabel = "Goal: " + String.format(Locale.US, "%.1f", goalWeight);
+        }
+        this.viewFromDay = zoomed ? fromDay : data.firstDay;
+        this.viewToDay = zoomed ? toDay : data.lastDay;
+        displayCount = 0;
+        drawnCount = 0;
+        lineSegmentCount = 0;
+        trendSegmentCount = 0;
+        shortAverageSegmentCount = 0;
+        longAverageSegmentCount = 0;
+        hasTrajectory = false;
+        markerCount = 0;
+        dateLabelCount = 0;
+        if (data.count == 0 || width <= 0 || height <= 0) {
+            return;
+        }
+
+        int chartWidth = width - PADDING_LEFT - PADDING_RIGHT;
+        int chartHeight = height - PADDING_TOP - PADDING_BOTTOM;
+        float pixelsPerDay = chartWidth / (viewToDay - viewFromDay);
+
+        fillDisplayPoints(series, seriesResolution);
+
+        // Weight range of the whole history, or of the visible points once zoomed in
+        float low = data.minWeight;
+        float high = data.maxWeight;
+        if (zoomed) {
+            low = Float.MAX_VALUE;
+            high = -Float.MAX_VALUE;
+            if (displayResolution == WeightSeries.Resolution.RAW && displayCount > 0) {
+                // Raw display points are a run of the data, so the tree answers in O(log n)
+                int first = displayDays[0];
+                int last = displayDays[displayCount - 1];
+                low = data.rangeIndex.min(first, last);
+                high = data.rangeIndex.max(first, last);
+            } else {
+                // Bucketed points are at most a few per pixel
+                for (int i = 0; i < displayCount; i++) {
+                    if (displayWeights[i] < low) low = displayWeights[i];
+                    if (displayWeights[i] > high) high = displayWeights[i];
+                }
+            }
+        }
+        updateWeightRange(low, high);
+        float weightRange = maxWeight - minWeight;
+
+        // Calculate points for line
+        if (pointX.length < displayCount) {
+            pointX = new float[displayCount];
+            pointY = new float[displayCount];
+        }
+        for (int i = 0; i < displayCount; i++) {
+            float normalizedWeight = (displayWeights[i] - minWeight) / weightRange;
+            pointX[i] = PADDING_LEFT + (displayDays[i] - viewFromDay) * pixelsPerDay;
+            pointY[i] = height - PADDING_BOTTOM - (normalizedWeight * chartHeight);
+        }
+
+        // Each bucket keeps up to three points, its shape point and extremes, so a bucket per three
+        // pixels draws about one point per pixel; the raw arrays stay intact for zoomed-in views
+        int threshold = Math.max(chartWidth / 3, 3);
+        if (drawnIndices.length < SeriesDownsampler.capacity(threshold)) {
+            drawnIndices = new int[SeriesDownsampler.capacity(threshold)];
+        }
+        drawnCount = SeriesDownsampler.downsample(pointX, pointY, displayCount, threshold, drawnIndices);
+
+        layoutTrend(height, chartHeight, pixelsPerDay);
+        layoutOverlays(goalDay, height, chartHeight, pixelsPerDay);
+        layoutDrawCommands(width, height, chartWidth, chartHeight);
+    }
+
+    /**
+     * Finds the display point nearest a day by binary search over the sorted display days.
+     *
+     * @param day The day to search for, possibly fractional
+     * @return The index of the nearest display point; displayCount must be positive
+     */
+    int nearestDisplayIndex(float day) {
+        int after = lowerBound(displayDays, displayCount, (int) Math.ceil(day));
+        if (after == 0) {
+            return 0;
+        }
+        if (after == displayCount) {
+            return displayCount - 1;
+        }
+        return day - displayDays[after - 1] <= displayDays[after] - day ? after - 1 : after;
+    }
+
+    /**
+     * Finds the first index whose day is not before a given day.
+     *
+     * @param sortedDays Epoch days in ascending order
+     * @param count The number of valid days
+     * @param day The epoch day to search for
+     * @return The index of the first day no earlier than {@code day}, or count if none
+     */
+    static int lowerBound(int[] sortedDays, int count, int day) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedDays[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copies the points in the window, plus one neighbor on each side so the line
+     * runs to the chart edges, into the display arrays.
+     *
+     * @param series The bucketed series to read, or null to read the raw entries
+     * @param seriesResolution The resolution of the bucketed series
+     */
+    private void fillDisplayPoints(@Nullable WeightSeries series, WeightSeries.Resolution seriesResolution) {
+        int from;
+        int to;
+        if (series == null) {
+            from = visibleStart();
+            to = visibleEnd();
+        } else {
+            from = Math.max(0, series.lowerBound((int) Math.floor(viewFromDay)) - 1);
+            to = Math.min(series.size(), series.lowerBound((int) Math.floor(viewToDay) + 1) + 1);
+        }
+
+        displayResolution = series == null ? WeightSeries.Resolution.RAW : seriesResolution;
+        displayFrom = from;
+        int count = Math.max(0, to - from);
+        if (displayDays.length < count) {
+            displayDays = new int[count];
+            displayWeights = new float[count];
+        }
+        for (int i = 0; i < count; i++) {
+            displayDays[i] = series == null ? data.days[from + i] : series.getDay(from + i);
+            displayWeights[i] = series == null ? data.weights[from + i] : series.getWeight(from + i);
+        }
+        displayCount = count;
+    }
+
+    /**
+     * Finds the first raw point to draw: the one before the window, if any.
+     */
+    private int visibleStart() {
+        return Math.max(0, lowerBound(data.days, data.count, (int) Math.floor(viewFromDay)) - 1);
+    }
+
+    /**
+     * Finds the end of the raw points to draw: just past the one after the window, if any.
+     */
+    private int visibleEnd() {
+        return Math.min(data.count, lowerBound(data.days, data.count, (int) Math.floor(viewToDay) + 1) + 1);
+    }
+
+    /**
+     * Sets the drawn weight range from the data range, widened to include the goal and padded.
+     *
+     * @param low The smallest weight to show
+     * @param high The largest weight to show
+     */
+    private void updateWeightRange(float low, float high) {
+        if (low > high) {
+            // No points in the window; keep the whole history's range
+            low = data.minWeight;
+            high = data.maxWeight;
+        }
+        minWeight = low;
+        maxWeight = high;
+
+        // Include goal weight in range
+        if (goalWeight > 0) {
+            if (goalWeight < minWeight) minWeight = (float) goalWeight;
+            if (goalWeight > maxWeight) maxWeight = (float) goalWeight;
+        }
+
+        // Add padding to range; a flat range still needs some height
+        float range = Math.max(maxWeight - minWeight, 1f);
+        minWeight = Math.max(0, minWeight - range * 0.1f);
+        maxWeight = maxWeight + range * 0.1f;
+    }
+
+    /**
+     * Builds the trend line segments from the stored smoothed values of the raw entries.
+     * Pending entries have no trend yet and are skipped.
+     */
+    private void layoutTrend(int height, int chartHeight, float pixelsPerDay) {
+        int from = visibleStart();
+        int to = visibleEnd();
+        trendSegments = ensureCapacity(trendSegments, (to - from - 1) * 4);
+        trendSegmentCount = layoutLine(data.days, data.trends, from, from, to, trendSegments,
+                height, chartHeight, pixelsPerDay);
+    }
+
+    /**
+     * Builds the moving average segments for the display points and the goal trajectory.
+     * Everything is laid out whether or not it is shown, so toggling an overlay only redraws.
+     */
+    private void layoutOverlays(int goalDay, int height, int chartHeight, float pixelsPerDay) {
+        // Raw display points line up with the raw averages; bucketed ones with the sampled averages
+        float[] shortAverages = overlays != null ? overlays.shortAverages : data.shortAverages;
+        float[] longAverages = overlays != null ? overlays.longAverages : data.longAverages;
+        shortAverageSegments = ensureCapacity(shortAverageSegments, (displayCount - 1) * 4);
+        longAverageSegments = ensureCapacity(longAverageSegments, (displayCount - 1) * 4);
+        shortAverageSegmentCount = layoutLine(displayDays, shortAverages, displayFrom, 0, displayCount,
+                shortAverageSegments, height, chartHeight, pixelsPerDay);
+        longAverageSegmentCount = layoutLine(displayDays, longAverages, displayFrom, 0, displayCount,
+                longAverageSegments, height, chartHeight, pixelsPerDay);
+
+        // The line runs past the window when the goal day is off screen and is clipped when drawn
+        hasTrajectory = goalWeight > 0 && goalDay != DateCodec.INVALID && goalDay > data.days[0];
+        if (hasTrajectory) {
+            float weightRange = maxWeight - minWeight;
+            trajectory[0] = PADDING_LEFT + (data.days[0] - viewFromDay) * pixelsPerDay;
+            trajectory[1] = height - PADDING_BOTTOM - ((data.weights[0] - minWeight) / weightRange) * chartHeight;
+            trajectory[2] = PADDING_LEFT + (goalDay - viewFromDay) * pixelsPerDay;
+            trajectory[3] = height - PADDING_BOTTOM - (float) ((goalWeight - minWeight) / weightRange) * chartHeight;
+        }
+    }
+
+    /**
+     * Writes the segments of a line through a run of points, skipping points with no value
+     * and points closer than a pixel to the last one drawn.
+     *
+     * @param days The epoch days of the points
+     * @param values The values to plot
+     * @param valueOffset The index in values of the point at index from in days
+     * @param from The index of the first point
+     * @param to The index after the last point
+     * @param segments Receives x0, y0, x1, y1 per segment; holds at least to - from - 1 segments
+     * @return The number of segments written
+     */
+    private int layoutLine(int[] days, float[] values, int valueOffset, int from, int to, float[] segments,
+                           int height, int chartHeight, float pixelsPerDay) {
+        float weightRange = maxWeight - minWeight;
+        int segmentCount = 0;
+        boolean started = false;
+        float lastX = 0;
+        float lastY = 0;
+        for (int i = from; i < to; i++) {
+            float value = values[valueOffset + i - from];
+            if (Float.isNaN(value)) {
+                continue;
+            }
+            float x = PADDING_LEFT + (days[i] - viewFromDay) * pixelsPerDay;
+            // Points closer than a pixel to the last one add nothing to the line
+            if (started && x - lastX < 1f && i != to - 1) {
+                continue;
+            }
+            float y = height - PADDING_BOTTOM - ((value - minWeight) / weightRange) * chartHeight;
+            if (started) {
+                int offset = segmentCount * 4;
+                segments[offset] = lastX;
+                segments[offset + 1] = lastY;
+                segments[offset + 2] = x;
+                segments[offset + 3] = y;
+                segmentCount++;
+            }
+            started = true;
+            lastX = x;
+            lastY = y;
+        }
+        return segmentCount;
+    }
+
+    /**
+     * Grows a reusable buffer when it is too small.
+     *
+     * @param buffer The current buffer
+     * @param size The number of values needed
+     * @return The buffer, or a larger replacement
+     */
+    private static float[] ensureCapacity(float[] buffer, int size) {
+        return buffer.length < size ? new float[size] : buffer;
+    }
+
+    /**
+     * Fills the buffers the static layer is drawn from: line segments, marker points,
+     * grid lines and every label string.
+     */
+    private void layoutDrawCommands(int width, int height, int chartWidth, int chartHeight) {
+        // Grid lines and Y labels, reformatted only when the weight range moves
+        float weightRange = maxWeight - minWeight;
+        boolean rangeChanged = minWeight != labeledMinWeight || maxWeight != labeledMaxWeight;
+        for (int i = 0; i <= Y_LABEL_COUNT; i++) {
+            float y = height - PADDING_BOTTOM - ((float) (chartHeight * i) / Y_LABEL_COUNT);
+            gridLines[4 * i] = PADDING_LEFT;
+            gridLines[4 * i + 1] = y;
+            gridLines[4 * i + 2] = width - PADDING_RIGHT;
+            gridLines[4 * i + 3] = y;
+            if (rangeChanged || yLabels[i] == null) {
+                yLabels[i] = String.format(Locale.US, "%.1f", minWeight + (weightRange * i / Y_LABEL_COUNT));
+            }
+        }
+        labeledMinWeight = minWeight;
+        labeledMaxWeight = maxWeight;
+        goalY = height - PADDING_BOTTOM - (float) ((goalWeight - minWeight) / weightRange) * chartHeight;
+
+        // One segment per pair of consecutive drawn points
+        lineSegmentCount = Math.max(0, drawnCount - 1);
+        if (lineSegments.length < lineSegmentCount * 4) {
+            lineSegments = new float[lineSegmentCount * 4];
+        }
+        for (int k = 0; k < lineSegmentCount; k++) {
+            int from = drawnIndices[k];
+            int to = drawnIndices[k + 1];
+            lineSegments[4 * k] = pointX[from];
+            lineSegments[4 * k + 1] = pointY[from];
+            lineSegments[4 * k + 2] = pointX[to];
+            lineSegments[4 * k + 3] = pointY[to];
+        }
+
+        // Dense charts are drawn as a line only
+        boolean drawMarkers = drawnCount <= 1 || drawnCount <= chartWidth / MIN_MARKER_SPACING;
+        markerCount = drawMarkers ? drawnCount : 0;
+        if (markerPoints.length < markerCount * 2) {
+            markerPoints = new float[markerCount * 2];
+            valueLabels = new String[markerCount];
+        }
+        for (int k = 0; k < markerCount; k++) {
+            int i = drawnIndices[k];
+            markerPoints[2 * k] = pointX[i];
+            markerPoints[2 * k + 1] = pointY[i];
+            valueLabels[k] = String.format(Locale.US, "%.1f", displayWeights[i]);
+        }
+
+        // Date labels at evenly spaced days, so gaps in logging show as gaps on the axis
+        float span = viewToDay - viewFromDay;
+        int step = Math.max(1, (int) Math.ceil(span / X_LABEL_COUNT));
+        int firstTick = -Math.floorDiv(-(int) Math.ceil(viewFromDay), step) * step;
+        for (int day = firstTick; day <= viewToDay && dateLabelCount < dateLabels.length; day += step) {
+            dateLabelX[dateLabelCount] = PADDING_LEFT + (day - viewFromDay) * chartWidth / span;
+            dateLabels[dateLabelCount] = DateCodec.formatMonthDay(day);
+            dateLabelCount++;
+        }
+    }
+}
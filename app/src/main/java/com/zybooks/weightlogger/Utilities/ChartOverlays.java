@@ -0,0 +1,67 @@
+package com.zybooks.weightlogger.Utilities;
+
+import com.zybooks.weightlogger.Data.WeightSeries;
+
+/**
+ * Moving averages of the weight chart, sampled at the points of one bucketed series.
+ * The averages are computed once per data change over the raw entries with
+ * {@link RollingWindows#movingAverage}, and each daily or weekly series takes the value at the last raw entry inside each bucket.
+ * The chart keeps one instance per resolution, so layouts of the same series reuse it.
+ */
+final class ChartOverlays {
+    static final int SHORT_WINDOW_DAYS = 7;
+    static final int LONG_WINDOW_DAYS = 30;
+
+    // What the averages were sampled from, used to tell whether a cached instance still applies
+    final ChartGeometry.Data data;
+    final WeightSeries series;
+    // NaN for buckets with no raw entry on or before their end
+    final float[] shortAverages;
+    final float[] longAverages;
+
+    private ChartOverlays(ChartGeometry.Data data, WeightSeries series, float[] shortAverages, float[] longAverages) {
+        this.data = data;
+        this.series = series;
+        this.shortAverages = shortAverages;
+        this.longAverages = longAverages;
+    }
+
+    /**
+     * Checks whether these averages were sampled from a series of the given data.
+     *
+     * @param data The current chart data
+     * @param series The series about to be laid out
+     * @return true if the cached averages can be used as they are
+     */
+    boolean matches(ChartGeometry.Data data, WeightSeries series) {
+        return this.data == data && this.series == series;
+    }
+
+    /**
+     * Samples the raw moving averages at each point of a bucketed series.
+     * Both arrays are sorted by day, so one binary search and a single forward walk suffice.
+     *
+     * @param data The raw chart data holding the averages
+     * @param series The bucketed series, oldest first
+     * @param resolution The resolution of the series
+     * @return The averages aligned with the series' points
+     */
+    static ChartOverlays sample(ChartGeometry.Data data, WeightSeries series, WeightSeries.Resolution resolution) {
+        int size = series.size();
+        float[] shortAverages = new float[size];
+        float[] longAverages = new float[size];
+        int bucketDays = resolution == WeightSeries.Resolution.WEEKLY ? 7 : 1;
+
+        // rawEnd is the number of raw entries dated before the current bucket's end
+        int rawEnd = size > 0 ? ChartGeometry.lowerBound(data.days, data.count, series.getDay(0) + bucketDays) : 0;
+        for (int i = 0; i < size; i++) {
+            int bucketEnd = series.getDay(i) + bucketDays;
+            while (rawEnd < data.count && data.days[rawEnd] < bucketEnd) {
+                rawEnd++;
+            }
+            shortAverages[i] = rawEnd > 0 ? data.shortAverages[rawEnd - 1] : Float.NaN;
+            longAverages[i] = rawEnd > 0 ? data.longAverages[rawEnd - 1] : Float.NaN;
+        }
+        return new ChartOverlays(data, series, shortAverages, longAverages);
+    }
+}
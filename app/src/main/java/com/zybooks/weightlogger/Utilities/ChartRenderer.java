@@ -0,0 +1,213 @@
+package com.zybooks.weightlogger.Utilities;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.DashPathEffect;
+import android.graphics.Paint;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+
+import com.zybooks.weightlogger.R;
+
+import java.util.Set;
+
+/**
+ * Draws a laid out {@link ChartGeometry} onto any canvas.
+ * WeightChartView records it into its layers, and ChartExporter draws it into an off-screen
+ * bitmap, so the exported chart looks exactly like the one on screen. Needs no view, so it
+ * can be built and used on a background thread.
+ */
+final class ChartRenderer {
+    static final String NO_DATA_MESSAGE = "No weight data available";
+    // Dash patterns, kept here so the SVG export can repeat them
+    static final float[] GOAL_DASH = {10, 10};
+    static final float[] TRAJECTORY_DASH = {4, 8};
+
+    final Paint linePaint = new Paint();
+    final Paint pointPaint = new Paint();
+    final Paint textPaint = new Paint();
+    final Paint gridPaint = new Paint();
+    final Paint goalPaint = new Paint();
+    final Paint axisLabelPaint = new Paint();
+    final Paint trendPaint = new Paint();
+    final Paint goalLabelPaint = new Paint();
+    final Paint shortAveragePaint = new Paint();
+    final Paint longAveragePaint = new Paint();
+    final Paint trajectoryPaint = new Paint();
+
+    /**
+     * Creates the paints from the app's colors.
+     *
+     * @param context Any context; only used to resolve colors
+     */
+    ChartRenderer(Context context) {
+        // Line paint
+        linePaint.setColor(ContextCompat.getColor(context, R.color.teal_700));
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeWidth(4f);
+        // Round caps join the separately drawn segments without gaps
+        linePaint.setStrokeCap(Paint.Cap.ROUND);
+        linePaint.setAntiAlias(true);
+
+        // Point paint
+        pointPaint.setColor(ContextCompat.getColor(context, R.color.teal_700));
+        pointPaint.setStyle(Paint.Style.FILL);
+        // Round points 16px wide, drawn as one batch
+        pointPaint.setStrokeWidth(16f);
+        pointPaint.setStrokeCap(Paint.Cap.ROUND);
+        pointPaint.setAntiAlias(true);
+
+        // Text paint
+        textPaint.setColor(ContextCompat.getColor(context, R.color.text_primary_light));
+        textPaint.setTextSize(28f);
+        textPaint.setAntiAlias(true);
+
+        // Grid paint
+        gridPaint.setColor(Color.LTGRAY);
+        gridPaint.setStyle(Paint.Style.STROKE);
+        gridPaint.setStrokeWidth(1f);
+        gridPaint.setAlpha(100);
+
+        // Goal line paint
+        goalPaint.setColor(ContextCompat.getColor(context, R.color.amber_700));
+        goalPaint.setStyle(Paint.Style.STROKE);
+        goalPaint.setStrokeWidth(3f);
+        goalPaint.setPathEffect(new DashPathEffect(GOAL_DASH, 0));
+
+        // Goal label paint
+        goalLabelPaint.setColor(ContextCompat.getColor(context, R.color.amber_700));
+        goalLabelPaint.setTextSize(28f);
+        goalLabelPaint.setAntiAlias(true);
+
+        // Trend line paint
+        trendPaint.setColor(ContextCompat.getColor(context, R.color.teal_200));
+        trendPaint.setStyle(Paint.Style.STROKE);
+        trendPaint.setStrokeWidth(6f);
+        trendPaint.setStrokeCap(Paint.Cap.ROUND);
+        trendPaint.setAntiAlias(true);
+
+        // Overlay paints, thinner than the weight line so it stays on top visually
+        shortAveragePaint.setColor(ContextCompat.getColor(context, R.color.teal_500));
+        shortAveragePaint.setStyle(Paint.Style.STROKE);
+        shortAveragePaint.setStrokeWidth(3f);
+        shortAveragePaint.setStrokeCap(Paint.Cap.ROUND);
+        shortAveragePaint.setAlpha(180);
+        shortAveragePaint.setAntiAlias(true);
+        longAveragePaint.setColor(ContextCompat.getColor(context, R.color.grey_700));
+        longAveragePaint.setStyle(Paint.Style.STROKE);
+        longAveragePaint.setStrokeWidth(3f);
+        longAveragePaint.setStrokeCap(Paint.Cap.ROUND);
+        longAveragePaint.setAlpha(180);
+        longAveragePaint.setAntiAlias(true);
+        trajectoryPaint.setColor(ContextCompat.getColor(context, R.color.amber_500));
+        trajectoryPaint.setStyle(Paint.Style.STROKE);
+        trajectoryPaint.setStrokeWidth(3f);
+        trajectoryPaint.setPathEffect(new DashPathEffect(TRAJECTORY_DASH, 0));
+        trajectoryPaint.setAntiAlias(true);
+
+        // Axis label paint
+        axisLabelPaint.setColor(ContextCompat.getColor(context, R.color.text_secondary_light));
+        axisLabelPaint.setTextSize(24f);
+        axisLabelPaint.setAntiAlias(true);
+    }
+
+    /**
+     * Draws everything that only changes with a new layout.
+     *
+     * @param canvas The canvas to draw on
+     * @param geometry The layout to draw
+     * @param hasData false to draw the no data message
+     * @param width The width the layout was computed for
+     * @param height The height the layout was computed for
+     */
+    void drawStatic(@NonNull Canvas canvas, ChartGeometry geometry, boolean hasData, int width, int height) {
+        if (!hasData || (geometry.data != null && geometry.data.count == 0)) {
+            // Draw no data message
+            textPaint.setTextAlign(Paint.Align.CENTER);
+            canvas.drawText(NO_DATA_MESSAGE, width / 2f, height / 2f, textPaint);
+            return;
+        }
+        if (geometry.data == null) {
+            // The first layout is still running
+            return;
+        }
+
+        // Draw axes
+        canvas.drawLine(ChartGeometry.PADDING_LEFT, height - ChartGeometry.PADDING_BOTTOM, width - ChartGeometry.PADDING_RIGHT, height - ChartGeometry.PADDING_BOTTOM, gridPaint); // X-axis
+        canvas.drawLine(ChartGeometry.PADDING_LEFT, ChartGeometry.PADDING_TOP, ChartGeometry.PADDING_LEFT, height - ChartGeometry.PADDING_BOTTOM, gridPaint); // Y-axis
+
+        // Draw horizontal grid lines and Y-axis labels
+        canvas.drawLines(geometry.gridLines, gridPaint);
+        axisLabelPaint.setTextAlign(Paint.Align.RIGHT);
+        float labelOffset = axisLabelPaint.getTextSize() / 3;
+        for (int i = 0; i <= ChartGeometry.Y_LABEL_COUNT; i++) {
+            canvas.drawText(geometry.yLabels[i], ChartGeometry.PADDING_LEFT - 10, geometry.gridLines[4 * i + 1] + labelOffset, axisLabelPaint);
+        }
+
+        // Points just outside the window are only there to carry the lines to the edges
+        canvas.save();
+        canvas.clipRect(ChartGeometry.PADDING_LEFT, 0, width - ChartGeometry.PADDING_RIGHT, height);
+
+        // Draw the smoothed trend beneath the raw weights
+        canvas.drawLines(geometry.trendSegments, 0, geometry.trendSegmentCount * 4, trendPaint);
+
+        // Draw the weight line and markers as single batches
+        canvas.drawLines(geometry.lineSegments, 0, geometry.lineSegmentCount * 4, linePaint);
+        canvas.drawPoints(geometry.markerPoints, 0, geometry.markerCount * 2, pointPaint);
+
+        // Draw weight values
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        for (int k = 0; k < geometry.markerCount; k++) {
+            canvas.drawText(geometry.valueLabels[k], geometry.markerPoints[2 * k],
+                    geometry.markerPoints[2 * k + 1] - 15, textPaint);
+        }
+        canvas.restore();
+
+        // Draw X-axis labels (dates)
+        axisLabelPaint.setTextAlign(Paint.Align.CENTER);
+        for (int k = 0; k < geometry.dateLabelCount; k++) {
+            canvas.drawText(geometry.dateLabels[k], geometry.dateLabelX[k], height - ChartGeometry.PADDING_BOTTOM + 30, axisLabelPaint);
+        }
+
+        // Draw goal weight line if available
+        if (geometry.goalWeight > 0) {
+            canvas.drawLine(ChartGeometry.PADDING_LEFT, geometry.goalY, width - ChartGeometry.PADDING_RIGHT, geometry.goalY, goalPaint);
+
+            // Draw goal label
+            goalLabelPaint.setTextAlign(Paint.Align.LEFT);
+            canvas.drawText(geometry.goalLabel, ChartGeometry.PADDING_LEFT + 10, geometry.goalY - 10, goalLabelPaint);
+        }
+    }
+
+    /**
+     * Draws the chosen overlays from the layout's prepared segments.
+     *
+     * @param canvas The canvas to draw on
+     * @param geometry The layout to draw
+     * @param overlays The overlays to draw
+     * @param width The width the layout was computed for
+     * @param height The height the layout was computed for
+     */
+    void drawOverlays(@NonNull Canvas canvas, ChartGeometry geometry, Set<WeightChartView.Overlay> overlays,
+                      int width, int height) {
+        if (geometry.data == null || geometry.data.count == 0) {
+            return;
+        }
+
+        canvas.save();
+        canvas.clipRect(ChartGeometry.PADDING_LEFT, 0, width - ChartGeometry.PADDING_RIGHT, height);
+        if (overlays.contains(WeightChartView.Overlay.LONG_AVERAGE)) {
+            canvas.drawLines(geometry.longAverageSegments, 0, geometry.longAverageSegmentCount * 4, longAveragePaint);
+        }
+        if (overlays.contains(WeightChartView.Overlay.SHORT_AVERAGE)) {
+            canvas.drawLines(geometry.shortAverageSegments, 0, geometry.shortAverageSegmentCount * 4, shortAveragePaint);
+        }
+        if (overlays.contains(WeightChartView.Overlay.TRAJECTORY) && geometry.hasTrajectory) {
+            canvas.drawLine(geometry.trajectory[0], geometry.trajectory[1],
+                    geometry.trajectory[2], geometry.trajectory[3], trajectoryPaint);
+        }
+        canvas.restore();
+    }
+}
@@ -0,0 +1,221 @@
+package com.zybooks.weightlogger.Utilities;
+
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Writes a laid out {@link ChartGeometry} as an SVG document.
+ * Mirrors {@link ChartRenderer} element for element and takes colors and stroke widths from
+ * its paints, so the vector export matches the PNG one. Elements are written to the stream
+ * as they are generated; consecutive segments are joined into one path per line.
+ */
+final class ChartSvgWriter {
+    private static final String CLIP_ID = "plot";
+
+    private ChartSvgWriter() {
+        // Static helpers only
+    }
+
+    /**
+     * Writes the chart.
+     *
+     * @param out The stream to write to; not closed
+     * @param geometry The layout to write
+     * @param renderer The renderer whose paints give the styling
+     * @param overlays The overlays to include
+     * @param width The width the layout was computed for
+     * @param height The height the layout was computed for
+     * @param scale The factor from layout units to the document's pixel size
+     * @throws IOException If writing fails
+     */
+    static void write(Writer out, ChartGeometry geometry, ChartRenderer renderer, Set<WeightChartView.Overlay> overlays,
+                      int width, int height, float scale) throws IOException {
+        out.write(String.format(Locale.US,
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %d %d\">\n",
+                Math.round(width * scale), Math.round(height * scale), width, height));
+        out.write(String.format(Locale.US, "<rect width=\"%d\" height=\"%d\" fill=\"#FFFFFF\"/>\n", width, height));
+
+        if (geometry.data == null || geometry.data.count == 0) {
+            writeText(out, ChartRenderer.NO_DATA_MESSAGE, width / 2f, height / 2f, "middle", renderer.textPaint);
+            out.write("</svg>\n");
+            return;
+        }
+
+        int right = width - ChartGeometry.PADDING_RIGHT;
+        int bottom = height - ChartGeometry.PADDING_BOTTOM;
+        out.write(String.format(Locale.US,
+                "<defs><clipPath id=\"%s\"><rect x=\"%d\" y=\"0\" width=\"%d\" height=\"%d\"/></clipPath></defs>\n",
+                CLIP_ID, ChartGeometry.PADDING_LEFT, right - ChartGeometry.PADDING_LEFT, height));
+
+        // Axes, grid lines and Y-axis labels
+        writeLine(out, ChartGeometry.PADDING_LEFT, bottom, right, bottom, renderer.gridPaint, null);
+        writeLine(out, ChartGeometry.PADDING_LEFT, ChartGeometry.PADDING_TOP, ChartGeometry.PADDING_LEFT, bottom,
+                renderer.gridPaint, null);
+        writePath(out, geometry.gridLines, ChartGeometry.Y_LABEL_COUNT + 1, renderer.gridPaint);
+        float labelOffset = renderer.axisLabelPaint.getTextSize() / 3;
+        for (int i = 0; i <= ChartGeometry.Y_LABEL_COUNT; i++) {
+            writeText(out, geometry.yLabels[i], ChartGeometry.PADDING_LEFT - 10,
+                    geometry.gridLines[4 * i + 1] + labelOffset, "end", renderer.axisLabelPaint);
+        }
+
+        // Lines, markers and values, clipped to the plot like on screen
+        out.write("<g clip-path=\"url(#" + CLIP_ID + ")\">\n");
+        writePath(out, geometry.trendSegments, geometry.trendSegmentCount, renderer.trendPaint);
+        writePath(out, geometry.lineSegments, geometry.lineSegmentCount, renderer.linePaint);
+        String markerFill = color(renderer.pointPaint);
+        float markerRadius = renderer.pointPaint.getStrokeWidth() / 2;
+        for (int k = 0; k < geometry.markerCount; k++) {
+            out.write(String.format(Locale.US, "<circle cx=\"%.1f\" cy=\"%.1f\" r=\"%.1f\" fill=\"%s\"/>\n",
+                    geometry.markerPoints[2 * k], geometry.markerPoints[2 * k + 1], markerRadius, markerFill));
+        }
+        for (int k = 0; k < geometry.markerCount; k++) {
+            writeText(out, geometry.valueLabels[k], geometry.markerPoints[2 * k],
+                    geometry.markerPoints[2 * k + 1] - 15, "middle", renderer.textPaint);
+        }
+        out.write("</g>\n");
+
+        // X-axis labels (dates)
+        for (int k = 0; k < geometry.dateLabelCount; k++) {
+            writeText(out, geometry.dateLabels[k], geometry.dateLabelX[k], bottom + 30, "middle",
+                    renderer.axisLabelPaint);
+        }
+
+        // Goal weight line and label
+        if (geometry.goalWeight > 0) {
+            writeLine(out, ChartGeometry.PADDING_LEFT, geometry.goalY, right, geometry.goalY,
+                    renderer.goalPaint, ChartRenderer.GOAL_DASH);
+            writeText(out, geometry.goalLabel, ChartGeometry.PADDING_LEFT + 10, geometry.goalY - 10, "start",
+                    renderer.goalLabelPaint);
+        }
+
+        // Overlays last, in their own clipped group, as ChartRenderer draws them after the static layer
+        if (!overlays.isEmpty()) {
+            out.write("<g clip-path=\"url(#" + CLIP_ID + ")\">\n");
+            if (overlays.contains(WeightChartView.Overlay.LONG_AVERAGE)) {
+                writePath(out, geometry.longAverageSegments, geometry.longAverageSegmentCount, renderer.longAveragePaint);
+            }
+            if (overlays.contains(WeightChartView.Overlay.SHORT_AVERAGE)) {
+                writePath(out, geometry.shortAverageSegments, geometry.shortAverageSegmentCount, renderer.shortAveragePaint);
+            }
+            if (overlays.contains(WeightChartView.Overlay.TRAJECTORY) && geometry.hasTrajectory) {
+                writeLine(out, geometry.trajectory[0], geometry.trajectory[1], geometry.trajectory[2],
+                        geometry.trajectory[3], renderer.trajectoryPaint, ChartRenderer.TRAJECTORY_DASH);
+            }
+            out.write("</g>\n");
+        }
+        out.write("</svg>\n");
+    }
+
+    /**
+     * Writes line segments as a single path, continuing the path wherever a segment starts
+     * at the previous one's end.
+     *
+     * @param out The stream to write to
+     * @param segments x0, y0, x1, y1 per segment
+     * @param count The number of segments
+     * @param paint The paint giving the stroke
+     * @throws IOException If writing fails
+     */
+    private static void writePath(Writer out, float[] segments, int count, Paint paint) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        out.write("<path fill=\"none\" d=\"");
+        for (int k = 0; k < count; k++) {
+            int offset = 4 * k;
+            if (k == 0 || segments[offset] != segments[offset - 2] || segments[offset + 1] != segments[offset - 1]) {
+                out.write(String.format(Locale.US, "M%.1f %.1f", segments[offset], segments[offset + 1]));
+            }
+            out.write(String.format(Locale.US, "L%.1f %.1f", segments[offset + 2], segments[offset + 3]));
+        }
+        out.write("\"");
+        writeStroke(out, paint, null);
+        out.write("/>\n");
+    }
+
+    /**
+     * Writes a single line.
+     *
+     * @param out The stream to write to
+     * @param x0 The X coordinate of the start
+     * @param y0 The Y coordinate of the start
+     * @param x1 The X coordinate of the end
+     * @param y1 The Y coordinate of the end
+     * @param paint The paint giving the stroke
+     * @param dash The dash pattern, or null for a solid line
+     * @throws IOException If writing fails
+     */
+    private static void writeLine(Writer out, float x0, float y0, float x1, float y1, Paint paint, float[] dash)
+            throws IOException {
+        out.write(String.format(Locale.US, "<line x1=\"%.1f\" y1=\"%.1f\" x2=\"%.1f\" y2=\"%.1f\"", x0, y0, x1, y1));
+        writeStroke(out, paint, dash);
+        out.write("/>\n");
+    }
+
+    /**
+     * Writes the stroke attributes of a paint.
+     *
+     * @param out The stream to write to
+     * @param paint The paint giving the stroke
+     * @param dash The dash pattern, or null for a solid line
+     * @throws IOException If writing fails
+     */
+    private static void writeStroke(Writer out, Paint paint, float[] dash) throws IOException {
+        out.write(String.format(Locale.US, " stroke=\"%s\" stroke-width=\"%.1f\"", color(paint), paint.getStrokeWidth()));
+        if (paint.getAlpha() < 255) {
+            out.write(String.format(Locale.US, " stroke-opacity=\"%.2f\"", paint.getAlpha() / 255f));
+        }
+        if (paint.getStrokeCap() == Paint.Cap.ROUND) {
+            out.write(" stroke-linecap=\"round\" stroke-linejoin=\"round\"");
+        }
+        if (dash != null) {
+            out.write(String.format(Locale.US, " stroke-dasharray=\"%.0f %.0f\"", dash[0], dash[1]));
+        }
+    }
+
+    /**
+     * Writes a text label.
+     *
+     * @param out The stream to write to
+     * @param text The label
+     * @param x The X coordinate of the anchor
+     * @param y The Y coordinate of the baseline
+     * @param anchor The SVG text-anchor matching the paint's alignment on screen
+     * @param paint The paint giving the color and size
+     * @throws IOException If writing fails
+     */
+    private static void writeText(Writer out, String text, float x, float y, String anchor, Paint paint)
+            throws IOException {
+        out.write(String.format(Locale.US,
+                "<text x=\"%.1f\" y=\"%.1f\" text-anchor=\"%s\" font-family=\"sans-serif\" font-size=\"%.0f\" fill=\"%s\">",
+                x, y, anchor, paint.getTextSize(), color(paint)));
+        out.write(escape(text));
+        out.write("</text>\n");
+    }
+
+    /**
+     * Formats a paint's color, without alpha, as an SVG color.
+     *
+     * @param paint The paint
+     * @return The color as #RRGGBB
+     */
+    private static String color(Paint paint) {
+        int color = paint.getColor();
+        return String.format(Locale.US, "#%02X%02X%02X", Color.red(color), Color.green(color), Color.blue(color));
+    }
+
+    /**
+     * Escapes the characters that are special in SVG text.
+     *
+     * @param text The raw text
+     * @return The escaped text
+     */
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
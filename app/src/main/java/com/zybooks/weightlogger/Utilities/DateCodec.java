@@ -0,0 +1,272 @@
+package com.zybooks.weightlogger.Utilities;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Shared, thread-safe conversions between stored yyyy-MM-dd dates, epoch days and display text.
+ * Parsing is hand-written and allocation-free: it validates the digits and calendar fields
+ * and converts straight to an epoch day, so it can run inside comparators and draw loops.
+ * Locale-dependent display formatters are built once and reused until the locale changes.
+ */
+public final class DateCodec {
+    /**
+     * Returned by the parsers when a string is not a valid yyyy-MM-dd date.
+     */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    /**
+     * The stored date format.
+     */
+    public static final String ISO_PATTERN = "yyyy-MM-dd";
+
+    private static final String LONG_PATTERN = "MMM d, yyyy";
+    private static final int ISO_LENGTH = 10;
+
+    // Days from 0000-03-01 to 1970-01-01, and days in a 400-year era
+    private static final int EPOCH_SHIFT = 719468;
+    private static final int DAYS_PER_ERA = 146097;
+
+    private static volatile LocalizedFormatter longFormatter;
+
+    private DateCodec() {
+        // Static helpers only
+    }
+
+    /**
+     * Parses a yyyy-MM-dd date to an epoch day.
+     * Rejects anything but exactly four year digits, two month digits and two day digits
+     * naming a real calendar day.
+     *
+     * @param text The date text, or null
+     * @return The epoch day, or INVALID if the text is not a valid date
+     */
+    public static int parseEpochDay(CharSequence text) {
+        if (text == null || text.length() != ISO_LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return INVALID;
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+        return epochDay(year, month, day);
+    }
+
+    /**
+     * Checks whether text is a valid yyyy-MM-dd date.
+     *
+     * @param text The date text, or null
+     * @return true if the text parses
+     */
+    public static boolean isValid(CharSequence text) {
+        return parseEpochDay(text) != INVALID;
+    }
+
+    /**
+     * Converts a calendar date to an epoch day.
+     *
+     * @param year The proleptic Gregorian year
+     * @param month The month, 1 to 12
+     * @param day The day of the month, 1 to 31
+     * @return The epoch day
+     */
+    public static int epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - EPOCH_SHIFT;
+    }
+
+    /**
+     * Gets the year of an epoch day.
+     *
+     * @param epochDay The epoch day
+     * @return The year
+     */
+    public static int year(int epochDay) {
+        int shifted = epochDay + EPOCH_SHIFT;
+        int era = Math.floorDiv(shifted, DAYS_PER_ERA);
+        int dayOfEra = shifted - era * DAYS_PER_ERA;
+        int yearOfEra = yearOfEra(dayOfEra);
+        int marchMonth = marchMonth(dayOfEra, yearOfEra);
+        return yearOfEra + era * 400 + (marchMonth >= 10 ? 1 : 0);
+    }
+
+    /**
+     * Gets the month of an epoch day.
+     *
+     * @param epochDay The epoch day
+     * @return The month, 1 to 12
+     */
+    public static int month(int epochDay) {
+        int dayOfEra = Math.floorMod(epochDay + EPOCH_SHIFT, DAYS_PER_ERA);
+        int marchMonth = marchMonth(dayOfEra, yearOfEra(dayOfEra));
+        return marchMonth < 10 ? marchMonth + 3 : marchMonth - 9;
+    }
+
+    /**
+     * Gets the day of the month of an epoch day.
+     *
+     * @param epochDay The epoch day
+     * @return The day of the month, 1 to 31
+     */
+    public static int dayOfMonth(int epochDay) {
+        int dayOfEra = Math.floorMod(epochDay + EPOCH_SHIFT, DAYS_PER_ERA);
+        int yearOfEra = yearOfEra(dayOfEra);
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int marchMonth = (5 * dayOfYear + 2) / 153;
+        return dayOfYear - (153 * marchMonth + 2) / 5 + 1;
+    }
+
+    /**
+     * Gets the first day of the month containing an epoch day.
+     *
+     * @param epochDay The epoch day
+     * @return The epoch day the month starts on
+     */
+    public static int monthStart(int epochDay) {
+        return epochDay - dayOfMonth(epochDay) + 1;
+    }
+
+    /**
+     * Gets the number of days in a month.
+     *
+     * @param year The year
+     * @param month The month, 1 to 12
+     * @return The length of the month in days
+     */
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Gets today's epoch day in the device time zone.
+     *
+     * @return The current epoch day
+     */
+    public static int today() {
+        return (int) LocalDate.now().toEpochDay();
+    }
+
+    /**
+     * Formats an epoch day as a stored yyyy-MM-dd date.
+     *
+     * @param epochDay The epoch day
+     * @return The date text
+     */
+    public static String formatIso(int epochDay) {
+        char[] chars = new char[ISO_LENGTH];
+        writeDigits(chars, 0, year(epochDay), 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, month(epochDay), 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, dayOfMonth(epochDay), 2);
+        return new String(chars);
+    }
+
+    /**
+     * Formats an epoch day as a short MM/dd axis label.
+     *
+     * @param epochDay The epoch day
+     * @return The label text
+     */
+    public static String formatMonthDay(int epochDay) {
+        char[] chars = new char[5];
+        writeDigits(chars, 0, month(epochDay), 2);
+        chars[2] = '/';
+        writeDigits(chars, 3, dayOfMonth(epochDay), 2);
+        return new String(chars);
+    }
+
+    /**
+     * Formats an epoch day as a long date such as "Mar 5, 2025" in the default locale.
+     *
+     * @param epochDay The epoch day
+     * @return The date text
+     */
+    public static String formatLong(int epochDay) {
+        Locale locale = Locale.getDefault();
+        LocalizedFormatter cached = longFormatter;
+        if (cached == null || !cached.locale.equals(locale)) {
+            cached = new LocalizedFormatter(locale, DateTimeFormatter.ofPattern(LONG_PATTERN, locale));
+            longFormatter = cached;
+        }
+        return cached.formatter.format(LocalDate.ofEpochDay(epochDay));
+    }
+
+    /**
+     * Reads a run of decimal digits.
+     *
+     * @param text The text to read
+     * @param from The index of the first digit
+     * @param to The index after the last digit
+     * @return The value, or -1 if any character is not a digit
+     */
+    private static int digits(CharSequence text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Writes a zero-padded number.
+     *
+     * @param chars The buffer to write into
+     * @param offset The index of the first digit
+     * @param value The non-negative value to write
+     * @param width The number of digits to write
+     */
+    private static void writeDigits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // Year within a 400-year era that starts on March 1
+    private static int yearOfEra(int dayOfEra) {
+        return (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    }
+
+    // Month counted from March as 0
+    private static int marchMonth(int dayOfEra, int yearOfEra) {
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        return (5 * dayOfYear + 2) / 153;
+    }
+
+    /**
+     * A display formatter together with the locale it was built for.
+     */
+    private static final class LocalizedFormatter {
+        final Locale locale;
+        final DateTimeFormatter formatter;
+
+        LocalizedFormatter(Locale locale, DateTimeFormatter formatter) {
+            this.locale = locale;
+            this.formatter = formatter;
+        }
+    }
+}
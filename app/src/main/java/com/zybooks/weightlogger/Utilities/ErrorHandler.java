@@ -50,9 +50,10 @@ public class ErrorHandler {
                 break;
         }
 
-        // Show user feedback if requested
+        // Show user feedback if requested (database work may report from a background thread)
         if (userMessage != null && context != null) {
-            Toast.makeText(context, userMessage, Toast.LENGTH_LONG).show();
+            AppExecutors.runOnMainThread(() ->
+                    Toast.makeText(context, userMessage, Toast.LENGTH_LONG).show());
         }
     }
 
@@ -0,0 +1,154 @@
+package com.zybooks.weightlogger.Utilities;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.zybooks.weightlogger.Data.UserRepository;
+import com.zybooks.weightlogger.Data.WeightRepository;
+import com.zybooks.weightlogger.Data.WeightStatistics;
+
+/**
+ * Decides when to send goal notifications, on the disk thread, from the cached goal weight
+ * and the user's latest weight.
+ * Each user's last milestone is kept in SharedPreferences. A milestone is only notified
+ * when the distance to the goal crosses into it from a lower one; once reached, the user has
+ * to move back past a hysteresis band before the same milestone can be notified again, so
+ * weights hovering around a threshold do not send a notification with every entry.
+ */
+public class GoalProgressEvaluator {
+    private static final String PREF_NAME = "GoalProgress";
+    private static final String KEY_MILESTONE_PREFIX = "milestone_";
+    private static final String KEY_GOAL_PREFIX = "goal_";
+
+    // Distance to the goal, in lbs, at which each milestone is entered
+    private static final double REACHED_DISTANCE = 0.5;
+    private static final double APPROACHING_DISTANCE = 5.0;
+
+    // Extra distance needed to leave a milestone once it has been entered
+    private static final double HYSTERESIS_BAND = 1.0;
+
+    /**
+     * The progress milestones, in order of closeness to the goal.
+     */
+    public enum Milestone {
+        NONE,
+        APPROACHING,
+        REACHED
+    }
+
+    private final SharedPreferences preferences;
+    private final UserRepository userRepository;
+    private final WeightRepository weightRepository;
+    private final NotificationHelper notificationHelper;
+
+    /**
+     * Creates a new GoalProgressEvaluator instance.
+     *
+     * @param context The context used to access SharedPreferences and the repositories
+     * @param notificationHelper The helper used to post goal notifications
+     */
+    public GoalProgressEvaluator(Context context, NotificationHelper notificationHelper) {
+        this.preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.userRepository = new UserRepository(context);
+        this.weightRepository = new WeightRepository(context);
+        this.notificationHelper = notificationHelper;
+    }
+
+    /**
+     * Queues an evaluation of a user's goal progress after their entries changed.
+     *
+     * @param userId The ID of the user
+     */
+    public void evaluateAsync(int userId) {
+        AppExecutors.diskIO().execute(() -> evaluate(userId));
+    }
+
+    /**
+     * Evaluates a user's goal progress and sends a notification if a milestone was crossed.
+     * Call from a background thread.
+     *
+     * @param userId The ID of the user
+     * @return The user's milestone after the evaluation
+     */
+    public Milestone evaluate(int userId) {
+        double goalWeight = userRepository.getGoalWeight(userId);
+        WeightStatistics statistics = weightRepository.getStatistics(userId);
+        if (goalWeight <= 0 || statistics.getCount() == 0) {
+            return Milestone.NONE;
+        }
+
+        // A new goal starts from no milestone so progress toward it is announced afresh
+        Milestone previous = loadMilestone(userId, goalWeight);
+        double latestWeight = statistics.getLastWeight();
+        Milestone current = nextMilestone(previous, Math.abs(latestWeight - goalWeight));
+
+        if (current.ordinal() > previous.ordinal()) {
+            if (current == Milestone.REACHED) {
+                notificationHelper.sendGoalAchievedNotification();
+            } else {
+                notificationHelper.sendGoalProgressNotification(latestWeight, goalWeight);
+            }
+        }
+        if (current != previous) {
+            saveMilestone(userId, goalWeight, current);
+        }
+        return current;
+    }
+
+    /**
+     * Applies the entry thresholds and hysteresis bands to the distance from the goal.
+     *
+     * @param previous The milestone before this entry
+     * @param distance The distance between the latest weight and the goal
+     * @return The milestone after this entry
+     */
+    static Milestone nextMilestone(Milestone previous, double distance) {
+        // Entering a milestone only needs its threshold
+        if (distance <= REACHED_DISTANCE) {
+            return Milestone.REACHED;
+        }
+        if (distance <= APPROACHING_DISTANCE && previous == Milestone.NONE) {
+            return Milestone.APPROACHING;
+        }
+
+        // Leaving one needs the band as well
+        if (previous == Milestone.REACHED && distance <= REACHED_DISTANCE + HYSTERESIS_BAND) {
+            return Milestone.REACHED;
+        }
+        if (previous != Milestone.NONE && distance <= APPROACHING_DISTANCE + HYSTERESIS_BAND) {
+            return Milestone.APPROACHING;
+        }
+        return Milestone.NONE;
+    }
+
+    /**
+     * Loads a user's last milestone, discarding it if it was recorded against another goal.
+     *
+     * @param userId The ID of the user
+     * @param goalWeight The user's current goal weight
+     * @return The stored milestone, or NONE
+     */
+    private Milestone loadMilestone(int userId, double goalWeight) {
+        float storedGoal = preferences.getFloat(KEY_GOAL_PREFIX + userId, 0f);
+        if (storedGoal != (float) goalWeight) {
+            return Milestone.NONE;
+        }
+        int ordinal = preferences.getInt(KEY_MILESTONE_PREFIX + userId, 0);
+        Milestone[] milestones = Milestone.values();
+        return ordinal >= 0 && ordinal < milestones.length ? milestones[ordinal] : Milestone.NONE;
+    }
+
+    /**
+     * Saves a user's milestone along with the goal it was measured against.
+     *
+     * @param userId The ID of the user
+     * @param goalWeight The user's current goal weight
+     * @param milestone The milestone to store
+     */
+    private void saveMilestone(int userId, double goalWeight, Milestone milestone) {
+        preferences.edit()
+                .putFloat(KEY_GOAL_PREFIX + userId, (float) goalWeight)
+                .putInt(KEY_MILESTONE_PREFIX + userId, milestone.ordinal())
+                .apply();
+    }
+}
@@ -0,0 +1,172 @@
+package com.zybooks.weightlogger.Utilities;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.zybooks.weightlogger.Data.WeightHistogram;
+import com.zybooks.weightlogger.R;
+
+import java.util.Locale;
+
+/**
+ * Bar chart of a WeightHistogram, trimmed to the bins that hold values.
+ * Bar rectangles and labels are built when the data or size changes, so drawing a frame
+ * only walks the precomputed bars.
+ */
+public class HistogramView extends View {
+    private WeightHistogram histogram;
+    private int firstBin = -1;
+    private int lastBin = -1;
+    private String unitLabel = "";
+
+    private final Paint barPaint = new Paint();
+    private final Paint textPaint = new Paint();
+    private final Paint gridPaint = new Paint();
+    private final Paint axisLabelPaint = new Paint();
+
+    private RectF[] barsCache = new RectF[0];
+    private String minLabel = "";
+    private String maxLabel = "";
+    private String countLabel = "";
+    private final int paddingLeft = 60;
+    private final int paddingRight = 20;
+    private final int paddingTop = 20;
+    private final int paddingBottom = 50;
+
+    public HistogramView(Context context) {
+        super(context);
+        init();
+    }
+
+    public HistogramView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public HistogramView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+        // Bar paint
+        barPaint.setColor(ContextCompat.getColor(getContext(), R.color.teal_500));
+        barPaint.setStyle(Paint.Style.FILL);
+        barPaint.setAntiAlias(true);
+
+        // Text paint
+        textPaint.setColor(ContextCompat.getColor(getContext(), R.color.text_primary_light));
+        textPaint.setTextSize(28f);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        textPaint.setAntiAlias(true);
+
+        // Grid paint
+        gridPaint.setColor(Color.LTGRAY);
+        gridPaint.setStyle(Paint.Style.STROKE);
+        gridPaint.setStrokeWidth(1f);
+        gridPaint.setAlpha(100);
+
+        // Axis label paint
+        axisLabelPaint.setColor(ContextCompat.getColor(getContext(), R.color.text_secondary_light));
+        axisLabelPaint.setTextSize(24f);
+        axisLabelPaint.setAntiAlias(true);
+    }
+
+    /**
+     * Sets the histogram to draw.
+     *
+     * @param histogram The histogram, or null to show the empty message
+     * @param unitLabel The unit appended to the axis labels, such as "lbs"
+     */
+    public void setHistogram(@Nullable WeightHistogram histogram, String unitLabel) {
+        this.histogram = histogram;
+        this.unitLabel = unitLabel;
+
+        if (histogram == null || histogram.getTotal() == 0) {
+            firstBin = -1;
+            lastBin = -1;
+        } else {
+            firstBin = histogram.getFirstNonEmptyBin();
+            lastBin = histogram.getLastNonEmptyBin();
+            minLabel = String.format(Locale.US, "%.1f %s", histogram.getBinStart(firstBin), unitLabel);
+            maxLabel = String.format(Locale.US, "%.1f %s", histogram.getBinStart(lastBin + 1), unitLabel);
+            countLabel = String.valueOf(histogram.getMaxCount());
+        }
+
+        // Precalculate the bars before drawing
+        calculateBars();
+        invalidate();
+    }
+
+    private void calculateBars() {
+        int width = getWidth();
+        int height = getHeight();
+
+        // Handle the case when there is no data or the view size isn't set yet
+        if (firstBin < 0 || width <= 0 || height <= 0) {
+            barsCache = new RectF[0];
+            return;
+        }
+
+        int binCount = lastBin - firstBin + 1;
+        float chartWidth = width - paddingLeft - paddingRight;
+        float chartHeight = height - paddingTop - paddingBottom;
+        float barWidth = chartWidth / binCount;
+        // Leave a small gap between bars unless they are too thin to show one
+        float gap = barWidth > 6 ? 2 : 0;
+        int maxCount = histogram.getMaxCount();
+
+        barsCache = new RectF[binCount];
+        for (int i = 0; i < binCount; i++) {
+            float left = paddingLeft + i * barWidth;
+            float barHeight = chartHeight * histogram.getCount(firstBin + i) / maxCount;
+            barsCache[i] = new RectF(left + gap, height - paddingBottom - barHeight,
+                    left + barWidth - gap, height - paddingBottom);
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int old_width, int old_height) {
+        super.onSizeChanged(w, h, old_width, old_height);
+        calculateBars();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (firstBin < 0) {
+            // Draw no data message
+            canvas.drawText("Not enough data", getWidth() / 2f, getHeight() / 2f, textPaint);
+            return;
+        }
+
+        int width = getWidth();
+        int height = getHeight();
+
+        // Draw axes
+        canvas.drawLine(paddingLeft, height - paddingBottom, width - paddingRight, height - paddingBottom, gridPaint); // X-axis
+        canvas.drawLine(paddingLeft, paddingTop, paddingLeft, height - paddingBottom, gridPaint); // Y-axis
+
+        for (RectF bar : barsCache) {
+            canvas.drawRect(bar, barPaint);
+        }
+
+        // Label the tallest count and the range the bars cover
+        axisLabelPaint.setTextAlign(Paint.Align.RIGHT);
+        canvas.drawText(countLabel, paddingLeft - 10, paddingTop + axisLabelPaint.getTextSize() / 2, axisLabelPaint);
+        axisLabelPaint.setTextAlign(Paint.Align.LEFT);
+        canvas.drawText(minLabel, paddingLeft, height - paddingBottom + 30, axisLabelPaint);
+        axisLabelPaint.setTextAlign(Paint.Align.RIGHT);
+        canvas.drawText(maxLabel, width - paddingRight, height - paddingBottom + 30, axisLabelPaint);
+    }
+}
@@ -1,9 +1,5 @@
 package com.zybooks.weightlogger.Utilities;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -23,7 +19,7 @@ public class InputValidator {
     private static final int MAX_PASSWORD_LENGTH = 24;
     private static final double MIN_WEIGHT_VALUE = 1.0;
     private static final double MAX_WEIGHT_VALUE = 1000.0;
-    private static final String DATE_FORMAT = "yyyy-MM-dd";
+    private static final String DATE_FORMAT = DateCodec.ISO_PATTERN;
 
     /**
      * Regex patterns
@@ -267,22 +263,18 @@ public class InputValidator {
 
         dateStr = dateStr.trim();
 
-        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT, Locale.getDefault());
-        dateFormat.setLenient(false); // This makes the date parser strict
-
-        try {
-            Date parsedDate = dateFormat.parse(dateStr);
-
-            // Check if the date is too far in the future (more than 1 day)
-            Date tomorrow = new Date(System.currentTimeMillis() + 86400000); // Current time + 1 day
-            if (parsedDate != null && parsedDate.after(tomorrow)) {
-                return new ValidationResult(false, "Date cannot be in the future");
-            }
-
-            return new ValidationResult(true, "");
-        } catch (ParseException e) {
+        // The codec parser is strict, so impossible dates such as 2023-02-30 are rejected
+        int day = DateCodec.parseEpochDay(dateStr);
+        if (day == DateCodec.INVALID) {
             return new ValidationResult(false, "Invalid date format. Please use " + DATE_FORMAT);
         }
+
+        // Check if the date is too far in the future (more than 1 day)
+        if (day > DateCodec.today() + 1) {
+            return new ValidationResult(false, "Date cannot be in the future");
+        }
+
+        return new ValidationResult(true, "");
     }
 
     /**
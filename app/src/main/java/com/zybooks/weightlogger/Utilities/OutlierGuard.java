@@ -0,0 +1,113 @@
+package com.zybooks.weightlogger.Utilities;
+
+import com.zybooks.weightlogger.Data.WeightDatabaseHelper;
+
+import java.util.List;
+
+/**
+ * Flags weights that are implausibly far from the user's recent entries, such as a
+ * mistyped 185 instead of 158, so the user can confirm before saving.
+ * A value is an outlier when its distance from the rolling median exceeds a multiple
+ * of the scaled median absolute deviation (a robust standard deviation estimate).
+ */
+public class OutlierGuard {
+    private static final int WINDOW_SIZE = 15;
+    private static final int MIN_ENTRIES = 5;
+    private static final double THRESHOLD = 3.5;
+    // Scales the MAD to match the standard deviation of normally distributed data
+    private static final double MAD_SCALE = 1.4826;
+    // Day-to-day fluctuation below this is never flagged, even for very steady histories
+    private static final double MIN_SPREAD = 1.0;
+
+    private final RollingMedian rollingMedian = new RollingMedian(WINDOW_SIZE);
+    private String newestDate;
+    private boolean stale = true;
+
+    /**
+     * Rebuilds the window from the most recent entries.
+     * Pending entries are skipped since they have not been saved yet.
+     *
+     * @param entries The user's entries, most recent first, or null if none are loaded
+     */
+    public void reset(List<WeightDatabaseHelper.WeightEntry> entries) {
+        rollingMedian.clear();
+        newestDate = null;
+        stale = false;
+        if (entries == null) {
+            return;
+        }
+
+        // Find the oldest entry in the window, then add forward so the newest stay in it
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i < entries.size() && count < WINDOW_SIZE; i++) {
+            if (!entries.get(i).isPending()) {
+                count++;
+                start = i;
+            }
+        }
+        for (int i = start; i >= 0; i--) {
+            WeightDatabaseHelper.WeightEntry entry = entries.get(i);
+            if (!entry.isPending()) {
+                rollingMedian.add(entry.getWeight());
+                newestDate = entry.getDate();
+            }
+        }
+    }
+
+    /**
+     * Applies a saved entry to the window.
+     * Entries newer than the window are added in O(log n); a back-dated entry marks the
+     * window stale so it is rebuilt before the next check.
+     *
+     * @param date The date of the entry
+     * @param weight The weight of the entry
+     */
+    public void onEntrySaved(String date, double weight) {
+        // ISO dates compare correctly as strings
+        if (!stale && (newestDate == null || date.compareTo(newestDate) >= 0)) {
+            rollingMedian.add(weight);
+            newestDate = date;
+        } else {
+            stale = true;
+        }
+    }
+
+    /**
+     * Marks the window as out of date after an edit or delete.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Checks whether the window must be rebuilt before use.
+     * @return true if an edit, delete or back-dated entry changed the recent history
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Gets the median of the recent entries.
+     * @return The rolling median, or NaN if there are no entries
+     */
+    public double getMedian() {
+        return rollingMedian.median();
+    }
+
+    /**
+     * Checks whether a weight is an outlier relative to the recent entries.
+     * Histories shorter than the minimum are never flagged.
+     *
+     * @param weight The weight to check
+     * @return true if the weight should be confirmed before saving
+     */
+    public boolean isOutlier(double weight) {
+        if (rollingMedian.size() < MIN_ENTRIES) {
+            return false;
+        }
+        double spread = Math.max(MAD_SCALE * rollingMedian.medianAbsoluteDeviation(), MIN_SPREAD);
+        return Math.abs(weight - rollingMedian.median()) > THRESHOLD * spread;
+    }
+}
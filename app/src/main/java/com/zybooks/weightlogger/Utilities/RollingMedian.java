@@ -0,0 +1,172 @@
+package com.zybooks.weightlogger.Utilities;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Streaming median over a sliding window of the most recent values.
+ * Uses two heaps: a max-heap holding the lower half and a min-heap holding the upper half.
+ * Values leaving the window are removed lazily when they reach the top of a heap,
+ * so adding a value costs O(log n) and reading the median is O(1).
+ */
+public class RollingMedian {
+    private final int capacity;
+    private final ArrayDeque<Double> window = new ArrayDeque<>();
+    private final PriorityQueue<Double> lower = new PriorityQueue<>(Collections.reverseOrder());
+    private final PriorityQueue<Double> upper = new PriorityQueue<>();
+    private final Map<Double, Integer> pendingRemovals = new HashMap<>();
+
+    // Sizes of each half excluding values waiting to be removed
+    private int lowerSize;
+    private int upperSize;
+
+    /**
+     * Creates a new RollingMedian instance.
+     *
+     * @param capacity The number of most recent values the window holds
+     */
+    public RollingMedian(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a value, evicting the oldest one if the window is full.
+     *
+     * @param value The value to add
+     */
+    public void add(double value) {
+        if (window.size() == capacity) {
+            evict(window.pollFirst());
+        }
+        window.addLast(value);
+
+        if (lower.isEmpty() || value <= lower.peek()) {
+            lower.add(value);
+            lowerSize++;
+        } else {
+            upper.add(value);
+            upperSize++;
+        }
+        rebalance();
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        window.clear();
+        lower.clear();
+        upper.clear();
+        pendingRemovals.clear();
+        lowerSize = 0;
+        upperSize = 0;
+    }
+
+    /**
+     * Gets the number of values in the window.
+     * @return The window size
+     */
+    public int size() {
+        return window.size();
+    }
+
+    /**
+     * Gets the median of the values in the window.
+     * @return The median, or NaN if the window is empty
+     */
+    public double median() {
+        if (window.isEmpty()) {
+            return Double.NaN;
+        }
+        if (lowerSize > upperSize) {
+            return lower.peek();
+        }
+        return (lower.peek() + upper.peek()) / 2;
+    }
+
+    /**
+     * Gets the median absolute deviation of the window from its median.
+     * The window is small, so the deviations are computed directly in O(n log n).
+     *
+     * @return The median absolute deviation, or NaN if the window is empty
+     */
+    public double medianAbsoluteDeviation() {
+        int count = window.size();
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        double median = median();
+        double[] deviations = new double[count];
+        int i = 0;
+        for (double value : window) {
+            deviations[i++] = Math.abs(value - median);
+        }
+        Arrays.sort(deviations);
+        int middle = count / 2;
+        return count % 2 == 1 ? deviations[middle] : (deviations[middle - 1] + deviations[middle]) / 2;
+    }
+
+    /**
+     * Removes a value that left the window, deferring the heap removal until it surfaces.
+     *
+     * @param value The value leaving the window
+     */
+    private void evict(double value) {
+        pendingRemovals.merge(value, 1, Integer::sum);
+        if (value <= lower.peek()) {
+            lowerSize--;
+            if (value == lower.peek()) {
+                prune(lower);
+            }
+        } else {
+            upperSize--;
+            if (!upper.isEmpty() && value == upper.peek()) {
+                prune(upper);
+            }
+        }
+        rebalance();
+    }
+
+    /**
+     * Keeps the lower half equal in size to the upper half or one larger.
+     */
+    private void rebalance() {
+        if (lowerSize > upperSize + 1) {
+            upper.add(lower.poll());
+            lowerSize--;
+            upperSize++;
+            prune(lower);
+        } else if (lowerSize < upperSize) {
+            lower.add(upper.poll());
+            lowerSize++;
+            upperSize--;
+            prune(upper);
+        }
+    }
+
+    /**
+     * Pops values waiting to be removed off the top of a heap.
+     *
+     * @param heap The heap to prune
+     */
+    private void prune(PriorityQueue<Double> heap) {
+        while (!heap.isEmpty()) {
+            Double top = heap.peek();
+            Integer pending = pendingRemovals.get(top);
+            if (pending == null) {
+                return;
+            }
+            if (pending == 1) {
+                pendingRemovals.remove(top);
+            } else {
+                pendingRemovals.put(top, pending - 1);
+            }
+            heap.poll();
+        }
+    }
+}
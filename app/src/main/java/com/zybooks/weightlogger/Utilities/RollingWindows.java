@@ -0,0 +1,122 @@
+package com.zybooks.weightlogger.Utilities;
+
+import com.zybooks.weightlogger.Data.WeightSeries;
+
+/**
+ * Rolling-window averages over a weight series.
+ * Prefix sums over the weights and a per-day index into the series are built once in
+ * O(n + span), after which the mean of any day range is answered in O(1).
+ */
+public class RollingWindows {
+    private final WeightSeries series;
+    private final double[] prefixSums;
+    private final int[] pointsBeforeDay;
+    private final int firstDay;
+    private final int lastDay;
+
+    /**
+     * Builds the prefix sums and day index for a series.
+     *
+     * @param series The weight series, oldest first
+     */
+    public RollingWindows(WeightSeries series) {
+        this.series = series;
+        int size = series.size();
+        prefixSums = new double[size + 1];
+        for (int i = 0; i < size; i++) {
+            prefixSums[i + 1] = prefixSums[i] + series.getWeight(i);
+        }
+
+        if (size == 0) {
+            firstDay = 0;
+            lastDay = -1;
+            pointsBeforeDay = new int[1];
+            return;
+        }
+
+        firstDay = series.getFirstDay();
+        lastDay = series.getLastDay();
+
+        // pointsBeforeDay[d - firstDay] is the number of points dated before day d
+        pointsBeforeDay = new int[lastDay - firstDay + 2];
+        int index = 0;
+        for (int offset = 0; offset < pointsBeforeDay.length; offset++) {
+            int day = firstDay + offset;
+            while (index < size && series.getDay(index) < day) {
+                index++;
+            }
+            pointsBeforeDay[offset] = index;
+        }
+    }
+
+    /**
+     * Gets the mean weight of the points within a day range.
+     *
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     * @return The mean weight, or NaN if the range has no points
+     */
+    public double mean(int fromDay, int toDay) {
+        int start = indexOnOrAfter(fromDay);
+        int end = indexOnOrAfter(toDay + 1);
+        if (end <= start) {
+            return Double.NaN;
+        }
+        return (prefixSums[end] - prefixSums[start]) / (end - start);
+    }
+
+    /**
+     * Gets the mean weight over the most recent window ending at the latest entry.
+     *
+     * @param windowDays The window length in days
+     * @return The mean weight, or NaN if the series is empty
+     */
+    public double latestMean(int windowDays) {
+        return mean(lastDay - windowDays + 1, lastDay);
+    }
+
+    /**
+     * Gets the change between the most recent window and the window before it.
+     *
+     * @param windowDays The window length in days
+     * @return The difference of the two window means, or NaN if either window is empty
+     */
+    public double latestDelta(int windowDays) {
+        double current = latestMean(windowDays);
+        double previous = mean(lastDay - 2 * windowDays + 1, lastDay - windowDays);
+        return current - previous;
+    }
+
+    /**
+     * Computes the trailing moving average at every point in a single O(n) pass.
+     * Suitable for drawing as a chart overlay.
+     *
+     * @param windowDays The window length in days
+     * @return The moving average for each point of the series
+     */
+    public float[] movingAverage(int windowDays) {
+        int size = series.size();
+        float[] averages = new float[size];
+        for (int i = 0; i < size; i++) {
+            int start = indexOnOrAfter(series.getDay(i) - windowDays + 1);
+            averages[i] = (float) ((prefixSums[i + 1] - prefixSums[start]) / (i + 1 - start));
+        }
+        return averages;
+    }
+
+    /**
+     * Gets the index of the first point dated on or after a day.
+     *
+     * @param day The epoch day
+     * @return The index of the first point on or after the day
+     */
+    private int indexOnOrAfter(int day) {
+        if (day <= firstDay) {
+            return 0;
+        }
+        if (day > lastDay) {
+            return series.size();
+        }
+        return pointsBeforeDay[day - firstDay];
+    }
+}
@@ -0,0 +1,124 @@
+package com.zybooks.weightlogger.Utilities;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling for chart series.
+ * Picks the indices of the points that best keep the visual shape of a line so a long
+ * series can be drawn with a few points per bucket. Each bucket also keeps its own lowest
+ * and highest point, so a short spike or dip inside any bucket stays visible, and with it
+ * the series' overall extremes; callers wanting one point per pixel ask for a third as
+ * many buckets as pixels.
+ * Only indices are produced; the raw arrays are left untouched for zoomed-in views.
+ */
+public final class SeriesDownsampler {
+
+    private SeriesDownsampler() {
+        // Static helpers only
+    }
+
+    /**
+     * Gets the largest number of indices {@link #downsample} can write for a threshold.
+     *
+     * @param threshold The requested number of points
+     * @return The required capacity of the output array
+     */
+    public static int capacity(int threshold) {
+        // Each bucket may add its lowest and highest point on top of the LTTB pick
+        return 3 * Math.max(threshold, 0);
+    }
+
+    /**
+     * Selects the points to draw from a series.
+     * If the series already has no more than threshold points, every index is selected.
+     * Otherwise the first and last points are kept, and each of the threshold - 2 buckets
+     * between them contributes its LTTB pick plus its lowest and highest point.
+     *
+     * @param x The x coordinates, in increasing order
+     * @param y The y coordinates
+     * @param count The number of points in the series
+     * @param threshold The number of points to keep, at least 3 for downsampling to apply
+     * @param out Receives the selected indices in increasing order; sized by {@link #capacity}
+     * @return The number of indices written to out
+     */
+    public static int downsample(float[] x, float[] y, int count, int threshold, int[] out) {
+        if (count <= threshold || threshold < 3) {
+            for (int i = 0; i < count; i++) {
+                out[i] = i;
+            }
+            return count;
+        }
+
+        int selected = 0;
+        out[selected++] = 0;
+
+        // The first and last points are fixed; the rest are split into equal buckets
+        double bucketSize = (double) (count - 2) / (threshold - 2);
+        int previous = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+
+            // Average of the next bucket, or the last point for the final bucket
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, count);
+            if (nextStart >= count - 1) {
+                nextStart = count - 1;
+                nextEnd = count;
+            }
+            float averageX = 0;
+            float averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= (nextEnd - nextStart);
+            averageY /= (nextEnd - nextStart);
+
+            // Keep the point forming the largest triangle with the previous pick and that average
+            float previousX = x[previous];
+            float previousY = y[previous];
+            float largestArea = -1;
+            int largest = start;
+            int lowest = start;
+            int highest = start;
+            for (int i = start; i < end; i++) {
+                float area = Math.abs((previousX - averageX) * (y[i] - previousY)
+                        - (previousX - x[i]) * (averageY - previousY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+                if (y[i] < y[lowest]) lowest = i;
+                if (y[i] > y[highest]) highest = i;
+            }
+            selected = appendInOrder(out, selected, largest, lowest, highest);
+            previous = largest;
+        }
+        out[selected++] = count - 1;
+
+        return selected;
+    }
+
+    /**
+     * Appends up to three indices from one bucket in increasing order, skipping duplicates.
+     *
+     * @param out The selected indices in increasing order
+     * @param selected The number of selected indices
+     * @param a The first index
+     * @param b The second index
+     * @param c The third index
+     * @return The number of selected indices afterwards
+     */
+    private static int appendInOrder(int[] out, int selected, int a, int b, int c) {
+        int first = Math.min(a, Math.min(b, c));
+        int last = Math.max(a, Math.max(b, c));
+        int middle = a + b + c - first - last;
+        out[selected++] = first;
+        if (middle != first) {
+            out[selected++] = middle;
+        }
+        if (last != middle) {
+            out[selected++] = last;
+        }
+        return selected;
+    }
+}
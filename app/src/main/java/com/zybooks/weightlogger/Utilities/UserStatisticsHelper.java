@@ -1,41 +1,31 @@
 package com.zybooks.weightlogger.Utilities;
 
-import android.content.Context;
-
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.zybooks.weightlogger.Data.WeightDatabaseHelper;
+import com.zybooks.weightlogger.Data.HistoryAnalytics;
+import com.zybooks.weightlogger.Data.ProfileSnapshot;
 import com.zybooks.weightlogger.Data.WeightRepository;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Helper class for calculating and maintaining user statistics.
  * Separates statistics logic from the ViewModel to reduce complexity.
  */
 public class UserStatisticsHelper {
-    private final WeightRepository weightRepository;
+    // Short weekday names in HistoryAnalytics order, Monday first
+    private static final String[] WEEKDAY_NAMES = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
 
     // LiveData objects for statistics
     private final MutableLiveData<String> totalEntriesLiveData = new MutableLiveData<>("--");
     private final MutableLiveData<String> weightLostLiveData = new MutableLiveData<>("--");
     private final MutableLiveData<String> daysTrackingLiveData = new MutableLiveData<>("--");
     private final MutableLiveData<String> weeklyAvgLiveData = new MutableLiveData<>("--");
-
-    /**
-     * Creates a new UserStatisticsHelper instance.
-     *
-     * @param context The context used to access repositories
-     */
-    public UserStatisticsHelper(Context context) {
-        weightRepository = new WeightRepository(context);
-    }
+    private final MutableLiveData<String> currentStreakLiveData = new MutableLiveData<>("--");
+    private final MutableLiveData<String> monthCoverageLiveData = new MutableLiveData<>("--");
+    private final MutableLiveData<String> longestGapLiveData = new MutableLiveData<>("--");
+    private final MutableLiveData<ProfileSnapshot> monthCalendarLiveData = new MutableLiveData<>();
 
     /**
      * Gets the LiveData for total entries count.
@@ -70,82 +60,169 @@ public class UserStatisticsHelper {
     }
 
     /**
-     * Calculates all user statistics and updates LiveData.
+     * Gets the LiveData for the current logging streak.
+     * @return LiveData containing the current and longest streak
+     */
+    public LiveData<String> getCurrentStreakLiveData() {
+        return currentStreakLiveData;
+    }
+
+    /**
+     * Gets the LiveData for the days logged this month.
+     * @return LiveData containing the logged days out of the days so far this month
+     */
+    public LiveData<String> getMonthCoverageLiveData() {
+        return monthCoverageLiveData;
+    }
+
+    /**
+     * Gets the LiveData for the longest gap between logged days.
+     * @return LiveData containing the longest gap
+     */
+    public LiveData<String> getLongestGapLiveData() {
+        return longestGapLiveData;
+    }
+
+    /**
+     * Gets the LiveData for this month's logging calendar.
+     * @return LiveData containing the snapshot holding the computed day and month mask, or null if there are no entries
+     */
+    public LiveData<ProfileSnapshot> getMonthCalendarLiveData() {
+        return monthCalendarLiveData;
+    }
+
+    /**
+     * Shows a user's statistics from their profile snapshot.
+     * The snapshot holds precomputed values, so no entries or aggregates are read.
      *
-     * @param userId The ID of the user
+     * @param snapshot The user's profile snapshot, or null if there is none
      */
-    public void calculateStatistics(int userId) {
-        if (userId == -1) {
+    public void showSnapshot(ProfileSnapshot snapshot) {
+        if (snapshot == null || snapshot.getEntryCount() == 0) {
             resetStatistics();
             return;
         }
 
-        List<WeightDatabaseHelper.WeightEntry> entries = weightRepository.getWeightEntries(userId);
+        // Total entries
+        totalEntriesLiveData.setValue(String.valueOf(snapshot.getEntryCount()));
+
+        // Streak and monthly coverage from the logged-day bitset
+        currentStreakLiveData.setValue(String.format(Locale.getDefault(), "%d days (best %d)",
+                snapshot.getCurrentStreak(), snapshot.getLongestStreak()));
+        monthCoverageLiveData.setValue(String.format(Locale.getDefault(), "%d of %d days",
+                snapshot.getMonthLoggedDays(), DateCodec.dayOfMonth(snapshot.getComputedDay())));
+        longestGapLiveData.setValue(String.format(Locale.getDefault(), "%d days", snapshot.getLongestGap()));
+        monthCalendarLiveData.setValue(snapshot);
+
+        if (snapshot.getEntryCount() >= 2) {
+            // Calculate weight lost/gained (first entry vs. most recent)
+            double weightDiff = snapshot.getFirstWeight() - snapshot.getLastWeight();
+            weightLostLiveData.setValue(String.format(Locale.getDefault(),
+                    "%.1f lbs", Math.abs(weightDiff)));
+
+            // Days tracking
+            int daysTracked = snapshot.getDaysTracked();
+            daysTrackingLiveData.setValue(daysTracked + " days");
+
+            // Weekly average
+            double diffInWeeks = daysTracked / 7.0;
+            if (diffInWeeks > 0) {
+                double weeklyAvg = (snapshot.getLastWeight() - snapshot.getFirstWeight()) / diffInWeeks;
+                weeklyAvgLiveData.setValue(String.format(Locale.getDefault(), "%.1f lbs/week", weeklyAvg));
+            }
+        }
+    }
 
-        if (entries.isEmpty()) {
-            resetStatistics();
-            return;
+    /**
+     * Loads a user's profile snapshot ahead of the profile screen opening,
+     * recomputing it first if it is behind the user's data.
+     * Safe to call from a background thread.
+     *
+     * @param weightRepository The repository used to read the user's snapshot
+     * @param userId The ID of the user
+     * @param goalWeight The user's goal weight
+     */
+    public static void prefetchStatistics(WeightRepository weightRepository, int userId, double goalWeight) {
+        weightRepository.getProfileSnapshot(userId, goalWeight);
+    }
+
+    /**
+     * Describes a stored goal projection.
+     *
+     * @param projection How the trend relates to the goal weight
+     * @param goalDay The projected epoch day, used when the projection is DATE
+     * @return A short description of the projection
+     */
+    public static String formatGoalProjection(ProfileSnapshot.GoalProjection projection, int goalDay) {
+        switch (projection) {
+            case REACHED:
+                return "Goal reached";
+            case NOT_TRENDING:
+                return "Not trending toward goal";
+            case DATE:
+                return DateCodec.formatLong(goalDay);
+            default:
+                return "--";
         }
+    }
 
-        // Total entries
-        int totalEntries = entries.size();
-        totalEntriesLiveData.setValue(String.valueOf(totalEntries));
-
-        // Calculate weight lost/gained (first entry vs. most recent)
-        if (entries.size() >= 2) {
-            // First entry is most recent (they're sorted in reverse chronological order)
-            double currentWeight = entries.get(0).getWeight();
-            double initialWeight = entries.get(entries.size() - 1).getWeight();
-            double weightDiff = initialWeight - currentWeight;
-
-            String weightChangeText = String.format(Locale.getDefault(),
-                    "%.1f lbs", Math.abs(weightDiff));
-            weightLostLiveData.setValue(weightChangeText);
+    /**
+     * Formats a rolling-window mean with its change from the previous window.
+     *
+     * @param mean The mean weight of the window
+     * @param delta The change from the previous window
+     * @return The formatted mean, or "--" if the window has no entries
+     */
+    public static String formatRollingAverage(double mean, double delta) {
+        if (Double.isNaN(mean)) {
+            return "--";
+        }
+        if (Double.isNaN(delta)) {
+            return String.format(Locale.getDefault(), "%.1f lbs", mean);
         }
+        return String.format(Locale.getDefault(), "%.1f lbs (%+.1f)", mean, delta);
+    }
 
-        // Days tracking
-        if (entries.size() >= 2) {
-            try {
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                Date firstDate = dateFormat.parse(entries.get(entries.size() - 1).getDate());
-                Date lastDate = dateFormat.parse(entries.get(0).getDate());
-
-                if (firstDate != null && lastDate != null) {
-                    long diffInMillis = Math.abs(lastDate.getTime() - firstDate.getTime());
-                    long diffInDays = TimeUnit.DAYS.convert(diffInMillis, TimeUnit.MILLISECONDS);
-
-                    daysTrackingLiveData.setValue(diffInDays + " days");
-                }
-            } catch (ParseException e) {
-                daysTrackingLiveData.setValue("--");
-            }
+    /**
+     * Formats the latest month's average weight with its change from the month before.
+     *
+     * @param analytics The user's history analytics
+     * @return The formatted average, or "--" if the latest month has no entries
+     */
+    public static String formatMonthlyAverage(HistoryAnalytics.Result analytics) {
+        int latest = analytics.getMonthCount() - 1;
+        if (latest < 0) {
+            return "--";
         }
+        return formatRollingAverage(analytics.getMonthMean(latest), analytics.getMonthOverMonthChange(latest));
+    }
 
-        // Weekly average
-        if (entries.size() >= 2) {
-            try {
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                Date firstDate = dateFormat.parse(entries.get(entries.size() - 1).getDate());
-                Date lastDate = dateFormat.parse(entries.get(0).getDate());
-
-                if (firstDate != null && lastDate != null) {
-                    double firstWeight = entries.get(entries.size() - 1).getWeight();
-                    double lastWeight = entries.get(0).getWeight();
-                    double weightDiff = lastWeight - firstWeight;
-
-                    long diffInMillis = Math.abs(lastDate.getTime() - firstDate.getTime());
-                    double diffInWeeks = TimeUnit.DAYS.convert(diffInMillis, TimeUnit.MILLISECONDS) / 7.0;
-
-                    if (diffInWeeks > 0) {
-                        double weeklyAvg = weightDiff / diffInWeeks;
-                        String avgText = String.format(Locale.getDefault(), "%.1f lbs/week", weeklyAvg);
-                        weeklyAvgLiveData.setValue(avgText);
-                    }
-                }
-            } catch (ParseException e) {
-                weeklyAvgLiveData.setValue("--");
+    /**
+     * Names the weekdays with the lowest and highest average daily change.
+     *
+     * @param analytics The user's history analytics
+     * @return The formatted pattern, or "--" if fewer than two weekdays have changes
+     */
+    public static String formatWeekdayPattern(HistoryAnalytics.Result analytics) {
+        int lowest = -1;
+        int highest = -1;
+        for (int weekday = 0; weekday < WEEKDAY_NAMES.length; weekday++) {
+            double delta = analytics.getWeekdayMeanDelta(weekday);
+            if (Double.isNaN(delta)) {
+                continue;
             }
+            if (lowest < 0 || delta < analytics.getWeekdayMeanDelta(lowest)) {
+                lowest = weekday;
+            }
+            if (highest < 0 || delta > analytics.getWeekdayMeanDelta(highest)) {
+                highest = weekday;
+            }
+        }
+        if (lowest < 0 || lowest == highest) {
+            return "--";
         }
+        return String.format(Locale.getDefault(), "Lowest %s, highest %s",
+                WEEKDAY_NAMES[lowest], WEEKDAY_NAMES[highest]);
     }
 
     /**
@@ -156,5 +233,9 @@ public class UserStatisticsHelper {
         weightLostLiveData.setValue("--");
         daysTrackingLiveData.setValue("--");
         weeklyAvgLiveData.setValue("--");
+        currentStreakLiveData.setValue("--");
+        monthCoverageLiveData.setValue("--");
+        longestGapLiveData.setValue("--");
+        monthCalendarLiveData.setValue(null);
     }
-}
\ No newline at end of file
+}
@@ -19,6 +19,8 @@ import java.util.List;
 import java.util.Locale;
 
 public class WeightAdapter extends RecyclerView.Adapter<WeightAdapter.ViewHolder> {
+    private static final float PENDING_ALPHA = 0.5f;
+
     private final Context context;
     private List<WeightDatabaseHelper.WeightEntry> weightEntries;
 
@@ -54,6 +56,19 @@ public class WeightAdapter extends RecyclerView.Adapter<WeightAdapter.ViewHolder
         holder.dateTextView.setText(entry.getDate());
         holder.weightTextView.setText(String.format(Locale.getDefault(), "%.1f lbs", entry.getWeight()));
 
+        // Show the stored smoothed trend; pending entries have none until their write finishes
+        if (entry.hasTrend()) {
+            holder.trendTextView.setText(context.getString(R.string.trend_weight, entry.getTrend()));
+            holder.trendTextView.setVisibility(View.VISIBLE);
+        } else {
+            holder.trendTextView.setVisibility(View.GONE);
+        }
+
+        // Dim entries that are still being saved and lock their actions until the write finishes
+        holder.itemView.setAlpha(entry.isPending() ? PENDING_ALPHA : 1f);
+        holder.editButton.setEnabled(!entry.isPending());
+        holder.deleteButton.setEnabled(!entry.isPending());
+
         // Calculate and format weight change only when needed (not for every list item update)
         if (position < weightEntries.size() - 1) {
             WeightDatabaseHelper.WeightEntry nextEntry = weightEntries.get(position + 1);
@@ -122,6 +137,7 @@ public class WeightAdapter extends RecyclerView.Adapter<WeightAdapter.ViewHolder
     public static class ViewHolder extends RecyclerView.ViewHolder {
         public TextView dateTextView;
         public TextView weightTextView;
+        public TextView trendTextView;
         public TextView changeTextView;
         public Button editButton;
         public Button deleteButton;
@@ -130,6 +146,7 @@ public class WeightAdapter extends RecyclerView.Adapter<WeightAdapter.ViewHolder
             super(itemView);
             dateTextView = itemView.findViewById(R.id.dateTextView);
             weightTextView = itemView.findViewById(R.id.weightTextView);
+            trendTextView = itemView.findViewById(R.id.trendTextView);
             changeTextView = itemView.findViewById(R.id.changeTextView);
             editButton = itemView.findViewById(R.id.editButton);
             deleteButton = itemView.findViewById(R.id.deleteButton);
@@ -2,52 +2,143 @@ package com.zybooks.weightlogger.Utilities;
 
 import android.content.Context;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.PointF;
+import android.graphics.Picture;
+import android.graphics.RectF;
 import android.util.AttributeSet;
-import android.util.Log;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
+import android.view.ViewParent;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 
 import com.zybooks.weightlogger.Data.WeightDatabaseHelper;
+import com.zybooks.weightlogger.Data.WeightSeries;
 import com.zybooks.weightlogger.R;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
-
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Line chart of a user's weight history with pinch-zoom and horizontal pan.
+ * The X axis is scaled by date over a visible day window. When the window spans more days
+ * than the chart has pixels to show them, bucketed daily or weekly series are loaded for it
+ * through a {@link RangeLoader}; otherwise the raw entries passed to setData are drawn.
+ * Tapping a point shows its date, weight, change from the previous point and trend.
+ * Moving averages and the planned trajectory to the goal can be overlaid; they are always
+ * laid out and recorded separately from the rest of the chart, so toggling one only redraws.
+ * Layout runs on the compute executor into a spare {@link ChartGeometry} that is swapped
+ * in on the main thread when it is complete, so large histories never block the UI.
+ */
 public class WeightChartView extends View {
-    private static final String TAG = "WeightChartView";
+    // Days per horizontal pixel above which each coarser resolution is used
+    private static final float RAW_MAX_DAYS_PER_PIXEL = 0.5f;
+    private static final float DAILY_MAX_DAYS_PER_PIXEL = 3f;
+    private static final float TOOLTIP_PADDING = 16f;
+    private static final float TOOLTIP_LINE_SPACING = 8f;
+
+    /**
+     * Loads bucketed series for the chart's visible day window.
+     */
+    public interface RangeLoader {
+        /**
+         * Loads a day range at a resolution and delivers it on the main thread.
+         *
+         * @param resolution The resolution to load
+         * @param fromDay The first epoch day of the range, inclusive
+         * @param toDay The last epoch day of the range, inclusive
+         * @param onLoaded Receives the loaded series, oldest first
+         */
+        void loadRange(WeightSeries.Resolution resolution, int fromDay, int toDay, Consumer<WeightSeries> onLoaded);
+
+        /**
+         * Warms the cache for a day range the user is likely to pan to next.
+         *
+         * @param resolution The resolution to load
+         * @param fromDay The first epoch day of the range, inclusive
+         * @param toDay The last epoch day of the range, inclusive
+         */
+        void prefetchRange(WeightSeries.Resolution resolution, int fromDay, int toDay);
+    }
+
+    /**
+     * Optional series drawn over the weight line.
+     */
+    public enum Overlay {
+        /** Trailing 7-day moving average */
+        SHORT_AVERAGE,
+        /** Trailing 30-day moving average */
+        LONG_AVERAGE,
+        /** Straight line from the first entry to the goal weight on the projected goal day */
+        TRAJECTORY
+    }
 
-    private List<WeightDatabaseHelper.WeightEntry> entries = new ArrayList<>();
+    // Entries waiting to be copied by the next layout, and the data from the last copy
+    @Nullable
+    private List<WeightDatabaseHelper.WeightEntry> pendingEntries;
+    @Nullable
+    private ChartGeometry.Data data;
     private double goalWeight = 0;
+    private int goalDay = DateCodec.INVALID;
     private boolean hasData = false;
 
-    private final Paint linePaint = new Paint();
-    private final Paint pointPaint = new Paint();
-    private final Paint textPaint = new Paint();
-    private final Paint gridPaint = new Paint();
-    private final Paint goalPaint = new Paint();
-    private final Paint axisLabelPaint = new Paint();
-
-    private float minWeight = 0;
-    private float maxWeight = 0;
-    private final Path linePath = new Path();
-    private final List<PointF> pointsCache = new ArrayList<>();
-    private final int paddingLeft = 80;
-    private final int paddingRight = 40;
-    private final int paddingTop = 40;
-    private final int paddingBottom = 80;
-    private final SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
-    private final SimpleDateFormat outputFormat = new SimpleDateFormat("MM/dd", Locale.US);
+    // Visible day window; ignored while not zoomed, when the whole history is shown
+    private float viewFromDay = 0;
+    private float viewToDay = 0;
+    private boolean zoomed = false;
+
+    // Bucketed series for the visible window, and the range last requested from the loader
+    @Nullable
+    private RangeLoader rangeLoader;
+    @Nullable
+    private WeightSeries loadedSeries;
+    private WeightSeries.Resolution loadedResolution;
+    private int loadedFromDay;
+    private int loadedToDay;
+    private WeightSeries.Resolution requestedResolution;
+    private int requestedFromDay;
+    private int requestedToDay;
+
+    // Double-buffered layout: front is drawn, back is filled by at most one job at a time
+    private ChartGeometry front = new ChartGeometry();
+    private ChartGeometry back = new ChartGeometry();
+    private boolean layoutInFlight = false;
+    private boolean layoutStale = false;
+
+    // Moving averages sampled at the last laid out series of each resolution
+    private final EnumMap<WeightSeries.Resolution, ChartOverlays> overlayCache =
+            new EnumMap<>(WeightSeries.Resolution.class);
+    private final EnumSet<Overlay> visibleOverlays = EnumSet.noneOf(Overlay.class);
+
+    private ChartRenderer renderer;
+    private final Paint highlightPaint = new Paint();
+    private final Paint tooltipPaint = new Paint();
+    private final Paint tooltipTextPaint = new Paint();
+
+    // Tapped point, kept by day so it survives zooming, panning and resolution changes
+    private int selectedDay = DateCodec.INVALID;
+    private int selectedIndex = -1;
+    private final String[] tooltipLines = new String[4];
+    private final RectF tooltipBox = new RectF();
+
+    // Axes, grid, labels, lines and markers, recorded whenever a new layout is swapped in
+    private final Picture staticLayer = new Picture();
+    private boolean staticLayerValid = false;
+
+    // Visible overlays, recorded on their own so toggling one leaves the static layer alone
+    private final Picture overlayLayer = new Picture();
+    private boolean overlayLayerValid = false;
+
+    private ScaleGestureDetector scaleDetector;
+    private GestureDetector gestureDetector;
 
     public WeightChartView(Context context) {
         super(context);
@@ -65,205 +156,537 @@ public class WeightChartView extends View {
     }
 
     private void init() {
-        // Line paint
-        linePaint.setColor(ContextCompat.getColor(getContext(), R.color.teal_700));
-        linePaint.setStyle(Paint.Style.STROKE);
-        linePaint.setStrokeWidth(4f);
-        linePaint.setAntiAlias(true);
-
-        // Point paint
-        pointPaint.setColor(ContextCompat.getColor(getContext(), R.color.teal_700));
-        pointPaint.setStyle(Paint.Style.FILL);
-        pointPaint.setAntiAlias(true);
-
-        // Text paint
-        textPaint.setColor(ContextCompat.getColor(getContext(), R.color.text_primary_light));
-        textPaint.setTextSize(28f);
-        textPaint.setAntiAlias(true);
-
-        // Grid paint
-        gridPaint.setColor(Color.LTGRAY);
-        gridPaint.setStyle(Paint.Style.STROKE);
-        gridPaint.setStrokeWidth(1f);
-        gridPaint.setAlpha(100);
-
-        // Goal line paint
-        goalPaint.setColor(ContextCompat.getColor(getContext(), R.color.amber_700));
-        goalPaint.setStyle(Paint.Style.STROKE);
-        goalPaint.setStrokeWidth(3f);
-        goalPaint.setPathEffect(new android.graphics.DashPathEffect(new float[]{10, 10}, 0));
-
-        // Axis label paint
-        axisLabelPaint.setColor(ContextCompat.getColor(getContext(), R.color.text_secondary_light));
-        axisLabelPaint.setTextSize(24f);
-        axisLabelPaint.setAntiAlias(true);
-    }
+        renderer = new ChartRenderer(getContext());
+
+        // Selected point ring and tooltip
+        highlightPaint.setColor(ContextCompat.getColor(getContext(), R.color.amber_700));
+        highlightPaint.setStyle(Paint.Style.STROKE);
+        highlightPaint.setStrokeWidth(4f);
+        highlightPaint.setAntiAlias(true);
+        tooltipPaint.setColor(ContextCompat.getColor(getContext(), R.color.grey_900));
+        tooltipPaint.setStyle(Paint.Style.FILL);
+        tooltipPaint.setAlpha(230);
+        tooltipPaint.setAntiAlias(true);
+        tooltipTextPaint.setColor(ContextCompat.getColor(getContext(), R.color.text_primary_dark));
+        tooltipTextPaint.setTextSize(26f);
+        tooltipTextPaint.setAntiAlias(true);
+
+        // Pinch to zoom around the fingers, drag to pan, tap to inspect a point,
+        // double-tap to show the whole history
+        scaleDetector = new ScaleGestureDetector(getContext(), new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(@NonNull ScaleGestureDetector detector) {
+                zoomBy(detector.getScaleFactor(), detector.getFocusX());
+                return true;
+            }
+        });
+        gestureDetector = new GestureDetector(getContext(), new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(@NonNull MotionEvent e) {
+                return true;
+            }
 
-    public void setData(List<WeightDatabaseHelper.WeightEntry> entries, double goalWeight) {
-        this.entries = new ArrayList<>(entries);
-        // Sort by date from oldest to newest
-        this.entries.sort((entry1, entry2) -> {
-            try {
-                Date date1 = inputFormat.parse(entry1.getDate());
-                Date date2 = inputFormat.parse(entry2.getDate());
-                if (date1 != null && date2 != null) {
-                    return date1.compareTo(date2);
-                }
-            } catch (ParseException e) {
-                Log.e(TAG, "Error parsing date", e);
+            @Override
+            public boolean onScroll(@Nullable MotionEvent e1, @NonNull MotionEvent e2, float distanceX, float distanceY) {
+                panBy(distanceX);
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapConfirmed(@NonNull MotionEvent e) {
+                selectAt(e.getX());
+                return true;
+            }
+
+            @Override
+            public boolean onDoubleTap(@NonNull MotionEvent e) {
+                resetZoom();
+                return true;
             }
-            return 0;
         });
+    }
 
+    /**
+     * Sets the loader used to fetch bucketed series when the visible window is wide.
+     * Without one, the raw entries are always drawn.
+     *
+     * @param rangeLoader The loader, or null to draw raw entries only
+     */
+    public void setRangeLoader(@Nullable RangeLoader rangeLoader) {
+        this.rangeLoader = rangeLoader;
+        clearLoadedRange();
+        requestLayoutGeometry();
+    }
+
+    /**
+     * Sets the entries to chart. The entries are copied and laid out on the compute
+     * executor, so a large history never blocks the UI thread.
+     *
+     * @param entries The weight entries to chart, newest first; must not be modified afterwards
+     * @param goalWeight The goal weight, or 0 if none is set
+     */
+    public void setData(List<WeightDatabaseHelper.WeightEntry> entries, double goalWeight) {
+        this.pendingEntries = entries;
         this.goalWeight = goalWeight;
+        this.hasData = !entries.isEmpty();
+
+        // Bucketed series loaded before this change are stale
+        clearLoadedRange();
+        requestLayoutGeometry();
+    }
+
+    /**
+     * Sets the day the goal weight is projected to be reached, where the trajectory overlay ends.
+     *
+     * @param goalDay The projected epoch day, or DateCodec.INVALID if there is none
+     */
+    public void setGoalDay(int goalDay) {
+        if (goalDay != this.goalDay) {
+            this.goalDay = goalDay;
+            requestLayoutGeometry();
+        }
+    }
+
+    /**
+     * Gets the overlays currently shown.
+     *
+     * @return A copy of the visible overlays
+     */
+    public Set<Overlay> getVisibleOverlays() {
+        return EnumSet.copyOf(visibleOverlays);
+    }
+
+    /**
+     * Shows or hides an overlay. Overlays are laid out with every layout, so this only redraws.
+     *
+     * @param overlay The overlay to toggle
+     * @param visible true to draw the overlay
+     */
+    public void setOverlayVisible(Overlay overlay, boolean visible) {
+        boolean changed = visible ? visibleOverlays.add(overlay) : visibleOverlays.remove(overlay);
+        if (changed) {
+            overlayLayerValid = false;
+            invalidate();
+        }
+    }
+
+    /**
+     * Checks whether an overlay is shown.
+     *
+     * @param overlay The overlay to check
+     * @return true if the overlay is drawn
+     */
+    public boolean isOverlayVisible(Overlay overlay) {
+        return visibleOverlays.contains(overlay);
+    }
 
-        // Calculate min and max weight
-        if (!entries.isEmpty()) {
-            hasData = true;
-            minWeight = Float.MAX_VALUE;
-            maxWeight = Float.MIN_VALUE;
+    /**
+     * Starts a layout of the current data and window, or marks the running one stale so
+     * another follows it. Only one layout runs at a time, so a burst of gesture events
+     * collapses into at most one extra layout.
+     */
+    private void requestLayoutGeometry() {
+        if (getWidth() <= 0 || getHeight() <= 0 || (data == null && pendingEntries == null)) {
+            return;
+        }
+        if (layoutInFlight) {
+            layoutStale = true;
+            return;
+        }
+        startLayout();
+    }
 
-            for (WeightDatabaseHelper.WeightEntry entry : entries) {
-                float weight = (float) entry.getWeight();
-                if (weight < minWeight) minWeight = weight;
-                if (weight > maxWeight) maxWeight = weight;
+    /**
+     * Snapshots the main-thread state and lays it out into the back buffer on the compute executor.
+     */
+    private void startLayout() {
+        final List<WeightDatabaseHelper.WeightEntry> entries = pendingEntries;
+        final ChartGeometry.Data currentData = data;
+        pendingEntries = null;
+
+        // The window and resolution are only known once the data has been copied
+        WeightSeries series = null;
+        WeightSeries.Resolution resolution = WeightSeries.Resolution.RAW;
+        if (entries == null && currentData != null) {
+            resolution = resolutionFor(visibleFromDay(), visibleToDay());
+            requestRange(resolution);
+            if (loadedSeries != null && loadedResolution == resolution
+                    && loadedFromDay <= visibleFromDay() && loadedToDay >= visibleToDay()) {
+                series = loadedSeries;
             }
+        }
 
-            // Include goal weight in range
-            if (goalWeight > 0) {
-                if (goalWeight < minWeight) minWeight = (float) goalWeight;
-                if (goalWeight > maxWeight) maxWeight = (float) goalWeight;
+        final ChartGeometry target = back;
+        final WeightSeries layoutSeries = series;
+        final ChartOverlays cachedOverlays = series != null ? overlayCache.get(resolution) : null;
+        final WeightSeries.Resolution layoutResolution = resolution;
+        final float fromDay = viewFromDay;
+        final float toDay = viewToDay;
+        final boolean layoutZoomed = zoomed;
+        final double layoutGoal = goalWeight;
+        final int layoutGoalDay = goalDay;
+        final int width = getWidth();
+        final int height = getHeight();
+        layoutInFlight = true;
+        layoutStale = false;
+        AppExecutors.compute().execute(() -> {
+            ChartGeometry.Data layoutData = entries != null
+                    ? ChartGeometry.Data.fromEntries(entries) : currentData;
+            target.compute(layoutData, layoutSeries, cachedOverlays, layoutResolution, fromDay, toDay,
+                    layoutZoomed, layoutGoal, layoutGoalDay, width, height);
+            AppExecutors.runOnMainThread(() -> onLayoutFinished(target));
+        });
+    }
+
+    /**
+     * Swaps a finished layout in and starts the next one if the state changed meanwhile.
+     *
+     * @param finished The back buffer the layout was computed into
+     */
+    private void onLayoutFinished(ChartGeometry finished) {
+        back = front;
+        front = finished;
+        layoutInFlight = false;
+
+        if (finished.data != data) {
+            // New data: keep a zoomed window inside the new history
+            data = finished.data;
+            overlayCache.clear();
+            if (zoomed) {
+                float fromDay = viewFromDay;
+                float toDay = viewToDay;
+                clampViewport();
+                layoutStale |= fromDay != viewFromDay || toDay != viewToDay;
             }
+            // The window may now call for a bucketed series
+            layoutStale |= rangeLoader != null
+                    && resolutionFor(visibleFromDay(), visibleToDay()) != WeightSeries.Resolution.RAW;
+        }
 
-            // Add padding to range
-            float range = maxWeight - minWeight;
-            minWeight = Math.max(0, minWeight - range * 0.1f);
-            maxWeight = maxWeight + range * 0.1f;
+        if (finished.overlays != null) {
+            overlayCache.put(finished.displayResolution, finished.overlays);
         }
 
-        // Precalculate the points before drawing
-        calculatePoints();
+        staticLayerValid = false;
+        overlayLayerValid = false;
+        layoutTooltip();
         invalidate();
+
+        if (layoutStale) {
+            requestLayoutGeometry();
+        }
+    }
+
+    /**
+     * Gets the first day of the visible window.
+     * @return The first day, the start of the history when not zoomed
+     */
+    private float visibleFromDay() {
+        return zoomed || data == null ? viewFromDay : data.firstDay;
+    }
+
+    /**
+     * Gets the last day of the visible window.
+     * @return The last day, the end of the history when not zoomed
+     */
+    private float visibleToDay() {
+        return zoomed || data == null ? viewToDay : data.lastDay;
+    }
+
+    /**
+     * Picks the resolution that keeps the drawn points near one per pixel.
+     *
+     * @param fromDay The first day of the window
+     * @param toDay The last day of the window
+     * @return The resolution to draw
+     */
+    private WeightSeries.Resolution resolutionFor(float fromDay, float toDay) {
+        int chartWidth = Math.max(getWidth() - ChartGeometry.PADDING_LEFT - ChartGeometry.PADDING_RIGHT, 1);
+        float daysPerPixel = (toDay - fromDay) / chartWidth;
+        if (daysPerPixel <= RAW_MAX_DAYS_PER_PIXEL) {
+            return WeightSeries.Resolution.RAW;
+        }
+        if (daysPerPixel <= DAILY_MAX_DAYS_PER_PIXEL) {
+            return WeightSeries.Resolution.DAILY;
+        }
+        return WeightSeries.Resolution.WEEKLY;
     }
 
-    private void calculatePoints() {
-        // Clear cached points
-        pointsCache.clear();
+    /**
+     * Requests the bucketed series for the visible window and prefetches its neighbors.
+     * Ranges are aligned to power-of-two blocks at least as wide as the window, so small pans
+     * reuse the loaded range and repeated ranges hit the repository's cache.
+     *
+     * @param resolution The resolution the window is drawn at
+     */
+    private void requestRange(WeightSeries.Resolution resolution) {
+        if (rangeLoader == null || resolution == WeightSeries.Resolution.RAW) {
+            return;
+        }
 
-        if (!hasData || entries.isEmpty()) {
+        float span = visibleToDay() - visibleFromDay();
+        int block = Integer.highestOneBit(Math.max(1, (int) Math.ceil(span)));
+        if (block < span) {
+            block <<= 1;
+        }
+        int fromDay = Math.floorDiv((int) Math.floor(visibleFromDay()), block) * block;
+        int toDay = fromDay + 2 * block;
+        if (resolution == requestedResolution && fromDay == requestedFromDay && toDay == requestedToDay) {
             return;
         }
 
+        requestedResolution = resolution;
+        requestedFromDay = fromDay;
+        requestedToDay = toDay;
+        rangeLoader.loadRange(resolution, fromDay, toDay, series -> {
+            // Ignore results for a window that has since been left
+            if (resolution != requestedResolution || fromDay != requestedFromDay || toDay != requestedToDay) {
+                return;
+            }
+            loadedSeries = series;
+            loadedResolution = resolution;
+            loadedFromDay = fromDay;
+            loadedToDay = toDay;
+            requestLayoutGeometry();
+        });
+
+        // Adjacent windows, so a pan in either direction finds its block cached
+        rangeLoader.prefetchRange(resolution, fromDay - block, toDay - block);
+        rangeLoader.prefetchRange(resolution, fromDay + block, toDay + block);
+    }
+
+    /**
+     * Forgets the loaded and requested ranges so the next layout requests them again.
+     */
+    private void clearLoadedRange() {
+        loadedSeries = null;
+        loadedResolution = null;
+        requestedResolution = null;
+    }
+
+    /**
+     * Selects the point nearest a tapped position, or clears the selection when the
+     * selected point is tapped again.
+     *
+     * @param x The X coordinate of the tap
+     */
+    private void selectAt(float x) {
+        int chartWidth = getWidth() - ChartGeometry.PADDING_LEFT - ChartGeometry.PADDING_RIGHT;
+        if (front.displayCount == 0 || chartWidth <= 0) {
+            return;
+        }
+
+        float day = front.viewFromDay + (x - ChartGeometry.PADDING_LEFT) * (front.viewToDay - front.viewFromDay) / chartWidth;
+        int nearest = front.nearestDisplayIndex(day);
+        selectedDay = nearest == selectedIndex ? DateCodec.INVALID : front.displayDays[nearest];
+        layoutTooltip();
+        invalidate();
+    }
+
+    /**
+     * Finds the selected point in the front layout and formats its tooltip.
+     * The point, its predecessor and its trend are all found by index or binary search,
+     * so this never scans the series.
+     */
+    private void layoutTooltip() {
+        selectedIndex = -1;
+        ChartGeometry geometry = front;
+        if (selectedDay == DateCodec.INVALID || geometry.displayCount == 0 || geometry.data == null) {
+            return;
+        }
+
+        int i = geometry.nearestDisplayIndex(selectedDay);
         int width = getWidth();
-        int height = getHeight();
+        float pointX = geometry.pointX[i];
+        float pointY = geometry.pointY[i];
+        if (pointX < ChartGeometry.PADDING_LEFT || pointX > width - ChartGeometry.PADDING_RIGHT) {
+            // Panned out of view; shown again if panned back
+            return;
+        }
+        selectedIndex = i;
+
+        // Trend at the end of the point's bucket, from the stored raw trend values
+        ChartGeometry.Data layoutData = geometry.data;
+        boolean raw = geometry.displayResolution == WeightSeries.Resolution.RAW;
+        int bucketDays = geometry.displayResolution == WeightSeries.Resolution.WEEKLY ? 7 : 1;
+        int trendIndex = raw ? geometry.displayFrom + i
+                : ChartGeometry.lowerBound(layoutData.days, layoutData.count, geometry.displayDays[i] + bucketDays) - 1;
+        float trend = trendIndex >= 0 ? layoutData.trends[trendIndex] : Float.NaN;
+
+        float weight = geometry.displayWeights[i];
+        String date = DateCodec.formatLong(geometry.displayDays[i]);
+        tooltipLines[0] = geometry.displayResolution == WeightSeries.Resolution.WEEKLY ? "Week of " + date : date;
+        tooltipLines[1] = String.format(Locale.US, raw ? "Weight: %.1f lbs" : "Average: %.1f lbs", weight);
+        tooltipLines[2] = i > 0
+                ? String.format(Locale.US, "Change: %+.1f lbs", weight - geometry.displayWeights[i - 1])
+                : "Change: --";
+        tooltipLines[3] = Float.isNaN(trend) ? "Trend: --" : String.format(Locale.US, "Trend: %.1f lbs", trend);
+
+        // Size the box to the text and keep it inside the view, above the point when it fits
+        float textWidth = 0;
+        for (String line : tooltipLines) {
+            textWidth = Math.max(textWidth, tooltipTextPaint.measureText(line));
+        }
+        float lineHeight = tooltipTextPaint.getTextSize() + TOOLTIP_LINE_SPACING;
+        float boxWidth = textWidth + 2 * TOOLTIP_PADDING;
+        float boxHeight = tooltipLines.length * lineHeight + 2 * TOOLTIP_PADDING - TOOLTIP_LINE_SPACING;
+        float left = Math.max(0, Math.min(pointX - boxWidth / 2, width - boxWidth));
+        float top = pointY - boxHeight - 24;
+        if (top < 0) {
+            top = Math.min(pointY + 24, getHeight() - boxHeight);
+        }
+        tooltipBox.set(left, top, left + boxWidth, top + boxHeight);
+    }
 
-        // Handle the case when the view size isn't set yet
-        if (width <= 0 || height <= 0) {
+    /**
+     * Zooms the window around a horizontal position.
+     *
+     * @param scaleFactor The change in scale, above 1 to zoom in
+     * @param focusX The X coordinate to keep in place
+     */
+    private void zoomBy(float scaleFactor, float focusX) {
+        int chartWidth = getWidth() - ChartGeometry.PADDING_LEFT - ChartGeometry.PADDING_RIGHT;
+        if (data == null || data.count == 0 || chartWidth <= 0 || scaleFactor <= 0) {
             return;
         }
 
-        int chartWidth = width - paddingLeft - paddingRight;
-        int chartHeight = height - paddingTop - paddingBottom;
-        float weightRange = maxWeight - minWeight;
+        float fromDay = visibleFromDay();
+        float span = visibleToDay() - fromDay;
+        float focusDay = fromDay + (focusX - ChartGeometry.PADDING_LEFT) / chartWidth * span;
+        float newSpan = Math.max(ChartGeometry.MIN_VISIBLE_DAYS, span / scaleFactor);
+        viewFromDay = focusDay - (focusDay - fromDay) * newSpan / span;
+        viewToDay = viewFromDay + newSpan;
+        onViewportChanged();
+    }
 
-        // Calculate points for line
-        for (int i = 0; i < entries.size(); i++) {
-            WeightDatabaseHelper.WeightEntry entry = entries.get(i);
-            float x = paddingLeft + ((float) (chartWidth * i) / (entries.size() - 1));
-            if (entries.size() == 1) {
-                x = paddingLeft + chartWidth / 2f;
-            }
+    /**
+     * Pans the window horizontally.
+     *
+     * @param distanceX The distance dragged in pixels, positive toward later dates
+     */
+    private void panBy(float distanceX) {
+        int chartWidth = getWidth() - ChartGeometry.PADDING_LEFT - ChartGeometry.PADDING_RIGHT;
+        if (data == null || chartWidth <= 0 || !zoomed) {
+            return;
+        }
 
-            float normalizedWeight = (float) ((entry.getWeight() - minWeight) / weightRange);
-            float y = height - paddingBottom - (normalizedWeight * chartHeight);
+        float shift = distanceX * (viewToDay - viewFromDay) / chartWidth;
+        viewFromDay += shift;
+        viewToDay += shift;
+        onViewportChanged();
+    }
 
-            pointsCache.add(new PointF(x, y));
+    /**
+     * Shows the whole history again.
+     */
+    public void resetZoom() {
+        if (data == null) {
+            return;
         }
+        viewFromDay = data.firstDay;
+        viewToDay = data.lastDay;
+        onViewportChanged();
+    }
+
+    /**
+     * Keeps the window inside the history and lays out the new window.
+     */
+    private void onViewportChanged() {
+        clampViewport();
+        requestLayoutGeometry();
+    }
+
+    /**
+     * Keeps the window inside the history, no wider than all of it.
+     */
+    private void clampViewport() {
+        if (data == null) {
+            return;
+        }
+        float span = viewToDay - viewFromDay;
+        float fullSpan = data.lastDay - data.firstDay;
+        if (span >= fullSpan) {
+            viewFromDay = data.firstDay;
+            viewToDay = data.lastDay;
+            zoomed = false;
+            return;
+        }
+
+        if (viewFromDay < data.firstDay) {
+            viewFromDay = data.firstDay;
+            viewToDay = data.firstDay + span;
+        } else if (viewToDay > data.lastDay) {
+            viewToDay = data.lastDay;
+            viewFromDay = data.lastDay - span;
+        }
+        zoomed = true;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (data == null || data.count == 0) {
+            return super.onTouchEvent(event);
+        }
+
+        // Keep the dialog's scroll view from taking over while the chart is being dragged
+        ViewParent parent = getParent();
+        int action = event.getActionMasked();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(
+                    action != MotionEvent.ACTION_UP && action != MotionEvent.ACTION_CANCEL);
+        }
+
+        boolean handled = scaleDetector.onTouchEvent(event);
+        if (!scaleDetector.isInProgress()) {
+            handled |= gestureDetector.onTouchEvent(event);
+        }
+        return handled || super.onTouchEvent(event);
     }
 
     @Override
     protected void onSizeChanged(int w, int h, int old_width, int old_height) {
         super.onSizeChanged(w, h, old_width, old_height);
-        calculatePoints();
+        requestLayoutGeometry();
     }
 
     @Override
     protected void onDraw(@NonNull Canvas canvas) {
         super.onDraw(canvas);
 
-        if (!hasData || entries.isEmpty()) {
-            // Draw no data message
-            textPaint.setTextAlign(Paint.Align.CENTER);
-            canvas.drawText("No weight data available", getWidth() / 2f, getHeight() / 2f, textPaint);
-            return;
-        }
-
         int width = getWidth();
         int height = getHeight();
-        int chartHeight = height - paddingTop - paddingBottom;
-
-        // Draw axes
-        canvas.drawLine(paddingLeft, height - paddingBottom, width - paddingRight, height - paddingBottom, gridPaint); // X-axis
-        canvas.drawLine(paddingLeft, paddingTop, paddingLeft, height - paddingBottom, gridPaint); // Y-axis
-
-        // Draw horizontal grid lines and Y-axis labels
-        int numYLabels = 5;
-        float weightRange = maxWeight - minWeight;
-        for (int i = 0; i <= numYLabels; i++) {
-            float y = height - paddingBottom - ((float) (chartHeight * i) / numYLabels);
-            canvas.drawLine(paddingLeft, y, width - paddingRight, y, gridPaint);
-
-            float labelValue = minWeight + (weightRange * i / numYLabels);
-            axisLabelPaint.setTextAlign(Paint.Align.RIGHT);
-            canvas.drawText(String.format(Locale.US, "%.1f", labelValue), paddingLeft - 10, y + axisLabelPaint.getTextSize() / 3, axisLabelPaint);
+        if (width <= 0 || height <= 0) {
+            return;
         }
 
-        // Draw the weight data path
-        linePath.reset();
-        for (int i = 0; i < pointsCache.size(); i++) {
-            PointF point = pointsCache.get(i);
-            if (i == 0) {
-                linePath.moveTo(point.x, point.y);
-            } else {
-                linePath.lineTo(point.x, point.y);
-            }
-
-            // Draw point
-            canvas.drawCircle(point.x, point.y, 8, pointPaint);
-
-            // Draw weight value
-            textPaint.setTextAlign(Paint.Align.CENTER);
-            WeightDatabaseHelper.WeightEntry entry = entries.get(i);
-            canvas.drawText(String.format(Locale.US, "%.1f", entry.getWeight()), point.x, point.y - 15, textPaint);
-
-            // Draw X-axis label (date)
-            if (i == 0 || i == entries.size() - 1 || entries.size() <= 5 || i % (entries.size() / 5) == 0) {
-                try {
-                    Date date = inputFormat.parse(entry.getDate());
-                    String formattedDate = date != null ? outputFormat.format(date) : entry.getDate();
-                    axisLabelPaint.setTextAlign(Paint.Align.CENTER);
-                    canvas.drawText(formattedDate, point.x, height - paddingBottom + 30, axisLabelPaint);
-                } catch (ParseException e) {
-                    Log.e(TAG, "Error parsing date for label", e);
-                }
+        // Frames between layouts only replay the recorded layer
+        if (!staticLayerValid) {
+            Canvas recording = staticLayer.beginRecording(width, height);
+            renderer.drawStatic(recording, front, hasData, width, height);
+            staticLayer.endRecording();
+            staticLayerValid = true;
+        }
+        canvas.drawPicture(staticLayer);
+
+        if (!visibleOverlays.isEmpty()) {
+            if (!overlayLayerValid) {
+                Canvas recording = overlayLayer.beginRecording(width, height);
+                renderer.drawOverlays(recording, front, visibleOverlays, width, height);
+                overlayLayer.endRecording();
+                overlayLayerValid = true;
             }
+            canvas.drawPicture(overlayLayer);
         }
 
-        // Draw the line connecting points
-        canvas.drawPath(linePath, linePaint);
-
-        // Draw goal weight line if available
-        if (goalWeight > 0) {
-            float normalizedGoal = (float) ((goalWeight - minWeight) / weightRange);
-            float goalY = height - paddingBottom - (normalizedGoal * chartHeight);
-
-            canvas.drawLine(paddingLeft, goalY, width - paddingRight, goalY, goalPaint);
-
-            // Draw goal label
-            textPaint.setColor(ContextCompat.getColor(getContext(), R.color.amber_700));
-            textPaint.setTextAlign(Paint.Align.LEFT);
-            canvas.drawText("Goal: " + String.format(Locale.US, "%.1f", goalWeight), paddingLeft + 10, goalY - 10, textPaint);
-            textPaint.setColor(ContextCompat.getColor(getContext(), R.color.text_primary_light)); // Reset color
+        // The selected point is drawn over the recorded layer from prepared strings
+        if (selectedIndex >= 0) {
+            canvas.drawCircle(front.pointX[selectedIndex], front.pointY[selectedIndex], 12, highlightPaint);
+            canvas.drawRoundRect(tooltipBox, 12, 12, tooltipPaint);
+            float lineHeight = tooltipTextPaint.getTextSize() + TOOLTIP_LINE_SPACING;
+            float baseline = tooltipBox.top + TOOLTIP_PADDING + tooltipTextPaint.getTextSize();
+            for (int i = 0; i < tooltipLines.length; i++) {
+                canvas.drawText(tooltipLines[i], tooltipBox.left + TOOLTIP_PADDING, baseline + i * lineHeight, tooltipTextPaint);
+            }
         }
     }
-}
\ No newline at end of file
+}
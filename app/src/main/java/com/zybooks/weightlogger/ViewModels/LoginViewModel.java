@@ -6,12 +6,16 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import com.zybooks.weightlogger.Data.UserRepository;
 import com.zybooks.weightlogger.Data.UserSessionManager;
+import com.zybooks.weightlogger.Data.WeightRepository;
+import com.zybooks.weightlogger.Utilities.AppExecutors;
+import com.zybooks.weightlogger.Utilities.UserStatisticsHelper;
 
 /**
  * ViewModel for login operations.
  */
 public class LoginViewModel extends BaseValidationViewModel {
     private final UserRepository userRepository;
+    private final WeightRepository weightRepository;
     private final UserSessionManager sessionManager;
 
     // LiveData for UI updates
@@ -35,6 +39,7 @@ public class LoginViewModel extends BaseValidationViewModel {
     public LoginViewModel(@NonNull Application application) {
         super(application);
         userRepository = new UserRepository(application);
+        weightRepository = new WeightRepository(application);
         sessionManager = new UserSessionManager(application);
     }
 
@@ -106,6 +111,7 @@ public class LoginViewModel extends BaseValidationViewModel {
         // Attempt authentication
         if (userRepository.validateUser(username, password)) {
             sessionManager.saveLoginSession(username);
+            prefetchUserData(username);
             statusMessageLiveData.setValue("Login successful!");
             loginSuccessLiveData.setValue(true);
             dataRefreshNeededLiveData.setValue(true);
@@ -115,6 +121,28 @@ public class LoginViewModel extends BaseValidationViewModel {
         }
     }
 
+    /**
+     * Warms the repository caches for a user on a background thread.
+     * Runs while the navigation transition plays so the profile and weight screens open populated.
+     *
+     * @param username The username of the user who just logged in
+     */
+    private void prefetchUserData(String username) {
+        AppExecutors.diskIO().execute(() -> {
+            int userId = userRepository.getUserId(username);
+            if (userId == -1) {
+                return;
+            }
+
+            userRepository.getUserProfile(userId);
+            weightRepository.prefetchWeightEntries(userId);
+            UserStatisticsHelper.prefetchStatistics(weightRepository, userId, userRepository.getGoalWeight(userId));
+
+            // Login is an infrequent, off-thread moment to check the running statistics
+            weightRepository.verifyStatistics(userId);
+        });
+    }
+
     /**
      * Signals that the user wants to sign up for a new account.
      */
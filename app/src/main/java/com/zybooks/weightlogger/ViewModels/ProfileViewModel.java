@@ -4,13 +4,15 @@ import android.app.Application;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import com.zybooks.weightlogger.Data.HistoryAnalytics;
+import com.zybooks.weightlogger.Data.ProfileSnapshot;
 import com.zybooks.weightlogger.Data.UserRepository;
 import com.zybooks.weightlogger.Data.UserSessionManager;
-import com.zybooks.weightlogger.Data.WeightDatabaseHelper;
+import com.zybooks.weightlogger.Data.WeightDistributions;
 import com.zybooks.weightlogger.Data.WeightRepository;
+import com.zybooks.weightlogger.Utilities.AppExecutors;
 import com.zybooks.weightlogger.Utilities.UserStatisticsHelper;
 
-import java.util.List;
 import java.util.Locale;
 
 /**
@@ -19,6 +21,7 @@ import java.util.Locale;
  */
 public class ProfileViewModel extends BaseValidationViewModel {
     private final UserRepository userRepository;
+    private final WeightRepository weightRepository;
     private final UserSessionManager sessionManager;
     private final UserStatisticsHelper statisticsHelper;
 
@@ -28,6 +31,21 @@ public class ProfileViewModel extends BaseValidationViewModel {
     private final MutableLiveData<Boolean> logoutLiveData = new MutableLiveData<>();
     private final MutableLiveData<String> currentWeightTextLiveData = new MutableLiveData<>("--");
 
+    // Rolling-window averages
+    private final MutableLiveData<String> rollingAvg7TextLiveData = new MutableLiveData<>("--");
+    private final MutableLiveData<String> rollingAvg30TextLiveData = new MutableLiveData<>("--");
+    private final MutableLiveData<String> rollingAvg90TextLiveData = new MutableLiveData<>("--");
+
+    // Full-history analytics
+    private final MutableLiveData<String> monthlyAverageTextLiveData = new MutableLiveData<>("--");
+    private final MutableLiveData<String> weekdayPatternTextLiveData = new MutableLiveData<>("--");
+
+    // Trend projection
+    private final MutableLiveData<String> projectedGoalTextLiveData = new MutableLiveData<>("--");
+
+    // Weight and daily-change histograms
+    private final MutableLiveData<WeightDistributions> distributionsLiveData = new MutableLiveData<>();
+
     // Goal weight validation
     private final MutableLiveData<Boolean> goalWeightValidLiveData = new MutableLiveData<>(false);
     private final MutableLiveData<String> goalWeightErrorLiveData = new MutableLiveData<>();
@@ -45,17 +63,15 @@ public class ProfileViewModel extends BaseValidationViewModel {
     public ProfileViewModel(@NonNull Application application) {
         super(application);
         userRepository = new UserRepository(application);
+        weightRepository = new WeightRepository(application);
         sessionManager = new UserSessionManager(application);
-        statisticsHelper = new UserStatisticsHelper(application);
+        statisticsHelper = new UserStatisticsHelper();
 
         // Initialize username
         usernameLiveData.setValue(sessionManager.getUsername());
 
-        // Load initial goal weight
+        // Load initial goal weight and statistics
         updateWeightGoalInfo();
-
-        // Calculate statistics for the current user
-        calculateStatistics();
     }
 
     // LiveData getters
@@ -71,6 +87,13 @@ public class ProfileViewModel extends BaseValidationViewModel {
     public LiveData<String> getConfirmPasswordErrorLiveData() { return confirmPasswordErrorLiveData; }
     public LiveData<Integer> getPasswordStrengthLiveData() { return passwordStrengthLiveData; }
     public LiveData<String> getCurrentWeightTextLiveData() {return currentWeightTextLiveData; }
+    public LiveData<String> getRollingAvg7TextLiveData() { return rollingAvg7TextLiveData; }
+    public LiveData<String> getRollingAvg30TextLiveData() { return rollingAvg30TextLiveData; }
+    public LiveData<String> getRollingAvg90TextLiveData() { return rollingAvg90TextLiveData; }
+    public LiveData<String> getProjectedGoalTextLiveData() { return projectedGoalTextLiveData; }
+    public LiveData<WeightDistributions> getDistributionsLiveData() { return distributionsLiveData; }
+    public LiveData<String> getMonthlyAverageTextLiveData() { return monthlyAverageTextLiveData; }
+    public LiveData<String> getWeekdayPatternTextLiveData() { return weekdayPatternTextLiveData; }
 
     // Statistics LiveData getters
     public LiveData<String> getTotalEntriesLiveData() {
@@ -89,8 +112,27 @@ public class ProfileViewModel extends BaseValidationViewModel {
         return statisticsHelper.getWeeklyAvgLiveData();
     }
 
+    public LiveData<String> getCurrentStreakLiveData() {
+        return statisticsHelper.getCurrentStreakLiveData();
+    }
+
+    public LiveData<String> getMonthCoverageLiveData() {
+        return statisticsHelper.getMonthCoverageLiveData();
+    }
+
+    public LiveData<String> getLongestGapLiveData() {
+        return statisticsHelper.getLongestGapLiveData();
+    }
+
+    public LiveData<ProfileSnapshot> getMonthCalendarLiveData() {
+        return statisticsHelper.getMonthCalendarLiveData();
+    }
+
     /**
      * Updates the goal weight information displayed in the profile.
+     * The last snapshot held in memory is shown at once; a current snapshot, the weight
+     * distributions and the history analytics are then loaded on the disk thread, recomputing the snapshot only if
+     * the user's data changed since it was taken.
      */
     public void updateWeightGoalInfo() {
         int userId = getUserId();
@@ -99,7 +141,6 @@ public class ProfileViewModel extends BaseValidationViewModel {
             return;
         }
 
-        // Update goal weight (existing code)
         double goalWeight = userRepository.getGoalWeight(userId);
         if (goalWeight <= 0) {
             goalWeightTextLiveData.setValue("Goal Weight: Not set");
@@ -108,30 +149,51 @@ public class ProfileViewModel extends BaseValidationViewModel {
                     "%.1f lbs", goalWeight));
         }
 
-        WeightRepository weightRepository = new WeightRepository(getApplication());
-        List<WeightDatabaseHelper.WeightEntry> entries = weightRepository.getWeightEntries(userId);
-
-        if (entries != null && !entries.isEmpty()) {
-            // Get the first entry (sorted in reverse chronological order)
-            double currentWeight = entries.get(0).getWeight();
-            currentWeightTextLiveData.setValue(String.format(Locale.getDefault(),
-                    "%.1f lbs", currentWeight));
-        } else {
-            currentWeightTextLiveData.setValue("No entries");
+        ProfileSnapshot cached = weightRepository.peekProfileSnapshot(userId);
+        if (cached != null) {
+            showSnapshot(cached);
         }
 
-        // Refresh statistics when goal weight is updated
-        calculateStatistics();
+        AppExecutors.diskIO().execute(() -> {
+            ProfileSnapshot snapshot = weightRepository.getProfileSnapshot(userId, goalWeight);
+            AppExecutors.runOnMainThread(() -> showSnapshot(snapshot));
+
+            // Weight and daily-change histograms
+            distributionsLiveData.postValue(weightRepository.getDistributions(userId));
+
+            // Monthly averages and weekday patterns over the whole history
+            HistoryAnalytics.Result analytics = weightRepository.getHistoryAnalytics(userId);
+            monthlyAverageTextLiveData.postValue(UserStatisticsHelper.formatMonthlyAverage(analytics));
+            weekdayPatternTextLiveData.postValue(UserStatisticsHelper.formatWeekdayPattern(analytics));
+        });
     }
 
     /**
-     * Calculates all user statistics.
+     * Shows the values from a profile snapshot.
+     *
+     * @param snapshot The user's profile snapshot
      */
-    private void calculateStatistics() {
-        int userId = getUserId();
-        if (userId != -1) {
-            statisticsHelper.calculateStatistics(userId);
+    private void showSnapshot(ProfileSnapshot snapshot) {
+        if (snapshot.getEntryCount() > 0) {
+            currentWeightTextLiveData.setValue(String.format(Locale.getDefault(),
+                    "%.1f lbs", snapshot.getLastWeight()));
+        } else {
+            currentWeightTextLiveData.setValue("No entries");
         }
+
+        statisticsHelper.showSnapshot(snapshot);
+
+        // 7-, 30- and 90-day rolling averages, in ProfileSnapshot.WINDOW_DAYS order
+        rollingAvg7TextLiveData.setValue(UserStatisticsHelper.formatRollingAverage(
+                snapshot.getRollingMean(0), snapshot.getRollingDelta(0)));
+        rollingAvg30TextLiveData.setValue(UserStatisticsHelper.formatRollingAverage(
+                snapshot.getRollingMean(1), snapshot.getRollingDelta(1)));
+        rollingAvg90TextLiveData.setValue(UserStatisticsHelper.formatRollingAverage(
+                snapshot.getRollingMean(2), snapshot.getRollingDelta(2)));
+
+        // Project the goal date from the fitted trend
+        projectedGoalTextLiveData.setValue(UserStatisticsHelper.formatGoalProjection(
+                snapshot.getGoalProjection(), snapshot.getProjectedGoalDay()));
     }
 
     /**
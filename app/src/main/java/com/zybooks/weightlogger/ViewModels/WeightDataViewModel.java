@@ -4,28 +4,51 @@ import android.app.Application;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import com.zybooks.weightlogger.Data.ProfileSnapshot;
 import com.zybooks.weightlogger.Data.UserRepository;
+import com.zybooks.weightlogger.Data.TrendEstimate;
 import com.zybooks.weightlogger.Data.UserSessionManager;
 import com.zybooks.weightlogger.Data.WeightDatabaseHelper;
 import com.zybooks.weightlogger.Data.WeightRepository;
+import com.zybooks.weightlogger.Data.WeightSeries;
+import com.zybooks.weightlogger.Utilities.AppExecutors;
+import com.zybooks.weightlogger.Utilities.ChartExporter;
+import com.zybooks.weightlogger.Utilities.DateCodec;
+import com.zybooks.weightlogger.Utilities.GoalProgressEvaluator;
 import com.zybooks.weightlogger.Utilities.NotificationHelper;
+import com.zybooks.weightlogger.Utilities.OutlierGuard;
+import com.zybooks.weightlogger.Utilities.UserStatisticsHelper;
+import com.zybooks.weightlogger.Utilities.WeightChartView;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * ViewModel for weight data operations with enhanced validation.
  * Extends BaseValidationViewModel to leverage centralized validation logic.
  */
 public class WeightDataViewModel extends BaseValidationViewModel {
-    private static final double GOAL_PROXIMITY_THRESHOLD = 5.0;
+    // Temporary IDs for entries shown before their insert finishes
+    private int nextPendingId = -1;
+
+    // Entries hidden before their delete finishes
+    private final Set<Integer> pendingDeleteIds = new HashSet<>();
 
     private final WeightRepository weightRepository;
     private final UserRepository userRepository;
     private final UserSessionManager sessionManager;
-    private final NotificationHelper notificationHelper;
+    private final GoalProgressEvaluator goalProgressEvaluator;
+    private final OutlierGuard outlierGuard = new OutlierGuard();
 
     // Weight entries data
     private final MutableLiveData<List<WeightDatabaseHelper.WeightEntry>> weightEntriesLiveData = new MutableLiveData<>();
     private final MutableLiveData<Boolean> profileUpdateNeededLiveData = new MutableLiveData<>();
+    private final MutableLiveData<String> goalProjectionLiveData = new MutableLiveData<>("--");
+    private final MutableLiveData<Integer> projectedGoalDayLiveData = new MutableLiveData<>(DateCodec.INVALID);
+    private final MutableLiveData<OutlierWarning> outlierWarningLiveData = new MutableLiveData<>();
 
     // Validation for new weight entry
     private final MutableLiveData<Boolean> dateValidLiveData = new MutableLiveData<>(false);
@@ -44,18 +67,53 @@ public class WeightDataViewModel extends BaseValidationViewModel {
         weightRepository = new WeightRepository(application);
         userRepository = new UserRepository(application);
         sessionManager = new UserSessionManager(application);
-        notificationHelper = new NotificationHelper(application);
+        goalProgressEvaluator = new GoalProgressEvaluator(application, new NotificationHelper(application));
 
         // Load initial data
         loadWeightEntries();
     }
 
+    /**
+     * A weight that was held back because it is far from the user's recent entries.
+     * The user either confirms it, which saves it unchanged, or goes back and fixes it.
+     */
+    public static class OutlierWarning {
+        private final Integer entryId;
+        private final String date;
+        private final String weight;
+        private final double recentMedian;
+
+        /**
+         * Creates a new OutlierWarning instance.
+         *
+         * @param entryId The ID of the entry being edited, or null for a new entry
+         * @param date The date that was entered
+         * @param weight The weight that was entered
+         * @param recentMedian The median of the user's recent entries
+         */
+        public OutlierWarning(Integer entryId, String date, String weight, double recentMedian) {
+            this.entryId = entryId;
+            this.date = date;
+            this.weight = weight;
+            this.recentMedian = recentMedian;
+        }
+
+        // Getters
+        public Integer getEntryId() { return entryId; }
+        public String getDate() { return date; }
+        public String getWeight() { return weight; }
+        public double getRecentMedian() { return recentMedian; }
+    }
+
     // LiveData getters
     public LiveData<List<WeightDatabaseHelper.WeightEntry>> getWeightEntriesLiveData() {
         return weightEntriesLiveData;
     }
     public LiveData<String> getStatusMessageLiveData() { return statusMessageLiveData; }
     public LiveData<Boolean> getProfileUpdateNeededLiveData() { return profileUpdateNeededLiveData; }
+    public LiveData<String> getGoalProjectionLiveData() { return goalProjectionLiveData; }
+    public LiveData<Integer> getProjectedGoalDayLiveData() { return projectedGoalDayLiveData; }
+    public LiveData<OutlierWarning> getOutlierWarningLiveData() { return outlierWarningLiveData; }
     public LiveData<Boolean> getFormValidLiveData() { return formValidLiveData; }
     public LiveData<String> getDateErrorLiveData() { return dateErrorLiveData; }
     public LiveData<String> getWeightErrorLiveData() { return weightErrorLiveData; }
@@ -76,10 +134,33 @@ public class WeightDataViewModel extends BaseValidationViewModel {
         // Now load entries for the current user
         List<WeightDatabaseHelper.WeightEntry> entries = weightRepository.getWeightEntries(userId);
         weightEntriesLiveData.setValue(entries);
+        outlierGuard.reset(entries);
 
         if (entries.isEmpty()) {
             statusMessageLiveData.setValue("No weight entries yet");
         }
+
+        refreshGoalProjection(userId);
+    }
+
+    /**
+     * Recomputes the projected goal date in the background and publishes it,
+     * both as text and as the epoch day the chart's trajectory overlay ends on.
+     * Called after the entries load and after each successful write.
+     *
+     * @param userId The ID of the user
+     */
+    private void refreshGoalProjection(int userId) {
+        AppExecutors.diskIO().execute(() -> {
+            TrendEstimate trend = weightRepository.getTrend(userId);
+            double goalWeight = userRepository.getGoalWeight(userId);
+            ProfileSnapshot.GoalProjection projection = ProfileSnapshot.GoalProjection.of(
+                    trend, goalWeight, weightRepository.getStatistics(userId).getFirstWeight());
+            int goalDay = projection == ProfileSnapshot.GoalProjection.DATE
+                    ? trend.projectGoalDay(goalWeight) : DateCodec.INVALID;
+            goalProjectionLiveData.postValue(UserStatisticsHelper.formatGoalProjection(projection, goalDay));
+            projectedGoalDayLiveData.postValue(goalDay);
+        });
     }
 
     /**
@@ -133,11 +214,26 @@ public class WeightDataViewModel extends BaseValidationViewModel {
 
     /**
      * Adds a new weight entry after validation.
+     * The entry is shown immediately as pending and persisted in the background;
+     * it is removed again if the write fails.
      *
      * @param dateStr The date string for the entry
      * @param weightStr The weight string to be parsed
      */
     public void addWeightEntry(String dateStr, String weightStr) {
+        addWeightEntry(dateStr, weightStr, false);
+    }
+
+    /**
+     * Adds a new weight entry after validation, optionally skipping the outlier check.
+     * Without confirmation, a weight far from the recent median is held back and an
+     * OutlierWarning is published instead.
+     *
+     * @param dateStr The date string for the entry
+     * @param weightStr The weight string to be parsed
+     * @param outlierConfirmed true if the user already confirmed an unusual weight
+     */
+    public void addWeightEntry(String dateStr, String weightStr, boolean outlierConfirmed) {
         // Validate inputs
         validateDate(dateStr);
         validateWeight(weightStr);
@@ -156,25 +252,44 @@ public class WeightDataViewModel extends BaseValidationViewModel {
                 return;
             }
 
-            boolean success = weightRepository.addWeightEntry(userId, dateStr, weight);
-
-            if (success) {
-                statusMessageLiveData.setValue("Weight entry added successfully");
-
-                // Reload entries
-                loadWeightEntries();
-
-                // Check goal progress
-                checkWeightGoalProgress(userId, weight);
-
-                // Signal profile update needed
-                profileUpdateNeededLiveData.setValue(true);
-
-                // Reset validation for next entry
-                resetValidation();
-            } else {
-                statusMessageLiveData.setValue("Failed to add weight entry");
+            if (!outlierConfirmed && isOutlier(weight)) {
+                outlierWarningLiveData.setValue(
+                        new OutlierWarning(null, dateStr, weightStr, outlierGuard.getMedian()));
+                return;
             }
+
+            WeightDatabaseHelper.WeightEntry pendingEntry =
+                    new WeightDatabaseHelper.WeightEntry(nextPendingId--, dateStr, weight, true);
+            List<WeightDatabaseHelper.WeightEntry> entries = copyEntries();
+            insertByDate(entries, pendingEntry);
+            weightEntriesLiveData.setValue(entries);
+
+            // Reset validation for next entry
+            resetValidation();
+
+            AppExecutors.diskIO().execute(() -> {
+                long entryId = weightRepository.addWeightEntry(userId, dateStr, weight);
+                // Reload so the new row and any later rows show their recomputed trend
+                List<WeightDatabaseHelper.WeightEntry> saved =
+                        entryId != -1 ? weightRepository.getWeightEntries(userId) : null;
+                AppExecutors.runOnMainThread(() -> {
+                    if (entryId != -1) {
+                        showSavedEntries(saved, pendingEntry.getId());
+                        outlierGuard.onEntrySaved(dateStr, weight);
+                        statusMessageLiveData.setValue("Weight entry added successfully");
+
+                        // Check goal progress
+                        goalProgressEvaluator.evaluateAsync(userId);
+
+                        // Signal profile update needed
+                        profileUpdateNeededLiveData.setValue(true);
+                        refreshGoalProjection(userId);
+                    } else {
+                        replaceEntry(pendingEntry.getId(), null);
+                        statusMessageLiveData.setValue("Failed to add weight entry");
+                    }
+                });
+            });
         } catch (NumberFormatException e) {
             weightErrorLiveData.setValue("Please enter a valid weight");
             weightValidLiveData.setValue(false);
@@ -198,12 +313,26 @@ public class WeightDataViewModel extends BaseValidationViewModel {
 
     /**
      * Updates an existing weight entry after validation.
+     * The edited values are shown immediately as pending and persisted in the background;
+     * the original entry is restored if the write fails.
      *
      * @param entryId The ID of the entry to update
      * @param newDate The new date value
      * @param newWeightStr The new weight value as a string
      */
     public void updateWeightEntry(int entryId, String newDate, String newWeightStr) {
+        updateWeightEntry(entryId, newDate, newWeightStr, false);
+    }
+
+    /**
+     * Updates an existing weight entry after validation, optionally skipping the outlier check.
+     *
+     * @param entryId The ID of the entry to update
+     * @param newDate The new date value
+     * @param newWeightStr The new weight value as a string
+     * @param outlierConfirmed true if the user already confirmed an unusual weight
+     */
+    public void updateWeightEntry(int entryId, String newDate, String newWeightStr, boolean outlierConfirmed) {
         if (!validateUpdateInputs(newDate, newWeightStr)) {
             statusMessageLiveData.setValue("Please correct the errors before updating");
             return;
@@ -211,15 +340,41 @@ public class WeightDataViewModel extends BaseValidationViewModel {
 
         try {
             double newWeight = Double.parseDouble(newWeightStr);
-            boolean success = weightRepository.updateWeightEntry(entryId, newDate, newWeight);
-
-            if (success) {
-                statusMessageLiveData.setValue("Weight entry updated");
-                loadWeightEntries();
-                profileUpdateNeededLiveData.setValue(true);
-            } else {
-                statusMessageLiveData.setValue("Failed to update entry");
+            int userId = getUserId();
+            if (userId == -1) {
+                statusMessageLiveData.setValue("User not found");
+                return;
             }
+
+            if (!outlierConfirmed && isOutlier(newWeight)) {
+                outlierWarningLiveData.setValue(
+                        new OutlierWarning(entryId, newDate, newWeightStr, outlierGuard.getMedian()));
+                return;
+            }
+
+            WeightDatabaseHelper.WeightEntry originalEntry = findEntry(entryId);
+            WeightDatabaseHelper.WeightEntry pendingEntry =
+                    new WeightDatabaseHelper.WeightEntry(entryId, newDate, newWeight, true);
+            replaceEntry(entryId, pendingEntry);
+
+            AppExecutors.diskIO().execute(() -> {
+                boolean success = weightRepository.updateWeightEntry(userId, entryId, newDate, newWeight);
+                List<WeightDatabaseHelper.WeightEntry> saved =
+                        success ? weightRepository.getWeightEntries(userId) : null;
+                AppExecutors.runOnMainThread(() -> {
+                    if (success) {
+                        showSavedEntries(saved, entryId);
+                        outlierGuard.invalidate();
+                        statusMessageLiveData.setValue("Weight entry updated");
+                        profileUpdateNeededLiveData.setValue(true);
+                        refreshGoalProjection(userId);
+                        goalProgressEvaluator.evaluateAsync(userId);
+                    } else {
+                        replaceEntry(entryId, originalEntry);
+                        statusMessageLiveData.setValue("Failed to update entry");
+                    }
+                });
+            });
         } catch (NumberFormatException e) {
             statusMessageLiveData.setValue("Please enter a valid weight");
         }
@@ -227,50 +382,233 @@ public class WeightDataViewModel extends BaseValidationViewModel {
 
     /**
      * Deletes a weight entry from the repository.
+     * The entry disappears immediately and is put back if the delete fails.
      *
      * @param entryId The ID of the entry to delete
      */
     public void deleteWeightEntry(int entryId) {
-        boolean success = weightRepository.deleteWeightEntry(entryId);
+        int userId = getUserId();
+        if (userId == -1) {
+            statusMessageLiveData.setValue("User not found");
+            return;
+        }
 
-        if (success) {
-            statusMessageLiveData.setValue("Weight entry deleted");
-            loadWeightEntries();
-            profileUpdateNeededLiveData.setValue(true);
-        } else {
-            statusMessageLiveData.setValue("Failed to delete entry");
+        WeightDatabaseHelper.WeightEntry originalEntry = findEntry(entryId);
+        replaceEntry(entryId, null);
+        pendingDeleteIds.add(entryId);
+
+        AppExecutors.diskIO().execute(() -> {
+            boolean success = weightRepository.deleteWeightEntry(userId, entryId);
+            List<WeightDatabaseHelper.WeightEntry> saved =
+                    success ? weightRepository.getWeightEntries(userId) : null;
+            AppExecutors.runOnMainThread(() -> {
+                pendingDeleteIds.remove(entryId);
+                if (success) {
+                    showSavedEntries(saved, entryId);
+                    outlierGuard.invalidate();
+                    statusMessageLiveData.setValue("Weight entry deleted");
+                    profileUpdateNeededLiveData.setValue(true);
+                    refreshGoalProjection(userId);
+                    // Keeps the milestone current so a later crossing is detected
+                    goalProgressEvaluator.evaluateAsync(userId);
+                } else {
+                    if (originalEntry != null) {
+                        List<WeightDatabaseHelper.WeightEntry> entries = copyEntries();
+                        insertByDate(entries, originalEntry);
+                        weightEntriesLiveData.setValue(entries);
+                    }
+                    statusMessageLiveData.setValue("Failed to delete entry");
+                }
+            });
+        });
+    }
+
+    /**
+     * Checks a weight against the rolling median of the user's recent entries.
+     * The window is rebuilt from the displayed entries only after an edit, delete or
+     * back-dated entry; otherwise it is already current.
+     *
+     * @param weight The weight to check
+     * @return true if the weight should be confirmed before saving
+     */
+    private boolean isOutlier(double weight) {
+        if (outlierGuard.isStale()) {
+            outlierGuard.reset(weightEntriesLiveData.getValue());
         }
+        return outlierGuard.isOutlier(weight);
     }
 
     /**
-     * Checks the user's progress toward their weight goal.
-     * Sends appropriate notifications based on how close they are to their goal.
+     * Clears the outlier warning once the user has responded to it.
+     */
+    public void clearOutlierWarning() {
+        outlierWarningLiveData.setValue(null);
+    }
+
+    /**
+     * Publishes the entries as saved, keeping any other changes that are still in flight.
+     * Pending entries stay in place of their saved versions and pending deletes stay hidden.
      *
-     * @param userId The ID of the user
-     * @param currentWeight The user's current weight
+     * @param saved The user's entries read back after the write, most recent first
+     * @param completedId The ID the finished write displayed its entry under
      */
-    private void checkWeightGoalProgress(int userId, double currentWeight) {
-        // Get the user's goal weight from the repository
-        double goalWeight = userRepository.getGoalWeight(userId);
+    private void showSavedEntries(List<WeightDatabaseHelper.WeightEntry> saved, int completedId) {
+        List<WeightDatabaseHelper.WeightEntry> inFlight = new ArrayList<>();
+        Set<Integer> inFlightIds = new HashSet<>(pendingDeleteIds);
+        List<WeightDatabaseHelper.WeightEntry> current = weightEntriesLiveData.getValue();
+        if (current != null) {
+            for (WeightDatabaseHelper.WeightEntry entry : current) {
+                if (entry.isPending() && entry.getId() != completedId) {
+                    inFlight.add(entry);
+                    inFlightIds.add(entry.getId());
+                }
+            }
+        }
 
-        // If no goal weight is set or it's invalid, return
-        if (goalWeight <= 0) {
-            return;
+        List<WeightDatabaseHelper.WeightEntry> entries = new ArrayList<>(saved.size() + inFlight.size());
+        for (WeightDatabaseHelper.WeightEntry entry : saved) {
+            if (!inFlightIds.contains(entry.getId())) {
+                entries.add(entry);
+            }
+        }
+        for (WeightDatabaseHelper.WeightEntry entry : inFlight) {
+            insertByDate(entries, entry);
+        }
+        weightEntriesLiveData.setValue(entries);
+    }
+
+    /**
+     * Copies the displayed entries so a change can be applied without mutating the current list.
+     *
+     * @return A mutable copy of the displayed entries
+     */
+    private List<WeightDatabaseHelper.WeightEntry> copyEntries() {
+        List<WeightDatabaseHelper.WeightEntry> current = weightEntriesLiveData.getValue();
+        return current == null ? new ArrayList<>() : new ArrayList<>(current);
+    }
+
+    /**
+     * Finds a displayed entry by ID.
+     *
+     * @param entryId The ID of the entry
+     * @return The entry, or null if it is not displayed
+     */
+    private WeightDatabaseHelper.WeightEntry findEntry(int entryId) {
+        List<WeightDatabaseHelper.WeightEntry> current = weightEntriesLiveData.getValue();
+        if (current != null) {
+            for (WeightDatabaseHelper.WeightEntry entry : current) {
+                if (entry.getId() == entryId) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replaces or removes a displayed entry and publishes the new list.
+     * A replacement is re-inserted by date since an edit may move it.
+     *
+     * @param entryId The ID of the entry to replace
+     * @param replacement The new entry, or null to remove it
+     */
+    private void replaceEntry(int entryId, WeightDatabaseHelper.WeightEntry replacement) {
+        List<WeightDatabaseHelper.WeightEntry> entries = copyEntries();
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).getId() == entryId) {
+                entries.remove(i);
+                break;
+            }
+        }
+        if (replacement != null) {
+            insertByDate(entries, replacement);
+        }
+        weightEntriesLiveData.setValue(entries);
+    }
+
+    /**
+     * Inserts an entry into a list kept in reverse chronological order.
+     *
+     * @param entries The list to insert into, most recent first
+     * @param entry The entry to insert
+     */
+    private static void insertByDate(List<WeightDatabaseHelper.WeightEntry> entries,
+                                     WeightDatabaseHelper.WeightEntry entry) {
+        int index = 0;
+        // ISO dates compare correctly as strings
+        while (index < entries.size() && entries.get(index).getDate().compareTo(entry.getDate()) > 0) {
+            index++;
         }
+        entries.add(index, entry);
+    }
 
-        // Calculate the difference between current and goal weight
-        double difference = Math.abs(currentWeight - goalWeight);
+    /**
+     * Gets the current user's goal weight from the cached profile.
+     *
+     * @return The goal weight, or 0 if not set or the user was not found
+     */
+    public double getGoalWeight() {
+        int userId = getUserId();
+        return userId == -1 ? 0 : userRepository.getGoalWeight(userId);
+    }
+
+    /**
+     * Loads a day range of the current user's series for the chart and delivers it on the main thread.
+     *
+     * @param resolution The resolution to load
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     * @param onLoaded Receives the loaded series, oldest first
+     */
+    public void loadChartRange(WeightSeries.Resolution resolution, int fromDay, int toDay,
+                               Consumer<WeightSeries> onLoaded) {
+        int userId = getUserId();
+        if (userId == -1) {
+            return;
+        }
+        AppExecutors.diskIO().execute(() -> {
+            WeightSeries series = weightRepository.getChartSeries(userId, resolution, fromDay, toDay);
+            AppExecutors.runOnMainThread(() -> onLoaded.accept(series));
+        });
+    }
 
-        // If user has reached their goal
-        if (difference <= 0.5) {
-            // Send goal achieved notification
-            notificationHelper.sendGoalAchievedNotification();
+    /**
+     * Loads a day range of the current user's series into the repository's range cache
+     * so a later pan to it does not wait on the database.
+     *
+     * @param resolution The resolution to load
+     * @param fromDay The first epoch day of the range, inclusive
+     * @param toDay The last epoch day of the range, inclusive
+     */
+    public void prefetchChartRange(WeightSeries.Resolution resolution, int fromDay, int toDay) {
+        int userId = getUserId();
+        if (userId == -1) {
+            return;
         }
-        // If user is getting close to their goal (within the threshold)
-        else if (difference <= GOAL_PROXIMITY_THRESHOLD) {
-            // Send progress notification
-            notificationHelper.sendGoalProgressNotification(currentWeight, goalWeight);
+        AppExecutors.diskIO().execute(() -> weightRepository.getChartSeries(userId, resolution, fromDay, toDay));
+    }
+
+    /**
+     * Exports the current user's whole chart to an image file in the background.
+     *
+     * @param format The image format
+     * @param overlays The overlays to include
+     * @param width The layout width of the chart
+     * @param height The layout height of the chart
+     * @param scale The output pixels per layout unit
+     * @param onExported Receives the written file on the main thread, or null if the export failed
+     */
+    public void exportChart(ChartExporter.Format format, Set<WeightChartView.Overlay> overlays,
+                            int width, int height, float scale, Consumer<File> onExported) {
+        List<WeightDatabaseHelper.WeightEntry> entries = weightEntriesLiveData.getValue();
+        if (entries == null || entries.isEmpty()) {
+            statusMessageLiveData.setValue("No weight data available to export");
+            onExported.accept(null);
+            return;
         }
+        Integer goalDay = projectedGoalDayLiveData.getValue();
+        ChartExporter.export(getApplication(), entries, getGoalWeight(),
+                goalDay != null ? goalDay : DateCodec.INVALID, overlays, format, width, height, scale, onExported);
     }
 
     /**
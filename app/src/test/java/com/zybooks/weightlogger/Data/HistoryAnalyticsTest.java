@@ -0,0 +1,105 @@
+package com.zybooks.weightlogger.Data;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks HistoryAnalytics' per-day deltas, and that its fork-join path agrees with the
+ * sequential scan with one to four worker threads.
+ */
+public class HistoryAnalyticsTest {
+    private static final int LARGE_SERIES_POINTS = 400_000;
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void deltas_areNormalizedPerDay() {
+        // 200.0 on 2024-01-01 (a Monday), 193.0 a week later, 192.0 the day after
+        int monday = 19723;
+        WeightSeries series = new WeightSeries(new int[]{monday, monday + 7, monday + 8},
+                new float[]{200f, 193f, 192f}, 3);
+
+        HistoryAnalytics.Result result = HistoryAnalytics.computeSequential(series);
+
+        assertEquals(-1.0, result.getWeekdayMeanDelta(0), TOLERANCE);
+        assertEquals(-1.0, result.getWeekdayMeanDelta(1), TOLERANCE);
+        assertTrue(Double.isNaN(result.getWeekdayMeanDelta(2)));
+        int[] histogram = result.getDeltaHistogram();
+        assertEquals(2, histogram[HistoryAnalytics.DELTA_BINS_PER_SIDE - 2]);
+    }
+
+    @Test
+    public void sameDayEntries_addNoDelta() {
+        int day = 19723;
+        WeightSeries series = new WeightSeries(new int[]{day, day, day + 1},
+                new float[]{200f, 201f, 200f}, 3);
+
+        HistoryAnalytics.Result result = HistoryAnalytics.computeSequential(series);
+
+        int total = 0;
+        for (int count : result.getDeltaHistogram()) {
+            total += count;
+        }
+        assertEquals(1, total);
+        assertEquals(-1.0, result.getWeekdayMeanDelta(1), TOLERANCE);
+    }
+
+    @Test
+    public void parallel_matchesSequential() {
+        WeightSeries series = syntheticSeries(LARGE_SERIES_POINTS, 42);
+        assertTrue(series.size() > HistoryAnalytics.PARALLEL_THRESHOLD);
+
+        HistoryAnalytics.Result sequential = HistoryAnalytics.computeSequential(series);
+        assertSameResult(sequential, HistoryAnalytics.compute(series));
+        for (int threads = 1; threads <= 4; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                assertSameResult(sequential, HistoryAnalytics.compute(series, pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Builds a long history with mostly daily entries, some repeated days and some gaps.
+     *
+     * @param points The number of points
+     * @param seed The random seed
+     * @return The series, oldest first
+     */
+    private static WeightSeries syntheticSeries(int points, long seed) {
+        Random random = new Random(seed);
+        int[] days = new int[points];
+        float[] weights = new float[points];
+        int day = -200_000;
+        double weight = 180;
+        for (int i = 0; i < points; i++) {
+            int step = random.nextInt(10);
+            day += step < 2 ? 0 : step < 9 ? 1 : 2 + random.nextInt(6);
+            weight += random.nextGaussian() * 0.8 - (weight - 180) * 0.01;
+            days[i] = day;
+            weights[i] = (float) weight;
+        }
+        return new WeightSeries(days, weights, points);
+    }
+
+    /**
+     * Asserts two results agree. Counts must match exactly; sums are merged in a different
+     * order, so means may differ in the last bits.
+     */
+    private static void assertSameResult(HistoryAnalytics.Result expected, HistoryAnalytics.Result actual) {
+        for (int weekday = 0; weekday < 7; weekday++) {
+            assertEquals(expected.getWeekdayMeanDelta(weekday), actual.getWeekdayMeanDelta(weekday), TOLERANCE);
+        }
+        assertEquals(expected.getMonthCount(), actual.getMonthCount());
+        for (int month = 0; month < expected.getMonthCount(); month++) {
+            assertEquals(expected.getMonthStart(month), actual.getMonthStart(month));
+            assertEquals(expected.getMonthMean(month), actual.getMonthMean(month), TOLERANCE);
+        }
+        assertArrayEquals(expected.getDeltaHistogram(), actual.getDeltaHistogram());
+    }
+}
@@ -0,0 +1,80 @@
+package com.zybooks.weightlogger.Utilities;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks DateCodec against java.time over every day it can store, and against the
+ * SimpleDateFormat and LocalDate parsers it replaced.
+ */
+public class DateCodecTest {
+    private static final int SAMPLED_DAYS = 200_000;
+
+    @Test
+    public void everyDay_roundTripsAgainstLocalDate() {
+        int first = (int) LocalDate.of(0, 1, 1).toEpochDay();
+        int last = (int) LocalDate.of(9999, 12, 31).toEpochDay();
+        for (int day = first; day <= last; day++) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            String iso = date.toString();
+
+            assertEquals(iso, DateCodec.formatIso(day));
+            assertEquals(iso, day, DateCodec.parseEpochDay(iso));
+            assertEquals(iso, date.getYear(), DateCodec.year(day));
+            assertEquals(iso, date.getMonthValue(), DateCodec.month(day));
+            assertEquals(iso, date.getDayOfMonth(), DateCodec.dayOfMonth(day));
+            assertEquals(iso, day, DateCodec.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            assertEquals(iso, day - date.getDayOfMonth() + 1, DateCodec.monthStart(day));
+            assertEquals(iso, date.lengthOfMonth(), DateCodec.lengthOfMonth(date.getYear(), date.getMonthValue()));
+        }
+    }
+
+    @Test
+    public void invalidText_isRejected() {
+        String[] invalid = {
+                null, "", "2024-1-01", "2024-01-1", "2024/01/01", "20240101xx", "2024-00-10", "2024-13-01",
+                "2024-01-00", "2024-01-32", "2023-02-29", "1900-02-29", "2024-04-31", "+024-01-01",
+                "2024-0a-01", " 024-01-01", "2024-01-01 "
+        };
+        for (String text : invalid) {
+            assertEquals(String.valueOf(text), DateCodec.INVALID, DateCodec.parseEpochDay(text));
+            assertFalse(String.valueOf(text), DateCodec.isValid(text));
+        }
+        assertTrue(DateCodec.isValid("2024-02-29"));
+        assertTrue(DateCodec.isValid("2000-02-29"));
+    }
+
+    @Test
+    public void parse_agreesWithSimpleDateFormatAndLocalDate() throws ParseException {
+        SimpleDateFormat simpleFormat = new SimpleDateFormat(DateCodec.ISO_PATTERN, Locale.US);
+        simpleFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        simpleFormat.setLenient(false);
+        int firstDay = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+        for (int i = 0; i < SAMPLED_DAYS; i += 997) {
+            String text = LocalDate.ofEpochDay(firstDay + i).toString();
+            Date parsed = simpleFormat.parse(text);
+            assertEquals(text, firstDay + i, parsed.getTime() / 86_400_000L);
+            assertEquals(text, firstDay + i, LocalDate.parse(text).toEpochDay());
+            assertEquals(text, firstDay + i, DateCodec.parseEpochDay(text));
+        }
+    }
+
+    @Test
+    public void format_agreesWithSimpleDateFormat() {
+        SimpleDateFormat simpleFormat = new SimpleDateFormat(DateCodec.ISO_PATTERN, Locale.US);
+        simpleFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        int firstDay = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+        for (int i = 0; i < SAMPLED_DAYS; i += 997) {
+            int day = firstDay + i;
+            assertEquals(simpleFormat.format(new Date(day * 86_400_000L)), DateCodec.formatIso(day));
+        }
+    }
+}